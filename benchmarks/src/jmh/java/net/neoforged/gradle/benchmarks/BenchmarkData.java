@@ -0,0 +1,143 @@
+package net.neoforged.gradle.benchmarks;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Generates the synthetic inputs of the benchmarks.
+ * All data is generated from a fixed seed, so every run of a benchmark works on the same input.
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+        throw new IllegalStateException("Can not instantiate an instance of: BenchmarkData. This is a utility class");
+    }
+
+    /**
+     * @return A new temporary directory for the inputs and outputs of a benchmark.
+     */
+    public static File createDirectory(String name) throws IOException {
+        return Files.createTempDirectory("neogradle-benchmark-" + name).toFile();
+    }
+
+    /**
+     * @return A project in the given directory, for benchmarks that need tasks or file trees.
+     */
+    public static Project createProject(File directory) {
+        return ProjectBuilder.builder().withProjectDir(directory).build();
+    }
+
+    /**
+     * @return The names of the class entries of a jar created by {@link #createJar(File, int, int)}.
+     */
+    public static List<String> classNames(int classes) {
+        final List<String> names = new ArrayList<>(classes);
+        for (int i = 0; i < classes; i++) {
+            names.add("net/minecraft/package%d/Class%d.class".formatted(i % 100, i));
+        }
+        return names;
+    }
+
+    /**
+     * Creates a jar that looks like a Minecraft jar: mostly classes, some resources, all of them compressible.
+     *
+     * @param file The jar to create.
+     * @param classes The amount of classes in the jar.
+     * @param averageSize The average uncompressed size of an entry.
+     * @return The jar.
+     */
+    public static File createJar(File file, int classes, int averageSize) throws IOException {
+        final Random random = new Random(classes);
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            for (String name : classNames(classes)) {
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(content(random, averageSize));
+                zip.closeEntry();
+            }
+            for (int i = 0; i < classes / 10; i++) {
+                zip.putNextEntry(new ZipEntry("assets/minecraft/textures/resource%d.png".formatted(i)));
+                zip.write(content(random, averageSize));
+                zip.closeEntry();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Creates a directory tree with the same content as {@link #createJar(File, int, int)}.
+     *
+     * @param directory The directory to create the files in.
+     * @param classes The amount of classes.
+     * @param averageSize The average size of a file.
+     * @return The directory.
+     */
+    public static File createFiles(File directory, int classes, int averageSize) throws IOException {
+        final Random random = new Random(classes);
+        for (String name : classNames(classes)) {
+            final File file = new File(directory, name);
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.write(file.toPath(), content(random, averageSize));
+        }
+        return directory;
+    }
+
+    /**
+     * Creates a file with random content.
+     */
+    public static File createFile(File file, int size) throws IOException {
+        final byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    /**
+     * Creates a ProGuard mappings file, like the official mappings of Minecraft, mapping to SRG style names.
+     *
+     * @param file The mappings file to create.
+     * @param classes The amount of classes.
+     * @param membersPerClass The amount of fields and methods per class.
+     * @param seed The seed of the generated names, mappings with the same seed share their member names.
+     * @return The mappings file.
+     */
+    public static File createMappings(File file, int classes, int membersPerClass, int seed) throws IOException {
+        final Random random = new Random(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            int id = 0;
+            for (int i = 0; i < classes; i++) {
+                writer.write("net.minecraft.package%d.Class%d -> c%d:\n".formatted(i % 100, i, i));
+                for (int member = 0; member < membersPerClass; member++) {
+                    final String name = random.nextInt(10) == 0 ? "shared" + member : "name" + id;
+                    writer.write("    int %sField -> f_%d_\n".formatted(name, id));
+                    writer.write("    1:1:void %sMethod(int,java.lang.String) -> m_%d_\n".formatted(name, id));
+                    id++;
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * @return Bytes that compress about as well as class files.
+     */
+    private static byte[] content(Random random, int averageSize) {
+        final byte[] content = new byte[averageSize / 2 + random.nextInt(averageSize)];
+        for (int i = 0; i < content.length; i++) {
+            //A small alphabet with a skewed distribution, so the content is compressible, but not trivially.
+            content[i] = (byte) ('a' + (int) Math.abs(random.nextGaussian() * 6));
+        }
+        return content;
+    }
+}
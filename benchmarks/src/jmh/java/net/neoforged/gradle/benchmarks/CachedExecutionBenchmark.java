@@ -0,0 +1,91 @@
+package net.neoforged.gradle.benchmarks;
+
+import net.neoforged.gradle.common.services.caching.CachedExecutionBuilder;
+import net.neoforged.gradle.common.services.caching.InFlightJobs;
+import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
+import net.neoforged.gradle.common.services.caching.locking.LockManager;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of the cached execution of a task.
+ * <p>
+ * {@link #hit()} restores an output which is already present, like an up-to-date build does.
+ * {@link #miss()} executes a task with new inputs, and stores its output in the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CachedExecutionBenchmark {
+
+    @Param({"false", "true"})
+    public boolean deduplicate;
+
+    private File directory;
+    private CachedExecutionBuilder.Options options;
+    private Task hitTask;
+    private Task missTask;
+    private File hitOutput;
+    private File missOutput;
+    private byte[] content;
+    private int run = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = BenchmarkData.createDirectory("cached-execution");
+        final File inputs = BenchmarkData.createFiles(new File(directory, "inputs"), 200, 4 * 1024);
+        options = new CachedExecutionBuilder.Options(
+                true,
+                new File(directory, "cache"),
+                deduplicate,
+                1,
+                LockManager.LockType.CHANNEL,
+                new InFlightJobs(),
+                new CachedExecutionBuilder.LoggingOptions(false, false)
+        );
+
+        final Project project = BenchmarkData.createProject(new File(directory, "project"));
+        hitTask = project.getTasks().create("hit");
+        hitTask.getInputs().files(inputs);
+        missTask = project.getTasks().create("miss");
+        missTask.getInputs().files(inputs);
+        missTask.getInputs().property("run", project.provider(() -> run));
+
+        hitOutput = new File(directory, "hit/output.jar");
+        missOutput = new File(directory, "miss/output.jar");
+        Files.createDirectories(hitOutput.getParentFile().toPath());
+        Files.createDirectories(missOutput.getParentFile().toPath());
+        content = new byte[256 * 1024];
+        new Random(0).nextBytes(content);
+
+        //Populate the cache, so all following executions of the hit task are cache hits.
+        hit();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void hit() throws IOException {
+        new CachedExecutionBuilder<>(options, hitTask, new ICacheableJob.Default(hitOutput, false, () -> Files.write(hitOutput.toPath(), content))).execute();
+    }
+
+    @Benchmark
+    public void miss() throws IOException {
+        run++;
+        new CachedExecutionBuilder<>(options, missTask, new ICacheableJob.Default(missOutput, false, () -> Files.write(missOutput.toPath(), content))).execute();
+    }
+}
@@ -0,0 +1,43 @@
+package net.neoforged.gradle.benchmarks;
+
+import net.neoforged.gradle.util.HashFunction;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hashing of a single large file, like a Minecraft jar, with the hash functions used to verify downloads and outputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashFunctionBenchmark {
+
+    @Param({"MD5", "SHA1", "SHA256"})
+    public HashFunction function;
+
+    private File directory;
+    private File jar;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = BenchmarkData.createDirectory("hash-function");
+        jar = BenchmarkData.createFile(new File(directory, "client.jar"), 32 * 1024 * 1024);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public String hashFile() throws IOException {
+        return function.hash(jar);
+    }
+}
@@ -0,0 +1,57 @@
+package net.neoforged.gradle.benchmarks;
+
+import net.minecraftforge.srgutils.IMappingFile;
+import net.neoforged.gradle.common.runtime.naming.renamer.IMappingFileSourceRenamer;
+import net.neoforged.gradle.util.IMappingFileUtils;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading the official mappings, with and without the daemon wide cache, and building the source renamer from them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingsBenchmark {
+
+    private File directory;
+    private File clientMappings;
+    private IMappingFile client;
+    private IMappingFile server;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = BenchmarkData.createDirectory("mappings");
+        clientMappings = BenchmarkData.createMappings(new File(directory, "client.txt"), 8_000, 12, 1);
+        final File serverMappings = BenchmarkData.createMappings(new File(directory, "server.txt"), 6_000, 12, 2);
+        client = IMappingFile.load(clientMappings);
+        server = IMappingFile.load(serverMappings);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public IMappingFile load() throws IOException {
+        return IMappingFile.load(clientMappings);
+    }
+
+    @Benchmark
+    public IMappingFile loadCached() {
+        return IMappingFileUtils.load(clientMappings);
+    }
+
+    @Benchmark
+    public IMappingFileSourceRenamer createSourceRenamer() {
+        return IMappingFileSourceRenamer.from(client, server);
+    }
+}
@@ -0,0 +1,137 @@
+package net.neoforged.gradle.benchmarks;
+
+import net.neoforged.gradle.common.runtime.naming.renamer.ISourceRenamer;
+import net.neoforged.gradle.common.runtime.naming.renamer.RegexBasedSourceRenamer;
+import net.neoforged.gradle.common.runtime.naming.renamer.TokenBasedSourceRenamer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Compares the regex based source renamer with the token based one.
+ * <p>
+ * By default a set of generated source files is renamed, a real decompiled sources jar can be used instead by passing
+ * {@code -PbenchmarkSourcesJar=<path>} to the jmh task. All SRG names found in the sources are mapped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SourceRenamerBenchmark {
+
+    private static final String SOURCES_JAR_PROPERTY = "net.neoforged.gradle.benchmarks.sourcesJar";
+    private static final Pattern SRG_FINDER = Pattern.compile("[fF]unc_\\d+_[a-zA-Z_]+|m_\\d+_|[fF]ield_\\d+_[a-zA-Z_]+|f_\\d+_|p_\\w+_\\d+_|p_\\d+_");
+
+    @Param({"true", "false"})
+    public boolean lambdas;
+
+    private List<byte[]> sources;
+    private ISourceRenamer regexRenamer;
+    private ISourceRenamer tokenRenamer;
+
+    @Setup
+    public void setup() throws IOException {
+        final String sourcesJar = System.getProperty(SOURCES_JAR_PROPERTY);
+        sources = sourcesJar == null ? generateSources() : readSources(new File(sourcesJar));
+
+        final Map<String, String> names = new HashMap<>();
+        for (byte[] source : sources) {
+            final Matcher matcher = SRG_FINDER.matcher(new String(source, StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                final String srg = matcher.group();
+                names.computeIfAbsent(srg.charAt(0) == 'F' ? 'f' + srg.substring(1) : srg, key -> "mapped" + names.size());
+            }
+        }
+
+        regexRenamer = new RegexBasedSourceRenamer() {
+            @Override
+            public Map<String, String> getNames() {
+                return names;
+            }
+
+            @Override
+            public Map<String, String> getDocs() {
+                return Collections.emptyMap();
+            }
+        };
+        tokenRenamer = new TokenBasedSourceRenamer() {
+            @Override
+            public Map<String, String> getNames() {
+                return names;
+            }
+
+            @Override
+            public Map<String, String> getDocs() {
+                return Collections.emptyMap();
+            }
+        };
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) throws IOException {
+        rename(regexRenamer, blackhole);
+    }
+
+    @Benchmark
+    public void token(Blackhole blackhole) throws IOException {
+        rename(tokenRenamer, blackhole);
+    }
+
+    private void rename(ISourceRenamer renamer, Blackhole blackhole) throws IOException {
+        for (byte[] source : sources) {
+            blackhole.consume(renamer.rename(source, false, lambdas));
+        }
+    }
+
+    private static List<byte[]> readSources(File sourcesJar) throws IOException {
+        final List<byte[]> result = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(sourcesJar)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (entry.getName().endsWith(".java")) {
+                    result.add(zip.getInputStream(entry).readAllBytes());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Generates source files which look like decompiled Minecraft classes with SRG names.
+     */
+    private static List<byte[]> generateSources() {
+        final Random random = new Random(0);
+        final List<byte[]> result = new ArrayList<>();
+        for (int file = 0; file < 500; file++) {
+            final StringBuilder source = new StringBuilder();
+            source.append("package net.minecraft.world.level;\n\n");
+            source.append("public class Generated").append(file).append(" {\n");
+            for (int member = 0; member < 40; member++) {
+                final int id = random.nextInt(100_000);
+                source.append("   private final int f_").append(id).append("_;\n");
+                source.append("   public void m_").append(id).append("_(int p_").append(id).append("_1_, String p_").append(id).append("_2_) {\n");
+                source.append("      this.f_").append(id).append("_ = p_").append(id).append("_1_ + other.length();\n");
+                source.append("      list.forEach((p_").append(id).append("_3_) -> this.m_").append(random.nextInt(100_000)).append("_(p_").append(id).append("_3_));\n");
+                source.append("   }\n\n");
+            }
+            source.append("}\n");
+            result.add(source.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package net.neoforged.gradle.benchmarks;
+
+import net.neoforged.gradle.util.RawZipFile;
+import net.neoforged.gradle.util.ZipRewriter;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Measures stripping a jar down to the classes of the mappings, like the StripJar task does.
+ * <p>
+ * {@link #recompressing()} is the stream based approach, which inflates and deflates every kept entry,
+ * {@link #raw()} copies the kept entries without recompressing them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StripJarBenchmark {
+
+    private static final int CLASSES = 10_000;
+
+    private File directory;
+    private File input;
+    private File output;
+    private Set<String> filters;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = BenchmarkData.createDirectory("strip-jar");
+        input = BenchmarkData.createJar(new File(directory, "input.jar"), CLASSES, 3 * 1024);
+        output = new File(directory, "output.jar");
+
+        //Like the mappings, the filters contain most but not all of the classes.
+        final List<String> classes = BenchmarkData.classNames(CLASSES);
+        filters = new HashSet<>(classes.subList(0, CLASSES * 9 / 10));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void recompressing() throws IOException {
+        try (JarInputStream is = new JarInputStream(new FileInputStream(input));
+             JarOutputStream os = new JarOutputStream(new FileOutputStream(output))) {
+            JarEntry entry;
+            while ((entry = is.getNextJarEntry()) != null) {
+                if (entry.isDirectory() || !filters.contains(entry.getName())) {
+                    continue;
+                }
+                os.putNextEntry(entry);
+                IOUtils.copyLarge(is, os);
+                os.closeEntry();
+            }
+        }
+    }
+
+    @Benchmark
+    public void raw() throws IOException {
+        try (RawZipFile zip = RawZipFile.open(input);
+             ZipRewriter rewriter = new ZipRewriter(output)) {
+            for (RawZipFile.Entry entry : zip.entries()) {
+                if (entry.isDirectory() || !filters.contains(entry.name())) {
+                    continue;
+                }
+                rewriter.copy(zip, entry);
+            }
+        }
+    }
+}
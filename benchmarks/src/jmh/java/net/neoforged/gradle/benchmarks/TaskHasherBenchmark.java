@@ -0,0 +1,79 @@
+package net.neoforged.gradle.benchmarks;
+
+import net.neoforged.gradle.common.services.caching.hasher.TaskHasher;
+import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
+import net.neoforged.gradle.common.util.hash.HashCode;
+import net.neoforged.gradle.common.util.hash.Hashing;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the hashing of task inputs, which is done for every cached task.
+ * <p>
+ * {@link #hashDirectory()} hashes all files, like the cache does to compare directory outputs.
+ * {@link #hashTask()} hashes a task through the persistent file hash index, which is what an up-to-date build does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskHasherBenchmark {
+
+    private static final long PAST = 1_000_000_000_000L;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private File directory;
+    private File inputs;
+    private File cache;
+    private Task task;
+    private CacheLogger logger;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = BenchmarkData.createDirectory("task-hasher");
+        inputs = BenchmarkData.createFiles(new File(directory, "inputs"), 2_000, 4 * 1024);
+        cache = new File(directory, "cache");
+
+        //Files which were modified recently are never indexed.
+        try (Stream<Path> files = Files.walk(inputs.toPath())) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(PAST));
+            }
+        }
+
+        final Project project = BenchmarkData.createProject(new File(directory, "project"));
+        task = project.getTasks().create("hashed");
+        task.getInputs().files(inputs);
+        task.getInputs().property("version", "1.20.4");
+        logger = new CacheLogger(task, false, false);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public HashCode hashDirectory() throws IOException {
+        return Hashing.hashDirectory(inputs, parallelism);
+    }
+
+    @Benchmark
+    public HashCode hashTask() throws IOException {
+        return new TaskHasher(task, logger, cache, parallelism).create();
+    }
+}
@@ -0,0 +1,50 @@
+package net.neoforged.gradle.benchmarks;
+
+import net.neoforged.gradle.util.ZipBuildingFileTreeVisitor;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.Project;
+import org.gradle.api.file.FileTree;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Measures building a zip from a file tree, like the injection of additional sources and resources does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZipBuildingFileTreeVisitorBenchmark {
+
+    private File directory;
+    private FileTree tree;
+    private File output;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = BenchmarkData.createDirectory("zip-building");
+        final File files = BenchmarkData.createFiles(new File(directory, "files"), 2_000, 3 * 1024);
+        final Project project = BenchmarkData.createProject(new File(directory, "project"));
+        tree = project.fileTree(files);
+        output = new File(directory, "output.zip");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void visit() throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(output))) {
+            tree.visit(new ZipBuildingFileTreeVisitor(zip));
+        }
+    }
+}
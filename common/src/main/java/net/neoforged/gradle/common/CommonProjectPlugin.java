@@ -19,6 +19,7 @@ import net.neoforged.gradle.common.runtime.definition.CommonRuntimeDefinition;
 import net.neoforged.gradle.common.runtime.extensions.RuntimesExtension;
 import net.neoforged.gradle.common.runtime.naming.OfficialNamingChannelConfigurator;
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
+import net.neoforged.gradle.common.services.download.DownloadService;
 import net.neoforged.gradle.common.tasks.CleanCache;
 import net.neoforged.gradle.common.tasks.DisplayMappingsLicenseTask;
 import net.neoforged.gradle.common.util.ConfigurationUtils;
@@ -41,6 +42,7 @@ import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.api.problems.Problems;
 import org.gradle.api.tasks.Delete;
 import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
 import org.gradle.plugins.ide.eclipse.EclipsePlugin;
 import org.gradle.plugins.ide.idea.IdeaPlugin;
 import org.jetbrains.gradle.ext.IdeaExtPlugin;
@@ -69,6 +71,7 @@ public class CommonProjectPlugin implements Plugin<Project> {
 
         //Register the services
         CachedExecutionService.register(project);
+        DownloadService.register(project);
 
         // Apply both the idea and eclipse IDE plugins
         project.getPluginManager().apply(IdeaPlugin.class);
@@ -135,11 +138,12 @@ public class CommonProjectPlugin implements Plugin<Project> {
         IdeRunIntegrationManager.getInstance().setup(project);
 
         //Clean the shared cache
-        project.getTasks().register("cleanCache", CleanCache.class);
+        final TaskProvider<CleanCache> cleanCache = project.getTasks().register("cleanCache", CleanCache.class);
 
-        //Clean the configuration data location.
+        //Clean the configuration data location, and evict old entries from the shared cache.
         project.getTasks().named("clean", Delete.class, delete -> {
             delete.delete(configurationData.getLocation());
+            delete.dependsOn(cleanCache);
         });
 
         //Set up reporting tasks
@@ -65,6 +65,15 @@ public abstract class SubsystemsExtension extends WithPropertyLookup implements
         tools.getDevLogin().convention(
                 getStringProperty("tools.devLogin", DEVLOGIN_TOOL_ARTIFACT)
         );
+        tools.getUseWorkerDaemons().convention(
+                getBooleanProperty("tools.useWorkerDaemons", false, false)
+        );
+        tools.getFuseInProcessSteps().convention(
+                getBooleanProperty("tools.fuseInProcessSteps", false, false)
+        );
+        tools.getSourceRemappingThreads().convention(
+                getStringProperty("tools.sourceRemappingThreads", "0").map(Integer::parseUnsignedInt)
+        );
 
         RenderDocTools renderDocTools = tools.getRenderDoc();
         renderDocTools.getRenderDocPath().convention(
@@ -90,6 +99,7 @@ public abstract class SubsystemsExtension extends WithPropertyLookup implements
             }
         }));
         decompiler.getJvmArgs().convention(getSpaceSeparatedListProperty("decompiler.jvmArgs", Collections.emptyList()));
+        decompiler.getIncremental().convention(getBooleanProperty("decompiler.incremental", false, false));
     }
 
     private void configureRecompilerDefaults() {
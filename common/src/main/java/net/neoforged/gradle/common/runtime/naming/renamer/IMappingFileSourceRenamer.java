@@ -21,6 +21,8 @@
 package net.neoforged.gradle.common.runtime.naming.renamer;
 
 import net.minecraftforge.srgutils.IMappingFile;
+import net.neoforged.gradle.util.IMappingFileUtils;
+import net.neoforged.gradle.util.ParsedFileCache;
 import org.gradle.api.tasks.Nested;
 
 import java.io.File;
@@ -29,7 +31,7 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class IMappingFileSourceRenamer extends RegexBasedSourceRenamer {
+public class IMappingFileSourceRenamer extends TokenBasedSourceRenamer {
 
     private final Map<String, String> names;
     private final Map<String, String> docs;
@@ -39,11 +41,13 @@ public class IMappingFileSourceRenamer extends RegexBasedSourceRenamer {
         this.docs = docs;
     }
 
+    /**
+     * Creates a renamer from the given client and server mappings.
+     * The renamer is shared with all other callers for mappings with the same content, see {@link ParsedFileCache}.
+     */
     public static IMappingFileSourceRenamer from(File clientFile, final File serverFile) throws IOException {
-        IMappingFile pg_client = IMappingFile.load(clientFile);
-        IMappingFile pg_server = IMappingFile.load(serverFile);
-
-        return from(pg_client, pg_server);
+        return ParsedFileCache.get(clientFile, serverFile, IMappingFileSourceRenamer.class,
+                (client, server) -> from(IMappingFileUtils.load(client), IMappingFileUtils.load(server)));
     }
 
     public static IMappingFileSourceRenamer from(IMappingFile pg_client, final IMappingFile pg_server) {
@@ -14,7 +14,7 @@ import java.util.Objects;
 public class IMappingFileTypeRenamer implements ITypeRenamer {
 
     public static ITypeRenamer from(final File clientFile, final File serverFile) throws IOException {
-        return new IMappingFileTypeRenamer(IMappingFile.load(clientFile), IMappingFile.load(serverFile));
+        return new IMappingFileTypeRenamer(IMappingFileUtils.load(clientFile), IMappingFileUtils.load(serverFile));
     }
 
     public static ITypeRenamer from(final IMappingFile clientMappings, final IMappingFile serverMappings) {
@@ -5,6 +5,7 @@ import java.io.IOException;
 /**
  * Defines a renamer which renames a source file or parts of it.
  * Generally source renamers only support renaming source files which have unique, type, field and method names.
+ * Implementations must be thread safe, as multiple source files are renamed concurrently.
  */
 public interface ISourceRenamer {
     /**
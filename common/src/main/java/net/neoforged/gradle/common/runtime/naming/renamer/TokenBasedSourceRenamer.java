@@ -0,0 +1,209 @@
+package net.neoforged.gradle.common.runtime.naming.renamer;
+
+import org.apache.commons.io.IOUtils;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+
+/**
+ * A source renamer which finds the names to rename with a hand-written scanner, instead of matching regular
+ * expressions against every line.
+ * <p>
+ * The source file is scanned once, and written into a single builder. The output is identical to the one of
+ * {@link RegexBasedSourceRenamer}: the same names are found, and all line separators are replaced with the
+ * line separator of the system. Injecting javadocs still requires the line based processing of the regex based
+ * renamer, so files are renamed by it if javadocs are requested and available.
+ */
+public abstract class TokenBasedSourceRenamer extends RegexBasedSourceRenamer {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    @Override
+    public byte[] rename(byte[] classFile, boolean javadocs, boolean lambdas, Charset sourceFileCharset) throws IOException {
+        if (javadocs && !getDocs().isEmpty()) {
+            return super.rename(classFile, true, lambdas, sourceFileCharset);
+        }
+
+        final String data = new String(classFile, sourceFileCharset);
+        if (data.isEmpty())
+            return new byte[0];
+
+        final Set<String> blacklist = lambdas ? null : findLambdaParameters(data);
+        final Map<String, String> names = getNames();
+        final StringBuilder builder = new StringBuilder(data.length() + data.length() / 8);
+
+        final int length = data.length();
+        int copied = 0;
+        int index = 0;
+        while (index < length) {
+            final char c = data.charAt(index);
+            if (c == '\r' || c == '\n') {
+                builder.append(data, copied, index).append(NEWLINE);
+                index += c == '\r' && index + 1 < length && data.charAt(index + 1) == '\n' ? 2 : 1;
+                copied = index;
+                continue;
+            }
+
+            final int end = matchName(data, index, c);
+            if (end == -1) {
+                index++;
+                continue;
+            }
+
+            builder.append(data, copied, index).append(getMapped(names, data.substring(index, end), blacklist));
+            index = end;
+            copied = end;
+        }
+        builder.append(data, copied, length);
+
+        return builder.toString().getBytes(sourceFileCharset);
+    }
+
+    /**
+     * Collects the parameters of lambdas, which are not renamed if lambdas are excluded.
+     * Like the regex based renamer, only the first lambda of every line is considered.
+     */
+    private static Set<String> findLambdaParameters(String data) throws IOException {
+        final Set<String> blacklist = new HashSet<>();
+        for (String line : IOUtils.readLines(new StringReader(data))) {
+            if (line.indexOf("->") == -1)
+                continue;
+
+            final Matcher m = LAMBDA_DECL.matcher(line);
+            if (m.find())
+                blacklist.addAll(Arrays.asList(m.group("args").split(", ")));
+        }
+        return blacklist;
+    }
+
+    /**
+     * Matches the SRG name pattern of the regex based renamer at the given index:
+     * {@code [fF]unc_\d+_[a-zA-Z_]+|m_\d+_|[fF]ield_\d+_[a-zA-Z_]+|f_\d+_|p_\w+_\d+_|p_\d+_}
+     *
+     * @return The end of the name, or -1 if there is no name at the given index.
+     */
+    private static int matchName(String data, int index, char c) {
+        int end;
+        switch (c) {
+            case 'f':
+                end = matchDescriptiveName(data, index + 1, "unc_");
+                if (end == -1)
+                    end = matchDescriptiveName(data, index + 1, "ield_");
+                if (end == -1)
+                    end = matchNumberedName(data, index + 1);
+                return end;
+            case 'F':
+                end = matchDescriptiveName(data, index + 1, "unc_");
+                if (end == -1)
+                    end = matchDescriptiveName(data, index + 1, "ield_");
+                return end;
+            case 'm':
+                return matchNumberedName(data, index + 1);
+            case 'p':
+                end = matchParameterName(data, index + 1);
+                if (end == -1)
+                    end = matchNumberedName(data, index + 1);
+                return end;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Matches {@code <prefix>\d+_[a-zA-Z_]+}.
+     */
+    private static int matchDescriptiveName(String data, int index, String prefix) {
+        if (!data.startsWith(prefix, index))
+            return -1;
+
+        final int digitsEnd = skipDigits(data, index + prefix.length());
+        if (digitsEnd == index + prefix.length() || digitsEnd >= data.length() || data.charAt(digitsEnd) != '_')
+            return -1;
+
+        int end = digitsEnd + 1;
+        while (end < data.length() && isLetterOrUnderscore(data.charAt(end)))
+            end++;
+
+        return end == digitsEnd + 1 ? -1 : end;
+    }
+
+    /**
+     * Matches {@code _\d+_}.
+     */
+    private static int matchNumberedName(String data, int index) {
+        if (index >= data.length() || data.charAt(index) != '_')
+            return -1;
+
+        final int digitsEnd = skipDigits(data, index + 1);
+        if (digitsEnd == index + 1 || digitsEnd >= data.length() || data.charAt(digitsEnd) != '_')
+            return -1;
+
+        return digitsEnd + 1;
+    }
+
+    /**
+     * Matches {@code _\w+_\d+_}, where the greedy {@code \w+} takes the longest possible prefix.
+     */
+    private static int matchParameterName(String data, int index) {
+        if (index >= data.length() || data.charAt(index) != '_')
+            return -1;
+
+        final int wordStart = index + 1;
+        int wordEnd = wordStart;
+        while (wordEnd < data.length() && isWordCharacter(data.charAt(wordEnd)))
+            wordEnd++;
+
+        for (int separator = wordEnd - 1; separator > wordStart; separator--) {
+            if (data.charAt(separator) != '_')
+                continue;
+
+            final int end = matchNumberedName(data, separator);
+            if (end != -1)
+                return end;
+        }
+
+        return -1;
+    }
+
+    private static int skipDigits(String data, int index) {
+        while (index < data.length() && isDigit(data.charAt(index)))
+            index++;
+        return index;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetterOrUnderscore(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return isLetterOrUnderscore(c) || isDigit(c);
+    }
+
+    /*
+     * There are certain times, such as Mixin Accessors that we wish to have the name of this method with the first character upper case.
+     */
+    private static String getMapped(Map<String, String> names, String srg, @Nullable Set<String> blacklist) {
+        if (blacklist != null && blacklist.contains(srg))
+            return srg;
+
+        boolean cap = srg.charAt(0) == 'F';
+        if (cap)
+            srg = 'f' + srg.substring(1);
+
+        String ret = names.getOrDefault(srg, srg);
+        if (cap)
+            ret = ret.substring(0, 1).toUpperCase(Locale.ROOT) + ret.substring(1);
+        return ret;
+    }
+}
@@ -22,28 +22,42 @@ package net.neoforged.gradle.common.runtime.naming.tasks;
 
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
-import net.neoforged.gradle.util.FileUtils;
+import net.neoforged.gradle.util.RawZipFile;
+import net.neoforged.gradle.util.ZipRewriter;
 import net.neoforged.gradle.common.runtime.naming.renamer.ISourceRenamer;
 import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
-import org.apache.commons.io.IOUtils;
+import net.neoforged.gradle.dsl.common.extensions.subsystems.Subsystems;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.*;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.util.Enumeration;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
-import java.util.zip.ZipOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 
 @CacheableTask
 public abstract class ApplyMappingsToSourceJar extends DefaultRuntime {
 
+    private static final int IN_FLIGHT_PER_THREAD = 4;
+
     public ApplyMappingsToSourceJar() {
         getRemapJavadocs().convention(false);
+
+        final Subsystems subsystems = getProject().getExtensions().findByType(Subsystems.class);
+        if (subsystems != null) {
+            getParallelism().convention(subsystems.getTools().getSourceRemappingThreads().map(threads -> threads > 0 ? threads : Runtime.getRuntime().availableProcessors()));
+        } else {
+            getParallelism().convention(Runtime.getRuntime().availableProcessors());
+        }
     }
 
     @ServiceReference(CachedExecutionService.NAME)
@@ -59,29 +73,78 @@ public abstract class ApplyMappingsToSourceJar extends DefaultRuntime {
     }
 
     protected final void apply() throws Exception {
-        final ISourceRenamer renamer = getSourceRenamer().get();
-        try (ZipFile zin = new ZipFile(getInput().get().getAsFile())) {
-            try (FileOutputStream fos = new FileOutputStream(getOutput().get().getAsFile());
-                 ZipOutputStream out = new ZipOutputStream(fos)) {
-
-                final Enumeration<? extends ZipEntry> entries = zin.entries();
-                while(entries.hasMoreElements()) {
-                    final ZipEntry entry = entries.nextElement();
-                    out.putNextEntry(FileUtils.getStableEntry(entry.getName()));
-                    if (!entry.getName().endsWith(".java")) {
-                        IOUtils.copy(zin.getInputStream(entry), out);
-                    } else {
-                        final InputStream inputStream = zin.getInputStream(entry);
-                        final byte[] toRemap = IOUtils.toByteArray(inputStream);
-                        inputStream.close();
-                        out.write(renamer.rename(toRemap, getRemapJavadocs().getOrElse(false), getRemapLambdas().getOrElse(true)));
-                    }
-                    out.closeEntry();
+        remap(
+                getInput().get().getAsFile(),
+                getOutput().get().getAsFile(),
+                getSourceRenamer().get(),
+                getRemapJavadocs().getOrElse(false),
+                getRemapLambdas().getOrElse(true),
+                getParallelism().get()
+        );
+
+        getLogger().debug("Applying mappings to source jar complete");
+    }
+
+    /**
+     * Remaps the source files of the input jar, and copies all other entries.
+     * The output does not depend on the parallelism, entries are always written in the order of the input.
+     *
+     * @param input The source jar to remap.
+     * @param output The remapped source jar.
+     * @param renamer The renamer to remap the source files with.
+     * @param remapJavadocs Whether to remap javadocs.
+     * @param remapLambdas Whether to remap lambdas.
+     * @param parallelism The amount of threads to remap the source files with, one or less remaps them on the current thread.
+     * @throws Exception If the source jar could not be remapped.
+     */
+    static void remap(File input, File output, ISourceRenamer renamer, boolean remapJavadocs, boolean remapLambdas, int parallelism) throws Exception {
+        final ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try (RawZipFile zin = RawZipFile.open(input);
+             ZipRewriter out = new ZipRewriter(output)) {
+            //Entries are remapped concurrently, but written in their original order.
+            //Only a bounded amount of them is in flight, so the memory usage does not depend on the size of the jar.
+            final int maxInFlight = Math.max(1, parallelism) * IN_FLIGHT_PER_THREAD;
+            final Deque<PendingEntry> pending = new ArrayDeque<>(maxInFlight);
+            for (RawZipFile.Entry entry : zin.entries()) {
+                if (!entry.name().endsWith(".java")) {
+                    pending.add(new PendingEntry(entry, null));
+                } else {
+                    final Callable<byte[]> remap = () -> renamer.rename(zin.readAllBytes(entry), remapJavadocs, remapLambdas);
+                    pending.add(new PendingEntry(entry, pool != null ? pool.submit(remap) : CompletableFuture.completedFuture(remap.call())));
+                }
+
+                if (pending.size() >= maxInFlight) {
+                    write(zin, out, pending.poll());
                 }
             }
+
+            while (!pending.isEmpty()) {
+                write(zin, out, pending.poll());
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
         }
+    }
 
-        getLogger().debug("Applying mappings to source jar complete");
+    private static void write(RawZipFile zin, ZipRewriter out, PendingEntry entry) throws IOException, InterruptedException {
+        if (entry.remapped() == null) {
+            out.copy(zin, entry.entry());
+            return;
+        }
+
+        try {
+            out.write(entry.entry().name(), entry.remapped().get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to remap source file: " + entry.entry().name(), e.getCause());
+        }
+    }
+
+    private record PendingEntry(RawZipFile.Entry entry, @Nullable Future<byte[]> remapped) {
     }
 
     @InputFile
@@ -99,4 +162,11 @@ public abstract class ApplyMappingsToSourceJar extends DefaultRuntime {
 
     @Internal
     public abstract Property<ISourceRenamer> getSourceRenamer();
+
+    /**
+     * @return The amount of threads used to remap the source files, one or less remaps them on the task thread.
+     * Defaults to the source remapping threads of the tools subsystem.
+     */
+    @Internal
+    public abstract Property<Integer> getParallelism();
 }
@@ -0,0 +1,169 @@
+package net.neoforged.gradle.common.runtime.tasks;
+
+import net.neoforged.gradle.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Records which objects of the shared asset store were verified, and which asset indexes are complete.
+ * <p>
+ * An object is only recorded after its content was verified against its hash, an asset index is only recorded
+ * once all of its objects were verified. As long as an index is recorded, its objects do not need to be checked again.
+ * <p>
+ * The manifest is stored as a simple text file in the assets directory, every line contains either a complete
+ * asset index ({@code I <sha1 of the index file>}) or a verified object ({@code O <hash of the object>}).
+ * Builds sharing the assets directory only write the changes they made themselves, while holding a lock on a sibling
+ * lock file, so that records invalidated by one build are never restored by another.
+ */
+public final class AssetStoreManifest {
+
+    public static final String FILE_NAME = "verified-assets.txt";
+
+    private static final String INDEX_PREFIX = "I ";
+    private static final String OBJECT_PREFIX = "O ";
+    private static final String LOCK_SUFFIX = ".lock";
+
+    /**
+     * File locks are held by the whole process, threads of this process exclude each other through this lock.
+     */
+    private static final Object WRITE_LOCK = new Object();
+
+    private final File file;
+    private final Set<String> indexes;
+    private final Set<String> objects;
+    private final Set<String> completedIndexes = new HashSet<>();
+    private final Set<String> verifiedObjects = new HashSet<>();
+    private final Set<String> invalidatedIndexes = new HashSet<>();
+    private final Set<String> invalidatedObjects = new HashSet<>();
+
+    private AssetStoreManifest(File file, Set<String> indexes, Set<String> objects) {
+        this.file = file;
+        this.indexes = indexes;
+        this.objects = objects;
+    }
+
+    /**
+     * Reads the manifest from the given file.
+     * A missing or unreadable manifest results in an empty manifest, which only costs a verification of the objects.
+     *
+     * @param file The manifest file.
+     * @return The manifest.
+     */
+    public static AssetStoreManifest read(File file) {
+        final Set<String> indexes = new HashSet<>();
+        final Set<String> objects = new HashSet<>();
+        if (file.exists()) {
+            try {
+                for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                    if (line.startsWith(INDEX_PREFIX)) {
+                        indexes.add(line.substring(INDEX_PREFIX.length()));
+                    } else if (line.startsWith(OBJECT_PREFIX)) {
+                        objects.add(line.substring(OBJECT_PREFIX.length()));
+                    }
+                }
+            } catch (IOException e) {
+                indexes.clear();
+                objects.clear();
+            }
+        }
+
+        return new AssetStoreManifest(file, indexes, objects);
+    }
+
+    /**
+     * @param indexHash The SHA-1 hash of the asset index file.
+     * @return True if all objects of the asset index were verified.
+     */
+    public boolean isComplete(String indexHash) {
+        return indexes.contains(indexHash);
+    }
+
+    /**
+     * @param objectHash The hash of the object.
+     * @return True if the object was verified.
+     */
+    public boolean isVerified(String objectHash) {
+        return objects.contains(objectHash);
+    }
+
+    /**
+     * Records that all objects of the given asset index were verified.
+     *
+     * @param indexHash The SHA-1 hash of the asset index file.
+     * @param objectHashes The hashes of all objects of the asset index.
+     */
+    public void markComplete(String indexHash, Collection<String> objectHashes) {
+        objects.addAll(objectHashes);
+        indexes.add(indexHash);
+        verifiedObjects.addAll(objectHashes);
+        completedIndexes.add(indexHash);
+        invalidatedIndexes.remove(indexHash);
+        invalidatedObjects.removeAll(objectHashes);
+    }
+
+    /**
+     * Removes the given asset index and all of its objects from the manifest, including the records written by other
+     * builds, so that its objects are hashed again by the next run, even if this verification is interrupted.
+     *
+     * @param indexHash The SHA-1 hash of the asset index file.
+     * @param objectHashes The hashes of all objects of the asset index.
+     */
+    public void invalidate(String indexHash, Collection<String> objectHashes) {
+        indexes.remove(indexHash);
+        completedIndexes.remove(indexHash);
+        invalidatedIndexes.add(indexHash);
+        objects.removeAll(objectHashes);
+        verifiedObjects.removeAll(objectHashes);
+        invalidatedObjects.addAll(objectHashes);
+    }
+
+    /**
+     * Atomically writes the changes made since the manifest was read or last written.
+     * Only the indexes and objects this manifest completed or invalidated are merged into the current manifest, all
+     * other records, including those changed by other builds since the manifest was read, are kept as they are.
+     *
+     * @throws IOException If the manifest could not be written.
+     */
+    public void write() throws IOException {
+        file.getParentFile().mkdirs();
+        synchronized (WRITE_LOCK) {
+            try (FileChannel channel = FileChannel.open(new File(file.getParentFile(), FILE_NAME + LOCK_SUFFIX).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                final AssetStoreManifest current = read(file);
+                final Set<String> allIndexes = new TreeSet<>(current.indexes);
+                allIndexes.removeAll(invalidatedIndexes);
+                allIndexes.addAll(completedIndexes);
+                final Set<String> allObjects = new TreeSet<>(current.objects);
+                allObjects.removeAll(invalidatedObjects);
+                allObjects.addAll(verifiedObjects);
+
+                final List<String> lines = new ArrayList<>(allIndexes.size() + allObjects.size());
+                allIndexes.forEach(index -> lines.add(INDEX_PREFIX + index));
+                allObjects.forEach(object -> lines.add(OBJECT_PREFIX + object));
+
+                final Path temporary = FileUtils.temporaryPath(file.getParentFile().toPath(), FILE_NAME);
+                Files.write(temporary, lines, StandardCharsets.UTF_8);
+                FileUtils.atomicMove(temporary, file.toPath());
+            }
+        }
+
+        //The changes are written, writing them again could undo the changes of other builds.
+        completedIndexes.clear();
+        verifiedObjects.clear();
+        invalidatedIndexes.clear();
+        invalidatedObjects.clear();
+    }
+}
@@ -0,0 +1,270 @@
+package net.neoforged.gradle.common.runtime.tasks;
+
+import net.neoforged.gradle.common.services.caching.cache.DecompiledSourceCache;
+import net.neoforged.gradle.common.util.ClassFileSummary;
+import net.neoforged.gradle.common.util.hash.HashCode;
+import net.neoforged.gradle.common.util.hash.Hasher;
+import net.neoforged.gradle.common.util.hash.Hashing;
+import net.neoforged.gradle.dsl.common.extensions.subsystems.Subsystems;
+import net.neoforged.gradle.util.RawZipFile;
+import net.neoforged.gradle.util.ZipRewriter;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Decompiles a jar with a decompiler which takes its input and output as {@code {input}} and {@code {output}}
+ * arguments, and accepts additional libraries with {@code -e=<path>}, like Vineflower does.
+ * <p>
+ * In incremental mode the decompiled source of every top level class, including its inner classes, is cached.
+ * The key of a source covers the bytes of its classes, the signatures of the classes of the jar they reference,
+ * the libraries, and the decompiler and its arguments. Only the classes whose source is not cached are
+ * decompiled, with all other classes of the jar as context, and the source jar is reassembled from both.
+ * <p>
+ * Changes of classes which are only referenced indirectly, like the super class of a referenced class, do not
+ * invalidate a cached source. Incremental mode is therefore opt-in.
+ */
+@CacheableTask
+public abstract class Decompile extends DefaultExecute {
+
+    /**
+     * Increment this when the key of the cached sources changes.
+     */
+    private static final int CACHE_VERSION = 1;
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String SOURCE_EXTENSION = ".java";
+    private static final String INPUT_ARGUMENT = "{input}";
+    private static final String OUTPUT_ARGUMENT = "{output}";
+
+    public Decompile() {
+        super();
+
+        final Subsystems subsystems = getProject().getExtensions().findByType(Subsystems.class);
+        if (subsystems != null) {
+            getIncremental().convention(subsystems.getDecompiler().getIncremental());
+        } else {
+            getIncremental().convention(false);
+        }
+    }
+
+    /**
+     * Defines whether the decompiled sources of single classes are cached, and only changed classes are decompiled.
+     *
+     * @return True to decompile incrementally.
+     */
+    @Internal
+    public abstract Property<Boolean> getIncremental();
+
+    @Override
+    protected void executeTool() throws Exception {
+        final List<String> arguments = getProgramArguments().get();
+        if (!getIncremental().get() || !getCacheService().get().isEnabled()
+                || !arguments.contains(INPUT_ARGUMENT) || !arguments.contains(OUTPUT_ARGUMENT)) {
+            super.executeTool();
+            return;
+        }
+
+        final DecompiledSourceCache cache = getCacheService().get().getDecompiledSourceCache();
+        final File input = new File(interpolateVariableSubstitution(INPUT_ARGUMENT, null).get(0));
+        final File output = ensureFileWorkspaceReady(getOutput());
+        final File workingDirectory = new File(getOutputDirectory().get().getAsFile(), "incremental");
+        FileUtils.deleteDirectory(workingDirectory);
+        workingDirectory.mkdirs();
+
+        try (RawZipFile zip = RawZipFile.open(input)) {
+            //Read all classes, and group them by their top level class, which is the unit the decompiler writes sources for.
+            final Map<String, RawZipFile.Entry> classEntries = new LinkedHashMap<>();
+            for (RawZipFile.Entry entry : zip.entries()) {
+                if (!entry.isDirectory() && entry.name().endsWith(CLASS_EXTENSION)) {
+                    classEntries.put(entry.name().substring(0, entry.name().length() - CLASS_EXTENSION.length()), entry);
+                }
+            }
+
+            final Map<String, byte[]> classes = new HashMap<>();
+            final Map<String, ClassFileSummary> summaries = new HashMap<>();
+            final Map<String, String> groupOf = new HashMap<>();
+            final Map<String, List<String>> groups = new LinkedHashMap<>();
+            for (Map.Entry<String, RawZipFile.Entry> entry : classEntries.entrySet()) {
+                final byte[] bytes = zip.readAllBytes(entry.getValue());
+                classes.put(entry.getKey(), bytes);
+                summaries.put(entry.getKey(), ClassFileSummary.read(bytes));
+
+                final String group = getTopLevelClass(entry.getKey(), classEntries.keySet());
+                groupOf.put(entry.getKey(), group);
+                groups.computeIfAbsent(group, g -> new ArrayList<>()).add(entry.getKey());
+            }
+
+            //Look up the cached sources, the remaining groups need to be decompiled.
+            final HashCode environment = hashEnvironment(arguments);
+            final Map<String, String> keys = new HashMap<>();
+            final Map<String, byte[]> sources = new HashMap<>();
+            final Set<String> changed = new HashSet<>();
+            for (Map.Entry<String, List<String>> group : groups.entrySet()) {
+                final String key = hashGroup(environment, group.getValue(), classes, summaries, groupOf, group.getKey());
+                keys.put(group.getKey(), key);
+
+                final byte[] source = cache.get(key);
+                if (source == null) {
+                    changed.add(group.getKey());
+                } else {
+                    sources.put(group.getKey(), source);
+                }
+            }
+
+            getLogger().info("Decompiling {} of {} classes, the sources of the others are cached.", changed.size(), groups.size());
+            if (!changed.isEmpty()) {
+                decompile(zip, classEntries, groupOf, changed, workingDirectory, arguments, sources);
+                for (String group : changed) {
+                    cache.put(keys.get(group), sources.get(group));
+                }
+            }
+
+            //Reassemble the source jar, in the order of the input jar.
+            try (ZipRewriter rewriter = new ZipRewriter(output)) {
+                for (RawZipFile.Entry entry : zip.entries()) {
+                    if (!entry.name().endsWith(CLASS_EXTENSION) || entry.isDirectory()) {
+                        rewriter.copy(zip, entry);
+                        continue;
+                    }
+
+                    final String className = entry.name().substring(0, entry.name().length() - CLASS_EXTENSION.length());
+                    final String group = groupOf.get(className);
+                    final String sourceName = group + SOURCE_EXTENSION;
+                    final byte[] source = sources.get(group);
+                    if (source.length > 0 && !rewriter.contains(sourceName)) {
+                        rewriter.write(sourceName, source);
+                    }
+                }
+            }
+        } finally {
+            FileUtils.deleteDirectory(workingDirectory);
+        }
+    }
+
+    /**
+     * Decompiles the changed groups, with the unchanged classes as libraries, and collects the sources of the changed groups.
+     * A changed group without a source gets an empty source.
+     */
+    private void decompile(RawZipFile zip, Map<String, RawZipFile.Entry> classEntries, Map<String, String> groupOf, Set<String> changed,
+                           File workingDirectory, List<String> arguments, Map<String, byte[]> sources) throws Exception {
+        final File changedClasses = new File(workingDirectory, "changed.jar");
+        final File contextClasses = new File(workingDirectory, "context.jar");
+        final File changedSources = new File(workingDirectory, "sources.jar");
+        try (ZipRewriter changedJar = new ZipRewriter(changedClasses);
+             ZipRewriter contextJar = new ZipRewriter(contextClasses)) {
+            for (Map.Entry<String, RawZipFile.Entry> entry : classEntries.entrySet()) {
+                (changed.contains(groupOf.get(entry.getKey())) ? changedJar : contextJar).copy(zip, entry.getValue());
+            }
+        }
+
+        final List<String> incrementalArguments = new ArrayList<>();
+        for (String argument : arguments) {
+            if (argument.equals(INPUT_ARGUMENT)) {
+                incrementalArguments.add("-e=" + contextClasses.getAbsolutePath());
+                incrementalArguments.add(changedClasses.getAbsolutePath());
+            } else if (argument.equals(OUTPUT_ARGUMENT)) {
+                incrementalArguments.add(changedSources.getAbsolutePath());
+            } else {
+                incrementalArguments.add(argument);
+            }
+        }
+
+        executeTool(incrementalArguments);
+
+        try (RawZipFile decompiled = RawZipFile.open(changedSources)) {
+            for (RawZipFile.Entry entry : decompiled.entries()) {
+                if (entry.name().endsWith(SOURCE_EXTENSION)) {
+                    final String group = entry.name().substring(0, entry.name().length() - SOURCE_EXTENSION.length());
+                    if (changed.contains(group)) {
+                        sources.put(group, decompiled.readAllBytes(entry));
+                    }
+                }
+            }
+        }
+        for (String group : changed) {
+            sources.putIfAbsent(group, new byte[0]);
+        }
+    }
+
+    /**
+     * Hashes everything the decompilation of every class depends on, besides the classes themselves:
+     * the decompiler, its arguments and the content of all files passed to it, which includes the list of libraries.
+     * Arguments which only configure logging and threading are ignored.
+     */
+    private HashCode hashEnvironment(List<String> arguments) throws Exception {
+        final Hasher hasher = Hashing.newHasher();
+        hasher.putInt(CACHE_VERSION);
+        hasher.putHash(Hashing.hashFile(getExecutingJar().get().getAsFile()));
+        hasher.putString(getMainClass().get());
+        for (int i = 0; i < arguments.size(); i++) {
+            final String argument = arguments.get(i);
+            if (argument.equals(INPUT_ARGUMENT) || argument.equals(OUTPUT_ARGUMENT) || isLoggingOrThreadingArgument(argument)) {
+                continue;
+            }
+
+            for (String value : interpolateVariableSubstitution(argument, i == 0 ? null : arguments.get(i - 1))) {
+                hasher.putString(value);
+                final File file = new File(value);
+                if (file.isFile()) {
+                    hasher.putHash(Hashing.hashFile(file));
+                }
+            }
+        }
+        return hasher.hash();
+    }
+
+    private static String hashGroup(HashCode environment, List<String> members, Map<String, byte[]> classes, Map<String, ClassFileSummary> summaries,
+                                    Map<String, String> groupOf, String group) {
+        final Hasher hasher = Hashing.newHasher();
+        hasher.putHash(environment);
+
+        final Set<String> references = new TreeSet<>();
+        for (String member : new TreeSet<>(members)) {
+            hasher.putString(member);
+            hasher.putBytes(classes.get(member));
+            references.addAll(summaries.get(member).references());
+        }
+
+        //Referenced classes of the jar influence the source through their signatures, like generic types and overridden methods.
+        for (String reference : references) {
+            final ClassFileSummary summary = summaries.get(reference);
+            if (summary != null && !group.equals(groupOf.get(reference))) {
+                hasher.putString(reference);
+                hasher.putHash(summary.signature());
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Finds the outermost class of the jar which contains the given class, by looking for the shortest prefix
+     * before a {@code $} which is a class of the jar.
+     */
+    private static String getTopLevelClass(String className, Set<String> classNames) {
+        final int simpleNameStart = className.lastIndexOf('/') + 1;
+        int separator = className.indexOf('$', simpleNameStart + 1);
+        while (separator != -1) {
+            final String candidate = className.substring(0, separator);
+            if (classNames.contains(candidate)) {
+                return candidate;
+            }
+            separator = className.indexOf('$', separator + 1);
+        }
+        return className;
+    }
+
+    private static boolean isLoggingOrThreadingArgument(String argument) {
+        return argument.startsWith("--log-level") || argument.startsWith("-log=") || argument.startsWith("--thread-count") || argument.startsWith("-thr=");
+    }
+}
@@ -1,7 +1,9 @@
 package net.neoforged.gradle.common.runtime.tasks;
 
+import net.neoforged.gradle.common.runtime.tasks.action.ExecuteToolAction;
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
+import net.neoforged.gradle.dsl.common.extensions.subsystems.Subsystems;
 import net.neoforged.gradle.dsl.common.tasks.Execute;
 import net.neoforged.gradle.util.TransformerUtils;
 import org.gradle.api.provider.ListProperty;
@@ -10,15 +12,33 @@ import org.gradle.api.provider.Provider;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutionException;
+import org.gradle.workers.WorkerExecutor;
 
+import javax.inject.Inject;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
+import java.util.stream.Collectors;
 
 @CacheableTask
 public abstract class DefaultExecute extends DefaultRuntime implements Execute {
 
+    /**
+     * The tools which terminated their worker daemon, they are always executed in a forked process.
+     */
+    private static final Set<String> FORKED_TOOLS = ConcurrentHashMap.newKeySet();
+
     public DefaultExecute() {
         super();
 
@@ -37,6 +57,13 @@ public abstract class DefaultExecute extends DefaultRuntime implements Execute {
         getMultiRuntimeArguments().convention(getMultiArguments().AsMap());
 
         getLogLevel().convention(LogLevel.ERROR);
+
+        final Subsystems subsystems = getProject().getExtensions().findByType(Subsystems.class);
+        if (subsystems != null) {
+            getUseWorkerDaemon().convention(subsystems.getTools().getUseWorkerDaemons());
+        } else {
+            getUseWorkerDaemon().convention(false);
+        }
     }
 
     @ServiceReference(CachedExecutionService.NAME)
@@ -47,10 +74,107 @@ public abstract class DefaultExecute extends DefaultRuntime implements Execute {
         getCacheService().get()
                         .cached(
                                 this,
-                                ICacheableJob.Default.file(getOutput(), this::doExecute)
+                                ICacheableJob.Default.file(getOutput(), this::executeTool)
                         ).execute();
     }
 
+    /**
+     * Executes the tool, either in a forked process or in a worker daemon.
+     *
+     * @throws Exception If the tool failed.
+     */
+    protected void executeTool() throws Exception {
+        executeTool(getRuntimeProgramArguments().get(), this::doExecute);
+    }
+
+    /**
+     * Executes the tool with the given program arguments, instead of the runtime program arguments.
+     *
+     * @param programArguments The program arguments, before variable substitution.
+     * @throws Exception If the tool failed.
+     */
+    protected void executeTool(List<String> programArguments) throws Exception {
+        executeTool(programArguments, () -> doExecute(programArguments));
+    }
+
+    private void executeTool(List<String> programArguments, ICacheableJob.ThrowingRunnable forked) throws Exception {
+        final String tool = "%s#%s".formatted(getExecutingJar().get().getAsFile().getAbsolutePath(), getMainClass().get());
+        if (!getUseWorkerDaemon().get() || FORKED_TOOLS.contains(tool)) {
+            forked.run();
+            return;
+        }
+
+        try {
+            executeInWorkerDaemon(programArguments);
+        } catch (WorkerExecutionException e) {
+            if (isToolFailure(e)) {
+                throw e;
+            }
+
+            //The tool terminated the worker daemon, most likely by calling System.exit, so it can only run in its own process.
+            FORKED_TOOLS.add(tool);
+            getLogger().warn("The tool {} terminated its worker daemon, it is executed in a forked process instead.", getMainClass().get());
+            forked.run();
+        }
+    }
+
+    private void executeInWorkerDaemon(List<String> programArguments) throws IOException {
+        final List<String> jvmArgs = applyVariableSubstitutions(getJvmArguments()).get();
+        final List<String> programArgs = applyVariableSubstitutions(programArguments);
+
+        final File outputFile = ensureFileWorkspaceReady(getOutput());
+        final File logFile = ensureFileWorkspaceReady(getLogFile());
+        final File consoleLogFile = ensureFileWorkspaceReady(getConsoleLogFile().get());
+
+        try (PrintWriter writer = new PrintWriter(new FileOutputStream(consoleLogFile))) {
+            writer.println("JVM Args:          " + jvmArgs.stream().map(s -> '"' + s + '"').collect(Collectors.joining(", ")));
+            writer.println("Run Args:          " + programArgs.stream().map(s -> '"' + s + '"').collect(Collectors.joining(", ")));
+            writer.println("JVM:               " + getExecutablePath().get());
+            writer.println("Classpath:         " + getExecutingJar().get().getAsFile().getAbsolutePath());
+            writer.println("Working Dir:       " + "Not changed, executed in a worker daemon");
+            writer.println("Main Class:        " + getMainClass().get());
+            writer.println("Program log file:  " + logFile.getAbsolutePath());
+            writer.println("Output file:       " + outputFile.getAbsolutePath());
+        }
+
+        //Worker daemons are reused for all tools with the same java executable and jvm arguments.
+        final WorkQueue queue = getWorkerExecutor().processIsolation(spec -> spec.forkOptions(options -> {
+            options.setExecutable(getExecutablePath().get());
+            options.setJvmArgs(jvmArgs);
+        }));
+        queue.submit(ExecuteToolAction.class, params -> {
+            params.getExecutingJar().set(getExecutingJar());
+            params.getMainClass().set(getMainClass());
+            params.getArguments().set(programArgs);
+            params.getConsoleLogFile().set(consoleLogFile);
+            //Like a forked tool, the standard output is only logged when the log level is below warn.
+            params.getLogStandardOutput().set(getLogLevel().get().ordinal() < LogLevel.WARN.ordinal());
+            params.getLogLevel().set(getLogLevel());
+        });
+        queue.await();
+    }
+
+    private static boolean isToolFailure(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ExecuteToolAction.ToolExecutionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    /**
+     * Defines whether the tool is executed inside of a reused worker daemon, instead of a forked process.
+     * Tools which terminate the worker daemon fall back to a forked process.
+     *
+     * @return True to execute the tool in a worker daemon.
+     */
+    @Internal
+    public abstract Property<Boolean> getUseWorkerDaemon();
+
     @Input
     public abstract Property<String> getConsoleLogFileName();
 
@@ -4,10 +4,13 @@ import com.google.common.collect.Maps;
 import net.neoforged.gradle.common.runtime.tasks.action.DownloadFileAction;
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
+import net.neoforged.gradle.common.services.download.DownloadRequest;
+import net.neoforged.gradle.common.services.download.DownloadService;
 import net.neoforged.gradle.common.util.FileCacheUtils;
 import net.neoforged.gradle.common.util.SerializationUtils;
 import net.neoforged.gradle.common.util.VersionJson;
 import net.neoforged.gradle.dsl.common.tasks.WithWorkspace;
+import net.neoforged.gradle.util.ParsedFileCache;
 import net.neoforged.gradle.util.TransformerUtils;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Project;
@@ -18,6 +21,7 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.*;
+import org.gradle.api.tasks.options.Option;
 import org.gradle.workers.WorkQueue;
 import org.gradle.workers.WorkerExecutor;
 import org.jetbrains.annotations.NotNull;
@@ -25,7 +29,9 @@ import org.jetbrains.annotations.NotNull;
 import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @SuppressWarnings({"UnstableApiUsage"})
 @CacheableTask
@@ -45,6 +51,8 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
         getVersionJson().convention(getVersionJsonFile().map(TransformerUtils.guard(file -> VersionJson.get(file.getAsFile()))));
         getAssetRepository().convention("https://resources.download.minecraft.net/");
         getIsOffline().convention(getProject().getGradle().getStartParameter().isOffline());
+        getVerifyAssets().convention(false);
+        getOutputs().upToDateWhen(task -> !getVerifyAssets().get());
     }
 
     public static @NotNull Provider<Directory> getAssetsDirectory(final Project project) {
@@ -67,8 +75,18 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
     @ServiceReference(CachedExecutionService.NAME)
     public abstract Property<CachedExecutionService> getCache();
 
+    @ServiceReference(DownloadService.NAME)
+    public abstract Property<DownloadService> getDownloadService();
+
     @TaskAction
     public void run() throws IOException {
+        if (getVerifyAssets().get()) {
+            //A verification must always hash the asset store, so it can not be restored from the cache.
+            downloadAssetIndex();
+            downloadAssets();
+            return;
+        }
+
         getCache().get()
                 .cached(
                         this,
@@ -98,27 +116,42 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
         return null;
     }
 
-    private Void downloadAssets() {
-        final AssetIndex assetIndex = SerializationUtils.fromJson(getAssetIndexFile().getAsFile().get(), AssetIndex.class);
+    private Void downloadAssets() throws IOException {
+        final File assetIndexFile = getAssetIndexFile().getAsFile().get();
+        final String assetIndexHash = ParsedFileCache.getSha1(assetIndexFile);
+        final boolean verify = getVerifyAssets().get();
 
-        final WorkQueue executor = getWorkerExecutor().noIsolation();
+        final AssetStoreManifest manifest = AssetStoreManifest.read(assetsCache.get().file(AssetStoreManifest.FILE_NAME).getAsFile());
+        if (!verify && manifest.isComplete(assetIndexHash)) {
+            getLogger().debug("All assets of index {} are present and verified", assetIndexFile.getName());
+            return null;
+        }
 
-        assetIndex.getObjects().values().stream().distinct().forEach((asset) -> {
-            final Provider<File> assetFile = getFileInAssetsDirectory(asset.getPath());
-            final Provider<String> assetUrl = getAssetRepository()
-                    .map(repo -> repo.endsWith("/") ? repo : repo + "/")
-                    .map(TransformerUtils.guard(repository -> repository + asset.getPath()));
-
-            executor.submit(DownloadFileAction.class, params -> {
-                params.getIsOffline().set(getIsOffline());
-                params.getShouldValidateHash().set(true);
-                params.getOutputFile().fileProvider(assetFile);
-                params.getUrl().set(assetUrl);
-                params.getSha1().set(asset.getHash());
-            });
-        });
+        final AssetIndex assetIndex = ParsedFileCache.get(assetIndexFile, AssetIndex.class, file -> SerializationUtils.fromJson(file, AssetIndex.class));
+        final String repository = getAssetRepository().map(repo -> repo.endsWith("/") ? repo : repo + "/").get();
+        final List<Asset> assets = assetIndex.getObjects().values().stream().distinct().collect(Collectors.toList());
 
-        executor.await();
+        if (verify) {
+            //Forget the index and its objects first, so the next run hashes them all again if this verification is interrupted.
+            manifest.invalidate(assetIndexHash, assets.stream().map(Asset::getHash).collect(Collectors.toList()));
+            manifest.write();
+        }
+
+        //Objects shared with other, already verified, indexes only need to be present.
+        final List<DownloadRequest> requests = assets.stream()
+                .map(asset -> DownloadRequest.of(
+                        repository + asset.getPath(),
+                        getFileInAssetsDirectory(asset.getPath()).get(),
+                        asset.getHash(),
+                        asset.getSize()
+                ))
+                .filter(request -> verify || !manifest.isVerified(request.sha1()) || !request.output().exists())
+                .collect(Collectors.toList());
+
+        getDownloadService().get().download(this, "assets", requests, getIsOffline().get());
+
+        manifest.markComplete(assetIndexHash, assets.stream().map(Asset::getHash).collect(Collectors.toList()));
+        manifest.write();
 
         return null;
     }
@@ -152,6 +185,14 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
     @Input
     public abstract Property<Boolean> getIsOffline();
 
+    /**
+     * @return True if all assets should be verified against their hash, regardless of earlier verifications.
+     * Verifications bypass the cached execution, so this is not an input of the cache key.
+     */
+    @Internal
+    @Option(option = "verify-assets", description = "Verifies the hashes of all assets of the index, and downloads those which are missing or broken.")
+    public abstract Property<Boolean> getVerifyAssets();
+
     private static class AssetIndex {
         private Map<String, Asset> objects = Maps.newHashMap();
 
@@ -166,6 +207,7 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
 
     private static class Asset {
         private String hash;
+        private long size = -1;
 
         public String getHash() {
             return hash;
@@ -175,6 +217,14 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
             this.hash = hash;
         }
 
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
         public String getPath() {
             return hash.substring(0, 2) + '/' + hash;
         }
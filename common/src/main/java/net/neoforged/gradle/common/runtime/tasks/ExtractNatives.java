@@ -1,18 +1,23 @@
 package net.neoforged.gradle.common.runtime.tasks;
 
 import net.neoforged.gradle.util.TransformerUtils;
-import net.neoforged.gradle.common.runtime.tasks.action.DownloadFileAction;
 import net.neoforged.gradle.common.runtime.tasks.action.ExtractFileAction;
+import net.neoforged.gradle.common.services.download.DownloadRequest;
+import net.neoforged.gradle.common.services.download.DownloadService;
 import net.neoforged.gradle.common.util.VersionJson;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.*;
 import org.gradle.workers.WorkQueue;
 import org.gradle.workers.WorkerExecutor;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @CacheableTask()
 public abstract class ExtractNatives extends DefaultRuntime {
@@ -22,30 +27,29 @@ public abstract class ExtractNatives extends DefaultRuntime {
         getLibrariesDirectory().convention(getOutputDirectory().map(dir -> dir.dir("libraries")));
     }
 
+    @ServiceReference(DownloadService.NAME)
+    public abstract Property<DownloadService> getDownloadService();
+
     @TaskAction
-    public void extract() {
+    public void extract() throws IOException {
         downloadNatives();
         extractNatives();
     }
 
-    private void downloadNatives() {
+    private void downloadNatives() throws IOException {
         final VersionJson versionJson = getVersionJson().get();
-
-        final WorkQueue executor = getWorkerExecutor().noIsolation();
         final File librariesDirectory = ensureFileWorkspaceReady(getLibrariesDirectory().get().getAsFile());
 
-        versionJson.getNatives().forEach(library -> {
-            final File outputFile = new File(librariesDirectory, library.getPath());
-            executor.submit(DownloadFileAction.class, params -> {
-                params.getIsOffline().set(getProject().getGradle().getStartParameter().isOffline());
-                params.getShouldValidateHash().set(true);
-                params.getOutputFile().set(outputFile);
-                params.getUrl().set(library.getUrl().toString());
-                params.getSha1().set(library.getSha1());
-            });
-        });
+        final List<DownloadRequest> requests = versionJson.getNatives().stream()
+                .map(library -> DownloadRequest.of(
+                        library.getUrl().toString(),
+                        new File(librariesDirectory, library.getPath()),
+                        library.getSha1(),
+                        library.getSize()
+                ))
+                .collect(Collectors.toList());
 
-        executor.await();
+        getDownloadService().get().download(this, "natives", requests, getProject().getGradle().getStartParameter().isOffline());
     }
 
     private void extractNatives() {
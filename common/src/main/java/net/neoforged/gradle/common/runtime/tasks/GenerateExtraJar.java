@@ -5,8 +5,8 @@ import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
 import net.neoforged.gradle.dsl.common.tasks.NeoGradleBase;
 import net.neoforged.gradle.dsl.common.tasks.WithOutput;
 import net.neoforged.gradle.dsl.common.tasks.WithWorkspace;
-import net.neoforged.gradle.util.ZipBuildingFileTreeVisitor;
-import org.gradle.api.file.FileTree;
+import net.neoforged.gradle.util.RawZipFile;
+import net.neoforged.gradle.util.ZipRewriter;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.services.ServiceReference;
@@ -17,8 +17,6 @@ import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.util.zip.ZipOutputStream;
 
 @CacheableTask
 public abstract class GenerateExtraJar extends NeoGradleBase implements WithOutput, WithWorkspace {
@@ -45,13 +43,14 @@ public abstract class GenerateExtraJar extends NeoGradleBase implements WithOutp
         final File outputJar = ensureFileWorkspaceReady(getOutput());
 
 
-        final FileTree inputTree = getArchiveOperations().zipTree(originalJar);
-        final FileTree filteredInput = inputTree.matching(filter -> {
-            filter.exclude("**/*.class");
-        });
-
-        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(outputJar))) {
-            filteredInput.visit(new ZipBuildingFileTreeVisitor(zos));
+        //Copy everything but the classes, straight from the original jar without extracting or recompressing it.
+        try (RawZipFile input = RawZipFile.open(originalJar);
+             ZipRewriter rewriter = new ZipRewriter(outputJar)) {
+            for (RawZipFile.Entry entry : input.entries()) {
+                if (entry.isDirectory() || !entry.name().endsWith(".class")) {
+                    rewriter.copy(input, entry);
+                }
+            }
         }
     }
 
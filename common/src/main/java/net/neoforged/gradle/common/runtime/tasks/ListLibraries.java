@@ -4,7 +4,8 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
-import net.neoforged.gradle.common.runtime.tasks.action.DownloadFileAction;
+import net.neoforged.gradle.common.services.download.DownloadRequest;
+import net.neoforged.gradle.common.services.download.DownloadService;
 import net.neoforged.gradle.common.util.FileCacheUtils;
 import net.neoforged.gradle.common.util.SerializationUtils;
 import net.neoforged.gradle.util.HashFunction;
@@ -15,10 +16,7 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.*;
-import org.gradle.workers.WorkQueue;
-import org.gradle.workers.WorkerExecutor;
 
-import javax.inject.Inject;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
@@ -56,6 +54,9 @@ public abstract class ListLibraries extends DefaultRuntime {
     @ServiceReference(CachedExecutionService.NAME)
     public abstract Property<CachedExecutionService> getCacheService();
 
+    @ServiceReference(DownloadService.NAME)
+    public abstract Property<DownloadService> getDownloadService();
+
     
     @TaskAction
     public void run() throws IOException {
@@ -133,7 +134,8 @@ public abstract class ListLibraries extends DefaultRuntime {
                             new PathAndUrl(
                                     artifact.get("path").getAsString(),
                                     artifact.get("url").getAsString(),
-                                    artifact.get("sha1").getAsString()
+                                    artifact.get("sha1").getAsString(),
+                                    artifact.has("size") ? artifact.get("size").getAsLong() : -1
                             )
                     );
                 }
@@ -168,27 +170,18 @@ public abstract class ListLibraries extends DefaultRuntime {
         final File outputDirectory = getLibrariesDirectory().get().getAsFile();
         
         final Set<File> result = new HashSet<>();
-
-        final WorkQueue executor = getWorkerExecutor().noIsolation();
+        final List<DownloadRequest> requests = new ArrayList<>();
         for (PathAndUrl libraryCoordinate : libraryCoordinates) {
             final File outputFile = new File(outputDirectory, libraryCoordinate.path);
-            executor.submit(DownloadFileAction.class, params -> {
-                params.getUrl().set(libraryCoordinate.url);
-                params.getShouldValidateHash().set(true);
-                params.getSha1().set(libraryCoordinate.hash);
-                params.getOutputFile().set(outputFile);
-                params.getIsOffline().set(getIsOffline());
-            });
+            requests.add(DownloadRequest.of(libraryCoordinate.url, outputFile, libraryCoordinate.hash, libraryCoordinate.size));
             result.add(outputFile);
         }
-        executor.await();
+
+        getDownloadService().get().download(this, "libraries", requests, getIsOffline().get());
         
         return result;
     }
 
-    @Inject
-    protected abstract WorkerExecutor getWorkerExecutor();
-    
     @InputFile
     @Optional
     @PathSensitive(PathSensitivity.NONE)
@@ -277,11 +270,13 @@ public abstract class ListLibraries extends DefaultRuntime {
         private final String path;
         private final String url;
         private final String hash;
+        private final long size;
         
-        private PathAndUrl(String path, String url, String hash) {
+        private PathAndUrl(String path, String url, String hash, long size) {
             this.path = path;
             this.url = url;
             this.hash = hash;
+            this.size = size;
         }
         
         public String getPath() {
@@ -295,5 +290,9 @@ public abstract class ListLibraries extends DefaultRuntime {
         public String getHash() {
             return hash;
         }
+
+        public long getSize() {
+            return size;
+        }
     }
 }
@@ -3,11 +3,6 @@ package net.neoforged.gradle.common.runtime.tasks.action;
 import net.neoforged.gradle.util.FileUtils;
 import net.neoforged.gradle.util.GradleInternalUtils;
 import net.neoforged.gradle.util.HashFunction;
-import net.neoforged.gradle.util.UrlUtils;
-import org.apache.ivy.core.settings.TimeoutConstraint;
-import org.apache.ivy.util.CopyProgressEvent;
-import org.apache.ivy.util.CopyProgressListener;
-import org.apache.ivy.util.FileUtil;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -18,11 +13,20 @@ import org.gradle.workers.WorkParameters;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 
 public abstract class DownloadFileAction implements WorkAction<DownloadFileAction.Params> {
     private static final int MAX_ATTEMPTS = 10;
     private static final int ATTEMPT_DELAY = 100;
+    private static final int BUFFER_SIZE = 64 * 1024;
     private static final Logger LOGGER = Logging.getLogger(DownloadFileAction.class);
 
     @Inject
@@ -34,10 +38,12 @@ public abstract class DownloadFileAction implements WorkAction<DownloadFileActio
             final Params params = getParameters();
             final File output = params.getOutputFile().get().getAsFile();
 
+            //Hash the existing file only once, it is needed again in offline mode.
+            String existingHash = null;
             if (output.exists()) {
                 if (params.getShouldValidateHash().get()) {
-                    final String hash = HashFunction.SHA1.hash(output);
-                    if (hash.equals(params.getSha1().get())) {
+                    existingHash = HashFunction.SHA1.hash(output);
+                    if (existingHash.equals(params.getSha1().get())) {
                         return;
                     }
                 }
@@ -56,10 +62,7 @@ public abstract class DownloadFileAction implements WorkAction<DownloadFileActio
                 progress.started();
 
                 if (params.getShouldValidateHash().get()) {
-                    final String hash = HashFunction.SHA1.hash(output);
-                    if (!hash.equals(params.getSha1().get())) {
-                        throw new IllegalStateException(String.format("Cannot validate asset %s as Gradle is running in offline mode and the file does not match the expected hash. Expected: %s Actual: %s", params.getUrl().get(), params.getSha1().get(), hash));
-                    }
+                    throw new IllegalStateException(String.format("Cannot validate asset %s as Gradle is running in offline mode and the file does not match the expected hash. Expected: %s Actual: %s", params.getUrl().get(), params.getSha1().get(), existingHash));
                 }
 
                 progress.incrementDownloadProgress(size);
@@ -72,15 +75,7 @@ public abstract class DownloadFileAction implements WorkAction<DownloadFileActio
             // Try downloading multiple times with a small delay in case of blocked connections
             for (int attempt = 0; attempt < MAX_ATTEMPTS; ++attempt) {
                 try {
-                    progress.setSize(UrlUtils.getFileSize(url));
-
-                    FileUtil.copy(
-                            url,
-                            output,
-                            new Monitor(progress),
-                            Timeout.NONE
-                    );
-
+                    download(url, output, progress);
                     break; // Success
                 } catch (Exception e) {
                     if (attempt == MAX_ATTEMPTS - 1) {
@@ -94,53 +89,50 @@ public abstract class DownloadFileAction implements WorkAction<DownloadFileActio
                     }
                 }
             }
-
-            if (params.getShouldValidateHash().get()) {
-                final String hash = HashFunction.SHA1.hash(output);
-                if (!hash.equals(params.getSha1().get())) {
-                    throw new IllegalStateException(String.format("Cannot validate asset %s as Gradle is running in offline mode and the file does not match the expected hash. Expected: %s Actual: %s", params.getUrl().get(), params.getSha1().get(), hash));
-                }
-            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
-    private record Monitor(GradleInternalUtils.ProgressLoggerWrapper progress) implements CopyProgressListener {
-
-        @Override
-        public void start(CopyProgressEvent evt) {
-            progress.started();
-            progress.incrementDownloadProgress(evt.getReadBytes());
-        }
+    /**
+     * Downloads the file, and verifies its hash while it is written.
+     * The output file is only replaced once the download is complete and verified.
+     */
+    private void download(URL url, File output, GradleInternalUtils.ProgressLoggerWrapper progress) throws IOException {
+        final Params params = getParameters();
+        final URLConnection connection = url.openConnection();
+        progress.setSize(connection.getContentLengthLong());
+        progress.started();
+
+        final Path target = output.toPath();
+        Files.createDirectories(target.getParent());
+        final Path temporary = FileUtils.temporaryPath(target.getParent(), target.getFileName().toString());
+        try {
+            final MessageDigest digest = HashFunction.SHA1.get();
+            try (InputStream input = connection.getInputStream();
+                 OutputStream stream = new DigestOutputStream(Files.newOutputStream(temporary), digest)) {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    stream.write(buffer, 0, read);
+                    progress.incrementDownloadProgress(read);
+                }
+            }
 
-        @Override
-        public void progress(CopyProgressEvent evt) {
-            progress.incrementDownloadProgress(evt.getReadBytes());
-        }
+            if (params.getShouldValidateHash().get()) {
+                final String hash = HashFunction.SHA1.toHexString(digest);
+                if (!hash.equals(params.getSha1().get())) {
+                    throw new IOException(String.format("Cannot validate file %s as the downloaded file does not match the expected hash. Expected: %s Actual: %s", params.getUrl().get(), params.getSha1().get(), hash));
+                }
+            }
 
-        @Override
-        public void end(CopyProgressEvent evt) {
-            progress.incrementDownloadProgress(evt.getReadBytes());
+            FileUtils.atomicMove(temporary, target);
+        } finally {
+            Files.deleteIfExists(temporary);
             progress.completed();
         }
     }
 
-    private static final class Timeout implements TimeoutConstraint {
-
-        private static final Timeout NONE = new Timeout();
-
-        @Override
-        public int getConnectionTimeout() {
-            return -1;
-        }
-
-        @Override
-        public int getReadTimeout() {
-            return -1;
-        }
-    }
-
     public interface Params extends WorkParameters {
         Property<String> getUrl();
 
@@ -0,0 +1,178 @@
+package net.neoforged.gradle.common.runtime.tasks.action;
+
+import net.neoforged.gradle.dsl.common.tasks.specifications.ExecuteSpecification;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs the main class of a tool jar inside a worker daemon, instead of forking a new JVM for it.
+ * <p>
+ * Every tool jar is loaded in its own class loader, whose parent is the platform class loader, so tools never see the
+ * classes of Gradle, NeoGradle or other tools. The class loader is kept for the lifetime of the worker daemon, so
+ * repeated executions of the same tool reuse its loaded and compiled classes.
+ * <p>
+ * A worker daemon executes one action at a time, so the standard output and error streams of the process can be
+ * redirected while the tool runs. The working directory of the worker daemon can not be changed, tools are expected
+ * to only use the absolute paths passed as their arguments.
+ */
+public abstract class ExecuteToolAction implements WorkAction<ExecuteToolAction.Params> {
+    private static final Logger LOGGER = Logging.getLogger(ExecuteToolAction.class);
+    private static final Map<String, ClassLoader> CLASS_LOADERS = new ConcurrentHashMap<>();
+
+    @Override
+    public void execute() {
+        final Params params = getParameters();
+        final ExecuteSpecification.LogLevel logLevel = params.getLogLevel().get();
+        try (OutputStream console = new BufferedOutputStream(new FileOutputStream(params.getConsoleLogFile().get().getAsFile(), true));
+             OutputStream error = new LoggerOutputStream(LOGGER, logLevel)) {
+            run(
+                    params.getExecutingJar().get().getAsFile(),
+                    params.getMainClass().get(),
+                    params.getArguments().get(),
+                    params.getLogStandardOutput().get() ? console : OutputStream.nullOutputStream(),
+                    error
+            );
+        } catch (ToolExecutionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ToolExecutionException("Failed to write the console log of tool: %s".formatted(params.getMainClass().get()), e);
+        }
+    }
+
+    /**
+     * Runs the main method of the given class of the tool jar, with the standard streams redirected.
+     *
+     * @param jar The tool jar.
+     * @param mainClass The class whose main method is invoked.
+     * @param arguments The program arguments.
+     * @param output The stream the standard output of the tool is written to.
+     * @param error The stream the standard error of the tool is written to.
+     * @throws ToolExecutionException If the tool could not be loaded, or its main method threw an exception.
+     */
+    static void run(File jar, String mainClass, List<String> arguments, OutputStream output, OutputStream error) {
+        final Method main;
+        final ClassLoader classLoader;
+        try {
+            classLoader = getClassLoader(jar);
+            main = Class.forName(mainClass, true, classLoader).getMethod("main", String[].class);
+        } catch (Exception e) {
+            throw new ToolExecutionException("Failed to load the main class: %s from: %s".formatted(mainClass, jar.getAbsolutePath()), e);
+        }
+
+        if (!Modifier.isStatic(main.getModifiers())) {
+            throw new ToolExecutionException("The main method of: %s is not static".formatted(mainClass), null);
+        }
+
+        final PrintStream originalOut = System.out;
+        final PrintStream originalErr = System.err;
+        final Thread thread = Thread.currentThread();
+        final ClassLoader originalContextClassLoader = thread.getContextClassLoader();
+        try (PrintStream toolOut = new PrintStream(output, true);
+             PrintStream toolErr = new PrintStream(error, true)) {
+            System.setOut(toolOut);
+            System.setErr(toolErr);
+            thread.setContextClassLoader(classLoader);
+
+            main.invoke(null, (Object) arguments.toArray(new String[0]));
+        } catch (InvocationTargetException e) {
+            throw new ToolExecutionException("The tool: %s failed".formatted(mainClass), e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new ToolExecutionException("The main method of: %s is not accessible".formatted(mainClass), e);
+        } finally {
+            thread.setContextClassLoader(originalContextClassLoader);
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+    }
+
+    private static ClassLoader getClassLoader(File jar) throws Exception {
+        //A changed jar at the same location gets a new class loader.
+        final String key = "%s:%d:%d".formatted(jar.getAbsolutePath(), jar.lastModified(), jar.length());
+        final URL url = jar.toURI().toURL();
+        return CLASS_LOADERS.computeIfAbsent(key, k -> new URLClassLoader(new URL[]{url}, ClassLoader.getPlatformClassLoader()));
+    }
+
+    /**
+     * Thrown when a tool fails inside of the worker daemon.
+     * Distinguishes failures of the tool itself from the worker daemon being terminated.
+     */
+    public static final class ToolExecutionException extends RuntimeException {
+        public ToolExecutionException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Logs every line written to it, like the error output of a forked tool is logged.
+     */
+    private static final class LoggerOutputStream extends OutputStream {
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream(1000);
+        private final Logger logger;
+        private final ExecuteSpecification.LogLevel level;
+
+        private LoggerOutputStream(Logger logger, ExecuteSpecification.LogLevel level) {
+            this.logger = logger;
+            this.level = level;
+        }
+
+        @Override
+        public void write(int b) {
+            if (level == ExecuteSpecification.LogLevel.DISABLED)
+                return;
+
+            if (b != '\n') {
+                line.write(b);
+                return;
+            }
+
+            final String message = line.toString();
+            line.reset();
+            switch (level) {
+                case TRACE:
+                    logger.trace(message);
+                    break;
+                case DEBUG:
+                    logger.debug(message);
+                    break;
+                case INFO:
+                    logger.info(message);
+                    break;
+                case WARN:
+                    logger.warn(message);
+                    break;
+                case ERROR:
+                    logger.error(message);
+                    break;
+            }
+        }
+    }
+
+    public interface Params extends WorkParameters {
+        RegularFileProperty getExecutingJar();
+        Property<String> getMainClass();
+        ListProperty<String> getArguments();
+        RegularFileProperty getConsoleLogFile();
+        Property<Boolean> getLogStandardOutput();
+        Property<ExecuteSpecification.LogLevel> getLogLevel();
+    }
+}
@@ -1,11 +1,14 @@
 package net.neoforged.gradle.common.services.caching;
 
+import net.neoforged.gradle.common.services.caching.cache.BlobStore;
+import net.neoforged.gradle.common.services.caching.cache.ContentAddressedCache;
 import net.neoforged.gradle.common.services.caching.cache.DirectoryCache;
 import net.neoforged.gradle.common.services.caching.cache.FileCache;
 import net.neoforged.gradle.common.services.caching.cache.ICache;
 import net.neoforged.gradle.common.services.caching.hasher.TaskHasher;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
 import net.neoforged.gradle.common.services.caching.locking.FileBasedLock;
+import net.neoforged.gradle.common.services.caching.locking.LockManager;
 import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
 import net.neoforged.gradle.common.util.hash.HashCode;
 import net.neoforged.gradle.common.util.hash.Hasher;
@@ -28,7 +31,7 @@ public class CachedExecutionBuilder<T> {
 
     public record LoggingOptions(boolean cacheHits, boolean debug) {}
 
-    public record Options(boolean enabled, File cache, LoggingOptions logging) {}
+    public record Options(boolean enabled, File cache, boolean deduplicate, int hashingParallelism, LockManager.LockType lockType, InFlightJobs inFlightJobs, LoggingOptions logging) {}
 
     private record JobHasher(HashCode taskHash, ICacheableJob<?,?> job, Hasher hasher) {
 
@@ -43,18 +46,18 @@ public class CachedExecutionBuilder<T> {
         }
     }
 
-    private record CacheStatus(@Nullable FileBasedLock lock, boolean shouldExecute, @Nullable ICache cache) implements AutoCloseable {
+    private record CacheStatus(@Nullable FileBasedLock lock, boolean shouldExecute, @Nullable ICache cache, @Nullable InFlightJobs.Execution execution) implements AutoCloseable {
 
         private static CacheStatus alwaysUnlocked() {
-            return new CacheStatus(null, true, null);
+            return new CacheStatus(null, true, null, null);
         }
 
-        public static CacheStatus runWithLock(FileBasedLock lock, ICache cache) {
-            return new CacheStatus(lock, true, cache);
+        public static CacheStatus runWithLock(FileBasedLock lock, ICache cache, InFlightJobs.Execution execution) {
+            return new CacheStatus(lock, true, cache, execution);
         }
 
-        public static CacheStatus cachedWithLock(FileBasedLock lock) {
-            return new CacheStatus(lock, false, null);
+        public static CacheStatus cachedWithLock(FileBasedLock lock, InFlightJobs.Execution execution) {
+            return new CacheStatus(lock, false, null, execution);
         }
 
         @NotNull
@@ -68,8 +71,15 @@ public class CachedExecutionBuilder<T> {
 
         @Override
         public void close() throws Exception {
-            if (lock != null) {
-                lock.close();
+            try {
+                if (lock != null) {
+                    lock.close();
+                }
+            } finally {
+                //Only wake up attached executions once the lock is released, so they can restore the output right away.
+                if (execution != null) {
+                    execution.close();
+                }
             }
         }
 
@@ -78,6 +88,9 @@ public class CachedExecutionBuilder<T> {
                 lock.updateAccessTime();
                 lock.markAsSuccess();
             }
+            if (execution != null) {
+                execution.markStored();
+            }
         }
     }
 
@@ -121,7 +134,7 @@ public class CachedExecutionBuilder<T> {
         }
 
         //Create the hash of the task
-        final TaskHasher hasher = new TaskHasher(targetTask, logger);
+        final TaskHasher hasher = new TaskHasher(targetTask, logger, options.cache(), options.hashingParallelism());
         final HashCode taskHash = hasher.create();
 
         logger.debug("Task hash: %s".formatted(taskHash));
@@ -141,16 +154,26 @@ public class CachedExecutionBuilder<T> {
     private Function<ICacheableJob<?,?>, CacheStatus> shouldExecuteCachedFor(Task targetTask, HashCode taskHash) {
         return (stage) -> {
             //Create the cache
-            final ICache cache = createCache(taskHash, stage);
+            final File cacheDir = getCacheDirectory(taskHash, stage);
+            final ICache cache = createCache(cacheDir, stage);
+
+            //Wait for a concurrent execution of the same stage in this daemon, instead of contending for its lock
+            final InFlightJobs.Execution execution = joinExecution(cacheDir, stage);
 
             //Create and acquire the lock on the cache
-            final FileBasedLock lock = cache.createLock(logger);
+            final FileBasedLock lock;
+            try {
+                lock = cache.createLock(options.lockType(), logger);
+            } catch (RuntimeException e) {
+                execution.close();
+                throw e;
+            }
 
             try {
                 //A cached execution is only healthy if the healthy file exists
                 if (lock.hasPreviousFailure()) {
                     logger.debug("Previous failure detected for stage: %s".formatted(stage));
-                    return CacheStatus.runWithLock(lock, cache);
+                    return CacheStatus.runWithLock(lock, cache, execution);
                 }
 
                 //We have a healthy lock, and the previous execution was successful
@@ -163,13 +186,46 @@ public class CachedExecutionBuilder<T> {
                 targetTask.setDidWork(false);
 
                 //The cache was restored successfully, we do not need to execute the stage
-                return CacheStatus.cachedWithLock(lock);
+                return CacheStatus.cachedWithLock(lock, execution);
             } catch (Exception e) {
+                try {
+                    new CacheStatus(lock, false, null, execution).close();
+                } catch (Exception suppressed) {
+                    e.addSuppressed(suppressed);
+                }
                 throw new GradleException("Failed to restore cache for stage: %s".formatted(stage), e);
             }
         };
     }
 
+    /**
+     * Joins the execution of the given stage in this daemon. If another thread is executing the stage, this waits until
+     * it has stored the output in the cache, so that the output only needs to be restored. If the other thread fails,
+     * the stage is executed again, by whichever waiting thread joins first.
+     *
+     * @param cacheDir The directory of the cache entry of the stage.
+     * @param stage The stage.
+     * @return The execution, which is owned by the caller if the stage might still need to be executed.
+     */
+    private InFlightJobs.Execution joinExecution(File cacheDir, ICacheableJob<?,?> stage) {
+        InFlightJobs.Execution execution = options.inFlightJobs().join(cacheDir);
+        while (!execution.isOwner()) {
+            logger.debug("Waiting for a concurrent execution of stage: %s".formatted(stage));
+            try {
+                if (execution.awaitOwner()) {
+                    return execution;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GradleException("Interrupted while waiting for a concurrent execution of stage: %s".formatted(stage), e);
+            }
+
+            execution = options.inFlightJobs().join(cacheDir);
+        }
+
+        return execution;
+    }
+
     private AfterExecute afterExecution() {
         //Return a consumer that logs the cache hit or miss
         return (stage, status) -> {
@@ -183,17 +239,30 @@ public class CachedExecutionBuilder<T> {
     }
 
     /**
-     * Creates a cache for the given task hash and job.
+     * Gets the directory of the cache entry for the given task hash and job.
      *
      * @param taskHash The hash of the task.
-     * @param job The job to create the cache for.
-     * @return The cache for the given task hash and job.
+     * @param job The job to get the directory for.
+     * @return The directory of the cache entry.
      */
-    private ICache createCache(final HashCode taskHash, final ICacheableJob<?,?> job) {
+    private File getCacheDirectory(final HashCode taskHash, final ICacheableJob<?,?> job) {
         final JobHasher jobHasher = new JobHasher(taskHash, job);
-        final File cacheDir = new File(options.cache(), jobHasher.hash().toString());
+        return new File(options.cache(), jobHasher.hash().toString());
+    }
+
+    /**
+     * Creates a cache for the given cache entry and job.
+     *
+     * @param cacheDir The directory of the cache entry.
+     * @param job The job to create the cache for.
+     * @return The cache for the given cache entry and job.
+     */
+    private ICache createCache(final File cacheDir, final ICacheableJob<?,?> job) {
+        if (options.deduplicate()) {
+            return new ContentAddressedCache(cacheDir, new BlobStore(new File(options.cache(), BlobStore.DIRECTORY_NAME)), job.createsDirectory());
+        }
 
-        return job.createsDirectory() ? new DirectoryCache(cacheDir) : new FileCache(cacheDir);
+        return job.createsDirectory() ? new DirectoryCache(cacheDir, options.hashingParallelism()) : new FileCache(cacheDir);
     }
 
     /**
@@ -1,19 +1,27 @@
 package net.neoforged.gradle.common.services.caching;
 
 
+import net.neoforged.gradle.common.services.caching.cache.DecompiledSourceCache;
+import net.neoforged.gradle.common.services.caching.eviction.CacheEvictionEngine;
+import net.neoforged.gradle.common.services.caching.eviction.EvictionResult;
+import net.neoforged.gradle.common.services.caching.hasher.FileHashIndex;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
+import net.neoforged.gradle.common.services.caching.locking.LockManager;
+import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
 import org.apache.commons.io.FileUtils;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.provider.Property;
 import org.gradle.api.services.BuildService;
 import org.gradle.api.services.BuildServiceParameters;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
 
-public abstract class CachedExecutionService implements BuildService<CachedExecutionService.Parameters> {
+public abstract class CachedExecutionService implements BuildService<CachedExecutionService.Parameters>, AutoCloseable {
 
     public static final String NAME = "CachedExecutionService";
 
@@ -23,9 +31,27 @@ public abstract class CachedExecutionService implements BuildService<CachedExecu
     public static final String CACHE_DIRECTORY_PROPERTY = CACHING_PROPERTY_PREFIX + "cacheDirectory";
     public static final String LOG_CACHE_HITS_PROPERTY = CACHING_PROPERTY_PREFIX + "logCacheHits";
     public static final String MAX_CACHE_SIZE_PROPERTY = CACHING_PROPERTY_PREFIX + "maxCacheSize";
+    public static final String MAX_CACHE_DISK_SIZE_PROPERTY = CACHING_PROPERTY_PREFIX + "maxCacheDiskSize";
     public static final String DEBUG_CACHE_PROPERTY = CACHING_PROPERTY_PREFIX + "debug";
     public static final String IS_ENABLED_PROPERTY = CACHING_PROPERTY_PREFIX + "enabled";
+    public static final String DEDUPLICATE_PROPERTY = CACHING_PROPERTY_PREFIX + "deduplicate";
+    public static final String HASHING_PARALLELISM_PROPERTY = CACHING_PROPERTY_PREFIX + "hashingParallelism";
+    public static final String LOCK_TYPE_PROPERTY = CACHING_PROPERTY_PREFIX + "lockType";
 
+    /**
+     * The minimal time between two automatic evictions, which run when the build finishes.
+     */
+    private static final Duration AUTOMATIC_EVICTION_INTERVAL = Duration.ofHours(1);
+
+    /**
+     * The time after which decompiled sources of single classes are removed, if they were not used.
+     */
+    private static final Duration DECOMPILED_SOURCE_MAX_AGE = Duration.ofDays(30);
+
+    /**
+     * The cached jobs currently executed in this daemon, shared by all builds so concurrent builds are deduplicated as well.
+     */
+    private static final InFlightJobs IN_FLIGHT_JOBS = new InFlightJobs();
 
     public interface Parameters extends BuildServiceParameters {
 
@@ -35,9 +61,29 @@ public abstract class CachedExecutionService implements BuildService<CachedExecu
 
         Property<Integer> getMaxCacheSize();
 
+        /**
+         * @return The maximal size of the cache on disk in megabytes, zero or less means unlimited.
+         */
+        Property<Long> getMaxCacheDiskSize();
+
         Property<Boolean> getDebugCache();
 
         Property<Boolean> getIsEnabled();
+
+        /**
+         * @return True if the cache stores outputs in a content addressed blob store, and restores them as hard links.
+         */
+        Property<Boolean> getDeduplicate();
+
+        /**
+         * @return The amount of threads used to hash the input and output files of cached tasks, one hashes them sequentially.
+         */
+        Property<Integer> getHashingParallelism();
+
+        /**
+         * @return The mechanism used to lock cache entries against concurrent use by other threads and builds.
+         */
+        Property<LockManager.LockType> getLockType();
     }
 
     public static void register(Project project) {
@@ -51,8 +97,12 @@ public abstract class CachedExecutionService implements BuildService<CachedExecu
                                     .orElse(new File(new File(project.getGradle().getGradleUserHomeDir(), "caches"), DIRECTORY_NAME)));
                     spec.getParameters().getLogCacheHits().set(project.getProviders().gradleProperty(LOG_CACHE_HITS_PROPERTY).map(Boolean::parseBoolean).orElse(false));
                     spec.getParameters().getMaxCacheSize().set(project.getProviders().gradleProperty(MAX_CACHE_SIZE_PROPERTY).map(Integer::parseInt).orElse(100));
+                    spec.getParameters().getMaxCacheDiskSize().set(project.getProviders().gradleProperty(MAX_CACHE_DISK_SIZE_PROPERTY).map(Long::parseLong).orElse(0L));
                     spec.getParameters().getDebugCache().set(project.getProviders().gradleProperty(DEBUG_CACHE_PROPERTY).map(Boolean::parseBoolean).orElse(false));
                     spec.getParameters().getIsEnabled().set(project.getProviders().gradleProperty(IS_ENABLED_PROPERTY).map(Boolean::parseBoolean).orElse(true));
+                    spec.getParameters().getDeduplicate().set(project.getProviders().gradleProperty(DEDUPLICATE_PROPERTY).map(Boolean::parseBoolean).orElse(false));
+                    spec.getParameters().getHashingParallelism().set(project.getProviders().gradleProperty(HASHING_PARALLELISM_PROPERTY).map(Integer::parseInt).orElse(Runtime.getRuntime().availableProcessors()));
+                    spec.getParameters().getLockType().set(project.getProviders().gradleProperty(LOCK_TYPE_PROPERTY).map(LockManager.LockType::fromName).orElse(LockManager.LockType.CHANNEL));
                 }
         );
     }
@@ -61,6 +111,62 @@ public abstract class CachedExecutionService implements BuildService<CachedExecu
         FileUtils.cleanDirectory(getParameters().getCacheDirectory().get().getAsFile());
     }
 
+    /**
+     * Evicts the least recently used entries from the cache, until it is within the configured
+     * entry count and disk size limits.
+     *
+     * @return The result of the eviction.
+     * @throws IOException If an error occurs while evicting.
+     */
+    public EvictionResult evict() throws IOException {
+        return createEvictionEngine().evict();
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (!getParameters().getIsEnabled().get()) {
+            return;
+        }
+
+        try {
+            FileHashIndex.saveAll();
+            createEvictionEngine().evictIfDue(AUTOMATIC_EVICTION_INTERVAL);
+            getDecompiledSourceCache().pruneIfDue(DECOMPILED_SOURCE_MAX_AGE, AUTOMATIC_EVICTION_INTERVAL);
+        } catch (IOException e) {
+            //Maintenance of the cache should never fail the build.
+            Logging.getLogger(CachedExecutionService.class).warn("Failed to maintain the cache directory: {}", getParameters().getCacheDirectory().get().getAsFile().getAbsolutePath(), e);
+        }
+    }
+
+    private CacheEvictionEngine createEvictionEngine() {
+        return new CacheEvictionEngine(
+                getParameters().getCacheDirectory().get().getAsFile(),
+                getParameters().getMaxCacheSize().get(),
+                getParameters().getMaxCacheDiskSize().get() * 1024 * 1024,
+                getParameters().getLockType().get(),
+                new CacheLogger(
+                        Logging.getLogger(CachedExecutionService.class),
+                        NAME,
+                        getParameters().getDebugCache().get(),
+                        false
+                )
+        );
+    }
+
+    /**
+     * @return True if the cache is enabled.
+     */
+    public boolean isEnabled() {
+        return getParameters().getIsEnabled().get();
+    }
+
+    /**
+     * @return The cache of decompiled sources of single classes, stored in the cache directory.
+     */
+    public DecompiledSourceCache getDecompiledSourceCache() {
+        return new DecompiledSourceCache(new File(getParameters().getCacheDirectory().get().getAsFile(), DecompiledSourceCache.DIRECTORY_NAME));
+    }
+
     public <T> CachedExecutionBuilder<T> cached(
             Task task,
             ICacheableJob<Void, T> initial
@@ -69,6 +175,10 @@ public abstract class CachedExecutionService implements BuildService<CachedExecu
                 new CachedExecutionBuilder.Options(
                         getParameters().getIsEnabled().get(),
                         getParameters().getCacheDirectory().get().getAsFile(),
+                        getParameters().getDeduplicate().get(),
+                        getParameters().getHashingParallelism().get(),
+                        getParameters().getLockType().get(),
+                        IN_FLIGHT_JOBS,
                         new CachedExecutionBuilder.LoggingOptions(
                                 getParameters().getLogCacheHits().get(),
                                 getParameters().getDebugCache().get()
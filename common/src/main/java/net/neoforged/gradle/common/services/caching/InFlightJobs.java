@@ -0,0 +1,95 @@
+package net.neoforged.gradle.common.services.caching;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tracks the cached jobs which are currently executed in this daemon, by the directory of their cache entry.
+ * <p>
+ * The first execution of a job owns it. Concurrent executions of the same job, for example of the same Minecraft
+ * version in multiple subprojects, attach to the owner instead of contending for the lock of the cache entry, and are
+ * woken up as soon as the owner has stored its output, or has failed.
+ */
+public final class InFlightJobs {
+
+    private final ConcurrentMap<File, CompletableFuture<Boolean>> executions = new ConcurrentHashMap<>();
+
+    /**
+     * Joins the execution of the job with the given cache entry.
+     *
+     * @param cacheDir The directory of the cache entry of the job.
+     * @return The execution, which is owned by the caller if the job was not executed yet.
+     */
+    public Execution join(File cacheDir) {
+        final CompletableFuture<Boolean> started = new CompletableFuture<>();
+        final CompletableFuture<Boolean> running = executions.putIfAbsent(cacheDir, started);
+        return running == null ? new Execution(cacheDir, true, started) : new Execution(cacheDir, false, running);
+    }
+
+    /**
+     * @return The amount of jobs which are currently executed.
+     */
+    public int size() {
+        return executions.size();
+    }
+
+    /**
+     * The participation of a caller in the execution of a job.
+     */
+    public final class Execution implements AutoCloseable {
+
+        private final File cacheDir;
+        private final boolean owner;
+        private final CompletableFuture<Boolean> result;
+        private boolean stored = false;
+
+        private Execution(File cacheDir, boolean owner, CompletableFuture<Boolean> result) {
+            this.cacheDir = cacheDir;
+            this.owner = owner;
+            this.result = result;
+        }
+
+        /**
+         * @return True if the caller executes the job, false if it is attached to the execution of another caller.
+         */
+        public boolean isOwner() {
+            return owner;
+        }
+
+        /**
+         * Waits until the owner of the execution has finished.
+         *
+         * @return True if the owner stored the output of the job in the cache, false if it failed.
+         * @throws InterruptedException If the thread was interrupted while waiting.
+         */
+        public boolean awaitOwner() throws InterruptedException {
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Marks that the output of the job was stored in the cache, this has no effect for attached callers.
+         */
+        public void markStored() {
+            stored = true;
+        }
+
+        /**
+         * Finishes the execution, if the caller owns it the attached callers are woken up.
+         * The cache entry of the job must not be locked by the caller anymore, so they can restore the output directly.
+         */
+        @Override
+        public void close() {
+            if (owner) {
+                executions.remove(cacheDir, result);
+                result.complete(stored);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package net.neoforged.gradle.common.services.caching.cache;
+
+import net.neoforged.gradle.common.util.hash.Hashing;
+import net.neoforged.gradle.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * A content addressed store of files, each distinct content is stored exactly once, keyed by its digest.
+ * <p>
+ * Blobs are read-only, and are restored into workspaces as hard links, so restoring a cached output does not copy any
+ * content. Where hard links are not supported, for example when the workspace is on a different file system, blobs are
+ * restored as writable copies instead. Tasks replace their outputs instead of writing into them, so the read-only
+ * links are never written to; outputs which were modified in place anyway are detected by the {@link ContentAddressedCache}.
+ */
+public final class BlobStore {
+
+    public static final String DIRECTORY_NAME = "blobs";
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final File root;
+
+    public BlobStore(File root) {
+        this.root = root;
+    }
+
+    /**
+     * @return The root directory of the store.
+     */
+    public File root() {
+        return root;
+    }
+
+    /**
+     * Gets the location of the blob with the given digest.
+     *
+     * @param digest The digest of the blob.
+     * @return The location of the blob, which might not exist.
+     */
+    public Path blob(String digest) {
+        return root.toPath().resolve(digest.substring(0, 2)).resolve(digest);
+    }
+
+    /**
+     * Stores the given file in the blob store, if its content is not already stored.
+     *
+     * @param file The file to store.
+     * @return The stored blob.
+     * @throws IOException If the file could not be stored.
+     */
+    public ContentManifest.Blob store(Path file) throws IOException {
+        final String digest = Hashing.sha256().hashFile(file.toFile()).toString();
+        final long size = Files.size(file);
+        final Path blob = blob(digest);
+
+        if (Files.exists(blob)) {
+            //Mark the blob as recently used, so that it survives garbage collection while its new manifest is written.
+            //Outputs linked to the blob share its modification time, so they are compared by content once when restored next.
+            blob.toFile().setLastModified(System.currentTimeMillis());
+            return new ContentManifest.Blob(digest, size);
+        }
+
+        Files.createDirectories(blob.getParent());
+        final Path temporary = Files.createTempFile(blob.getParent(), digest, TEMPORARY_SUFFIX);
+        try {
+            Files.copy(file, temporary, StandardCopyOption.REPLACE_EXISTING);
+            temporary.toFile().setReadOnly();
+            Files.move(temporary, blob);
+        } catch (FileAlreadyExistsException e) {
+            //Another process stored the same content concurrently, which is fine, as the content is identical.
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+
+        return new ContentManifest.Blob(digest, size);
+    }
+
+    /**
+     * Restores the blob with the given digest to the given target, replacing the target if it exists.
+     * The target is a read-only hard link to the blob, or a writable copy of it if the blob can not be linked.
+     *
+     * @param digest The digest of the blob.
+     * @param target The target to restore to.
+     * @throws IOException If the blob does not exist, or could not be restored.
+     */
+    public void restore(String digest, Path target) throws IOException {
+        final Path blob = blob(digest);
+        if (!Files.exists(blob)) {
+            throw new IOException("Missing blob: %s in: %s".formatted(digest, root.getAbsolutePath()));
+        }
+
+        Files.createDirectories(target.getParent());
+        final Path temporary = FileUtils.temporaryPath(target.getParent(), target.getFileName().toString());
+        try {
+            if (!link(blob, temporary)) {
+                Files.copy(blob, temporary, StandardCopyOption.REPLACE_EXISTING);
+                //The copy inherits the permissions of the read-only blob.
+                temporary.toFile().setWritable(true);
+            }
+            FileUtils.atomicMove(temporary, target);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Checks whether the given file is the blob with the given digest on disk, because it was restored as a hard link.
+     *
+     * @param digest The digest of the blob.
+     * @param file The file to check.
+     * @return True if the file and the blob are the same file on disk.
+     * @throws IOException If the files could not be compared.
+     */
+    public boolean isSameFile(String digest, Path file) throws IOException {
+        final Path blob = blob(digest);
+        return Files.exists(blob) && Files.exists(file) && Files.isSameFile(blob, file);
+    }
+
+    /**
+     * Removes the blob with the given digest, for example because its content no longer matches its digest.
+     * Cache entries which reference the blob fail to restore, and are executed again.
+     *
+     * @param digest The digest of the blob.
+     * @throws IOException If the blob could not be removed.
+     */
+    public void discard(String digest) throws IOException {
+        final Path blob = blob(digest);
+        //Read-only files can not be deleted on all platforms.
+        blob.toFile().setWritable(true);
+        Files.deleteIfExists(blob);
+    }
+
+    /**
+     * Replaces the given placeholder with a hard link to the given blob.
+     *
+     * @return True if the link was created, false if the file system does not support linking the blob to the target.
+     */
+    private static boolean link(Path blob, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, blob);
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            //For example a different file system, or a file system without hard links.
+            return false;
+        }
+    }
+
+    /**
+     * Removes all blobs which are not referenced, and have not been used for at least the grace period.
+     * The grace period protects blobs which are being stored concurrently, before their manifest exists.
+     *
+     * @param referenced The digests of all referenced blobs.
+     * @param gracePeriod The minimal age of blobs that can be removed.
+     * @return The amount of bytes that were removed.
+     * @throws IOException If the store could not be read.
+     */
+    public long collectGarbage(Set<String> referenced, Duration gracePeriod) throws IOException {
+        if (!root.isDirectory()) {
+            return 0;
+        }
+
+        final long threshold = System.currentTimeMillis() - gracePeriod.toMillis();
+        final List<Path> candidates;
+        try (Stream<Path> files = Files.walk(root.toPath())) {
+            candidates = files.filter(Files::isRegularFile)
+                    .filter(path -> path.toFile().lastModified() < threshold)
+                    .filter(path -> path.getFileName().toString().endsWith(TEMPORARY_SUFFIX) || !referenced.contains(path.getFileName().toString()))
+                    .toList();
+        }
+
+        long removed = 0;
+        for (Path candidate : candidates) {
+            final long size = Files.size(candidate);
+            //Read-only files can not be deleted on all platforms.
+            candidate.toFile().setWritable(true);
+            if (Files.deleteIfExists(candidate)) {
+                removed += size;
+            }
+        }
+
+        return removed;
+    }
+}
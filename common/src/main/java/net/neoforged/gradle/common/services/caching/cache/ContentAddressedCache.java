@@ -0,0 +1,192 @@
+package net.neoforged.gradle.common.services.caching.cache;
+
+import net.neoforged.gradle.common.services.caching.locking.FileBasedLock;
+import net.neoforged.gradle.common.services.caching.locking.LockManager;
+import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
+import net.neoforged.gradle.common.util.hash.Hashing;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.GradleException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A cache which stores the content of its output in a shared {@link BlobStore}, instead of storing a full copy per entry.
+ * The entry itself only holds a {@link ContentManifest} which references the blobs.
+ * <p>
+ * Restoring links the blobs into the workspace, see {@link BlobStore#restore(String, Path)}. The fingerprints of the
+ * restored outputs, which include the inode of every file, are recorded in the {@link OutputMetadata} of the entry, so
+ * unchanged outputs are recognized without hashing their content.
+ */
+public class ContentAddressedCache implements ICache {
+
+    private final File cacheDir;
+    private final BlobStore blobStore;
+    private final boolean directory;
+
+    public ContentAddressedCache(File cacheDir, BlobStore blobStore, boolean directory) {
+        this.cacheDir = cacheDir;
+        this.blobStore = blobStore;
+        this.directory = directory;
+    }
+
+    @Override
+    public void loadFrom(File file) throws IOException {
+        final File manifestFile = new File(cacheDir, ContentManifest.FILE_NAME);
+        if (manifestFile.exists()) {
+            manifestFile.delete();
+        }
+
+        // If the file does not exist, there is nothing to load
+        if (!file.exists()) {
+            return;
+        }
+
+        final Map<String, ContentManifest.Blob> files = new LinkedHashMap<>();
+        final List<String> directories = new ArrayList<>();
+        if (directory) {
+            final Path root = file.toPath();
+            try (Stream<Path> paths = Files.walk(root)) {
+                for (Path path : paths.sorted().toList()) {
+                    final String relativePath = relativize(root, path);
+                    if (Files.isDirectory(path)) {
+                        if (!relativePath.isEmpty()) {
+                            directories.add(relativePath);
+                        }
+                    } else {
+                        files.put(relativePath, blobStore.store(path));
+                    }
+                }
+            }
+        } else {
+            files.put("", blobStore.store(file.toPath()));
+        }
+
+        cacheDir.mkdirs();
+        new ContentManifest(directory, files, directories).write(manifestFile);
+
+        final OutputMetadata metadata = OutputMetadata.create(cacheDir);
+        metadata.record(file);
+        metadata.write();
+    }
+
+    @Override
+    public boolean restoreTo(File file) throws IOException {
+        final File manifestFile = new File(cacheDir, ContentManifest.FILE_NAME);
+        final ContentManifest manifest = manifestFile.exists() ? ContentManifest.read(manifestFile) : null;
+        final OutputMetadata metadata = OutputMetadata.read(cacheDir);
+
+        if (file.exists()) {
+            if (manifest != null && isRestored(manifest, metadata, file)) {
+                metadata.write();
+                return false;
+            }
+
+            if (file.isDirectory()) {
+                FileUtils.cleanDirectory(file);
+            }
+            file.delete();
+        }
+
+        if (directory) {
+            file.mkdirs();
+        }
+
+        //If the manifest exists we can restore it, that means if previous executions did not create an output
+        //Then we should not restore it as our manifest would not exist.
+        if (manifest != null) {
+            try {
+                for (String relativePath : manifest.directories()) {
+                    Files.createDirectories(file.toPath().resolve(relativePath));
+                }
+
+                for (Map.Entry<String, ContentManifest.Blob> entry : manifest.files().entrySet()) {
+                    blobStore.restore(entry.getValue().digest(), resolve(file, entry.getKey()));
+                }
+            } catch (IOException e) {
+                throw new GradleException("Failed to restore cache. Copying the cached content failed.", e);
+            }
+
+            metadata.record(file);
+            metadata.write();
+        }
+
+        return true;
+    }
+
+    @Override
+    public FileBasedLock createLock(LockManager.LockType lockType, CacheLogger logger) {
+        return LockManager.createLock(cacheDir, lockType, logger);
+    }
+
+    /**
+     * Checks whether the given workspace output is identical to the content described by the manifest.
+     * Outputs whose fingerprint was recorded are unchanged since they were restored or compared, others are compared
+     * by size and digest.
+     * <p>
+     * An output which no longer matches its blob, but is still linked to it, was modified in place. The modification
+     * changed the blob as well, so the blob is discarded, and restoring fails until the job was executed again.
+     */
+    private boolean isRestored(ContentManifest manifest, OutputMetadata metadata, File file) throws IOException {
+        if (file.isDirectory() != directory) {
+            return false;
+        }
+
+        if (metadata.isUnchanged(file)) {
+            return true;
+        }
+
+        if (directory) {
+            final Set<String> existing;
+            try (Stream<Path> paths = Files.walk(file.toPath())) {
+                existing = paths.filter(Files::isRegularFile)
+                        .map(path -> relativize(file.toPath(), path))
+                        .collect(Collectors.toSet());
+            }
+
+            if (!existing.equals(manifest.files().keySet())) {
+                return false;
+            }
+        }
+
+        for (Map.Entry<String, ContentManifest.Blob> entry : manifest.files().entrySet()) {
+            final Path target = resolve(file, entry.getKey());
+            final ContentManifest.Blob blob = entry.getValue();
+
+            if (!Files.isRegularFile(target)) {
+                return false;
+            }
+
+            if (Files.size(target) == blob.size() && Hashing.sha256().hashFile(target.toFile()).toString().equals(blob.digest())) {
+                continue;
+            }
+
+            if (blobStore.isSameFile(blob.digest(), target)) {
+                blobStore.discard(blob.digest());
+                throw new IOException("The restored output: %s was modified in place, which modified its cached content as well. The cached content was removed, the output is created again the next time the task is executed.".formatted(target));
+            }
+
+            return false;
+        }
+
+        metadata.record(file);
+        return true;
+    }
+
+    private static Path resolve(File output, String relativePath) {
+        return relativePath.isEmpty() ? output.toPath() : output.toPath().resolve(relativePath);
+    }
+
+    private static String relativize(Path root, Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+}
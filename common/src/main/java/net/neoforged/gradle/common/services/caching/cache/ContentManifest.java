@@ -0,0 +1,98 @@
+package net.neoforged.gradle.common.services.caching.cache;
+
+import net.neoforged.gradle.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The manifest of a content addressed cache entry.
+ * Records which blob makes up which file of the cached output.
+ * <p>
+ * The manifest is stored as a simple text file, the first line contains the type of the output (file or directory),
+ * every following line contains either a file ({@code F <digest> <size> <path>}) or a directory ({@code D <path>}).
+ * Paths are relative to the output, use forward slashes, and are empty for a single file output.
+ *
+ * @param directory True if the cached output is a directory.
+ * @param files The files of the output, by relative path.
+ * @param directories The directories of the output, including empty ones, by relative path.
+ */
+public record ContentManifest(boolean directory, Map<String, Blob> files, List<String> directories) {
+
+    public static final String FILE_NAME = "manifest";
+
+    private static final String DIRECTORY_TYPE = "directory";
+    private static final String FILE_TYPE = "file";
+
+    /**
+     * A single blob referenced by the manifest.
+     *
+     * @param digest The digest of the content of the blob.
+     * @param size The size of the blob in bytes.
+     */
+    public record Blob(String digest, long size) {}
+
+    /**
+     * @return The total size of the output described by this manifest, as it is restored into a workspace.
+     */
+    public long totalSize() {
+        return files.values().stream().mapToLong(Blob::size).sum();
+    }
+
+    /**
+     * Reads the manifest from the given file.
+     *
+     * @param file The file to read.
+     * @return The manifest.
+     * @throws IOException If the file could not be read, or is not a valid manifest.
+     */
+    public static ContentManifest read(File file) throws IOException {
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            throw new IOException("Empty cache manifest: %s".formatted(file.getAbsolutePath()));
+        }
+
+        final Map<String, Blob> files = new LinkedHashMap<>();
+        final List<String> directories = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.startsWith("F ")) {
+                final String[] parts = line.split(" ", 4);
+                if (parts.length != 4) {
+                    throw new IOException("Invalid cache manifest line: %s in: %s".formatted(line, file.getAbsolutePath()));
+                }
+
+                files.put(parts[3], new Blob(parts[1], Long.parseLong(parts[2])));
+            } else if (line.startsWith("D ")) {
+                directories.add(line.substring(2));
+            } else if (!line.isEmpty()) {
+                throw new IOException("Invalid cache manifest line: %s in: %s".formatted(line, file.getAbsolutePath()));
+            }
+        }
+
+        return new ContentManifest(lines.get(0).equals(DIRECTORY_TYPE), files, directories);
+    }
+
+    /**
+     * Atomically writes the manifest to the given file.
+     *
+     * @param file The file to write to.
+     * @throws IOException If the file could not be written.
+     */
+    public void write(File file) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        lines.add(directory ? DIRECTORY_TYPE : FILE_TYPE);
+        directories.forEach(path -> lines.add("D " + path));
+        files.forEach((path, blob) -> lines.add("F %s %d %s".formatted(blob.digest(), blob.size(), path)));
+
+        final Path temporary = FileUtils.temporaryPath(file.getParentFile().toPath(), FILE_NAME);
+        Files.write(temporary, lines, StandardCharsets.UTF_8);
+        FileUtils.atomicMove(temporary, file.toPath());
+    }
+}
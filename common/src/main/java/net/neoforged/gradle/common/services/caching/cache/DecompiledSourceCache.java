@@ -0,0 +1,121 @@
+package net.neoforged.gradle.common.services.caching.cache;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Stores the decompiled sources of single classes, keyed by a digest of everything their decompilation depends on.
+ * <p>
+ * Sources are shared between all decompilations using the cache directory, regardless of the Minecraft version,
+ * so unchanged classes are only decompiled once. Every source is stored exactly once, and written atomically,
+ * so the store needs no locking. Sources which have not been used for a while are removed by {@link #pruneIfDue(Duration, Duration)}.
+ */
+public final class DecompiledSourceCache {
+
+    public static final String DIRECTORY_NAME = "decompiled-sources";
+
+    private static final String LAST_PRUNE_FILE_NAME = "prune.last";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final File root;
+
+    public DecompiledSourceCache(File root) {
+        this.root = root;
+    }
+
+    /**
+     * Gets the stored source with the given key, and marks it as used.
+     *
+     * @param key The key of the source.
+     * @return The source, which is empty if the decompiler did not produce a source, or null if no source is stored.
+     * @throws IOException If the source could not be read.
+     */
+    @Nullable
+    public byte[] get(String key) throws IOException {
+        final Path source = source(key);
+        try {
+            final byte[] content = Files.readAllBytes(source);
+            source.toFile().setLastModified(System.currentTimeMillis());
+            return content;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the source with the given key, if no source is stored with it yet.
+     *
+     * @param key The key of the source.
+     * @param content The source, empty if the decompiler did not produce a source.
+     * @throws IOException If the source could not be stored.
+     */
+    public void put(String key, byte[] content) throws IOException {
+        final Path source = source(key);
+        if (Files.exists(source)) {
+            return;
+        }
+
+        Files.createDirectories(source.getParent());
+        final Path temporary = Files.createTempFile(source.getParent(), key, TEMPORARY_SUFFIX);
+        try {
+            Files.write(temporary, content);
+            Files.move(temporary, source);
+        } catch (FileAlreadyExistsException e) {
+            //Another process stored the same source concurrently, the keys are equal so the sources are as well.
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Removes all sources which have not been used for the given time, if the last removal is longer ago than the given interval.
+     *
+     * @param maxAge The time after which unused sources are removed.
+     * @param interval The minimal interval between two removals.
+     * @return The amount of bytes that were removed.
+     * @throws IOException If the store could not be read.
+     */
+    public long pruneIfDue(Duration maxAge, Duration interval) throws IOException {
+        if (!root.isDirectory()) {
+            return 0;
+        }
+
+        final File lastPrune = new File(root, LAST_PRUNE_FILE_NAME);
+        final long now = System.currentTimeMillis();
+        if (lastPrune.exists() && now - lastPrune.lastModified() < interval.toMillis()) {
+            return 0;
+        }
+        Files.write(lastPrune.toPath(), new byte[0]);
+
+        final long threshold = now - maxAge.toMillis();
+        final List<Path> candidates;
+        try (Stream<Path> files = Files.walk(root.toPath())) {
+            candidates = files.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().equals(LAST_PRUNE_FILE_NAME))
+                    .filter(path -> path.toFile().lastModified() < threshold)
+                    .toList();
+        }
+
+        long removed = 0;
+        for (Path candidate : candidates) {
+            final long size = Files.size(candidate);
+            if (Files.deleteIfExists(candidate)) {
+                removed += size;
+            }
+        }
+
+        return removed;
+    }
+
+    private Path source(String key) {
+        return root.toPath().resolve(key.substring(0, 2)).resolve(key);
+    }
+}
@@ -3,7 +3,6 @@ package net.neoforged.gradle.common.services.caching.cache;
 import net.neoforged.gradle.common.services.caching.locking.FileBasedLock;
 import net.neoforged.gradle.common.services.caching.locking.LockManager;
 import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
-import net.neoforged.gradle.common.util.hash.Hashing;
 import org.apache.commons.io.FileUtils;
 import org.gradle.api.GradleException;
 
@@ -13,9 +12,11 @@ import java.io.IOException;
 public class DirectoryCache implements ICache {
 
     private final File cacheDir;
+    private final int hashingParallelism;
 
-    public DirectoryCache(File cacheDir) {
+    public DirectoryCache(File cacheDir, int hashingParallelism) {
         this.cacheDir = cacheDir;
+        this.hashingParallelism = hashingParallelism;
     }
 
     @Override
@@ -29,15 +30,21 @@ public class DirectoryCache implements ICache {
             FileUtils.cleanDirectory(output);
             FileUtils.copyDirectory(file, output);
         }
+
+        final OutputMetadata metadata = OutputMetadata.create(cacheDir, file, hashingParallelism);
+        metadata.record(file);
+        metadata.write();
     }
 
     @Override
     public boolean restoreTo(File file) throws IOException {
         final File output = new File(cacheDir, "output");
+        final OutputMetadata metadata = OutputMetadata.read(cacheDir);
 
         if (file.exists()) {
             if (file.isDirectory() && output.exists()) {
-                if (Hashing.hashDirectory(file).equals(Hashing.hashDirectory(output))) {
+                if (metadata.matches(file, output, hashingParallelism)) {
+                    metadata.write();
                     return false;
                 }
             }
@@ -58,11 +65,13 @@ public class DirectoryCache implements ICache {
             }
         }
 
+        metadata.record(file);
+        metadata.write();
         return true;
     }
 
     @Override
-    public FileBasedLock createLock(CacheLogger logger) {
-        return LockManager.createLock(cacheDir, logger);
+    public FileBasedLock createLock(LockManager.LockType lockType, CacheLogger logger) {
+        return LockManager.createLock(cacheDir, lockType, logger);
     }
 }
@@ -3,7 +3,6 @@ package net.neoforged.gradle.common.services.caching.cache;
 import net.neoforged.gradle.common.services.caching.locking.FileBasedLock;
 import net.neoforged.gradle.common.services.caching.locking.LockManager;
 import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
-import net.neoforged.gradle.common.util.hash.Hashing;
 import org.apache.commons.io.FileUtils;
 import org.gradle.api.GradleException;
 
@@ -25,21 +24,26 @@ public class FileCache implements ICache {
             cacheFile.delete();
         }
 
+        final OutputMetadata metadata = OutputMetadata.create(cacheDir, file, 1);
+
         // If the file does not exist, there is nothing to load
-        if (!file.exists()) {
-            return;
+        if (file.exists()) {
+            FileUtils.copyFile(file, cacheFile);
+            metadata.record(file);
         }
 
-        FileUtils.copyFile(file, cacheFile);
+        metadata.write();
     }
 
     @Override
     public boolean restoreTo(File file) throws IOException {
         final File cacheFile = new File(cacheDir, "output");
+        final OutputMetadata metadata = OutputMetadata.read(cacheDir);
 
         if (file.exists()) {
             if (file.isFile() && cacheFile.exists()) {
-                if (Hashing.hashFile(file).equals(Hashing.hashFile(cacheFile))) {
+                if (metadata.matches(file, cacheFile, 1)) {
+                    metadata.write();
                     return false;
                 }
             }
@@ -59,13 +63,16 @@ public class FileCache implements ICache {
             } catch (IOException e) {
                 throw new GradleException("Failed to restore cache. Copying of the cache file failed.", e);
             }
+
+            metadata.record(file);
+            metadata.write();
         }
 
         return true;
     }
 
     @Override
-    public FileBasedLock createLock(CacheLogger logger) {
-        return LockManager.createLock(cacheDir, logger);
+    public FileBasedLock createLock(LockManager.LockType lockType, CacheLogger logger) {
+        return LockManager.createLock(cacheDir, lockType, logger);
     }
 }
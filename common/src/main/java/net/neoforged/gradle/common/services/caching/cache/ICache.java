@@ -1,6 +1,7 @@
 package net.neoforged.gradle.common.services.caching.cache;
 
 import net.neoforged.gradle.common.services.caching.locking.FileBasedLock;
+import net.neoforged.gradle.common.services.caching.locking.LockManager;
 import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
 
 import java.io.File;
@@ -29,7 +30,9 @@ public interface ICache {
     /**
      * Creates a lock for the cache.
      *
+     * @param lockType The locking mechanism to use.
+     * @param logger The logger to use.
      * @return The lock for the cache.
      */
-    FileBasedLock createLock(CacheLogger logger);
+    FileBasedLock createLock(LockManager.LockType lockType, CacheLogger logger);
 }
@@ -0,0 +1,258 @@
+package net.neoforged.gradle.common.services.caching.cache;
+
+import net.neoforged.gradle.common.util.hash.HashCode;
+import net.neoforged.gradle.common.util.hash.Hasher;
+import net.neoforged.gradle.common.util.hash.Hashing;
+import net.neoforged.gradle.util.FileUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The metadata of the output stored in a {@link DirectoryCache} or {@link FileCache} entry.
+ * <p>
+ * Records the digest of the stored output, and a fingerprint of every workspace output the entry was restored to.
+ * A fingerprint only covers the paths, sizes, modification times and file keys of the files, so it is computed without
+ * reading their content. As long as the fingerprint of a workspace output matches, the workspace output is unchanged
+ * since it was compared or restored, and nothing needs to be hashed or copied.
+ * <p>
+ * The metadata is stored as a simple text file, the first line contains the digest of the output ({@code -} if it is not known),
+ * every following line contains the fingerprint of a workspace output ({@code W <fingerprint> <absolute path>}).
+ */
+final class OutputMetadata {
+
+    static final String FILE_NAME = "metadata";
+
+    private static final String UNKNOWN_DIGEST = "-";
+    private static final String WORKSPACE_PREFIX = "W ";
+    private static final long RECENT_MODIFICATION_WINDOW = TimeUnit.SECONDS.toNanos(2);
+
+    private final File file;
+    private final Map<String, String> fingerprints;
+
+    @Nullable
+    private HashCode digest;
+    private boolean dirty = false;
+
+    private OutputMetadata(File file, @Nullable HashCode digest, Map<String, String> fingerprints) {
+        this.file = file;
+        this.digest = digest;
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * Reads the metadata of the given cache entry.
+     * Entries without metadata, for example those stored by older versions, or with broken metadata, get empty metadata.
+     *
+     * @param cacheDir The directory of the cache entry.
+     * @return The metadata.
+     */
+    static OutputMetadata read(File cacheDir) {
+        final File file = new File(cacheDir, FILE_NAME);
+        final Map<String, String> fingerprints = new LinkedHashMap<>();
+        if (!file.exists()) {
+            return new OutputMetadata(file, null, fingerprints);
+        }
+
+        try {
+            final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            if (lines.isEmpty()) {
+                return new OutputMetadata(file, null, fingerprints);
+            }
+
+            for (String line : lines.subList(1, lines.size())) {
+                final String[] parts = line.split(" ", 3);
+                if (parts.length == 3 && line.startsWith(WORKSPACE_PREFIX)) {
+                    fingerprints.put(parts[2], parts[1]);
+                }
+            }
+
+            final HashCode digest = lines.get(0).equals(UNKNOWN_DIGEST) ? null : HashCode.fromString(lines.get(0));
+            return new OutputMetadata(file, digest, fingerprints);
+        } catch (IOException | IllegalArgumentException e) {
+            //Broken metadata only costs us a comparison by content.
+            return new OutputMetadata(file, null, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Creates the metadata of a newly stored output.
+     *
+     * @param cacheDir The directory of the cache entry.
+     * @param output The stored output.
+     * @param hashingParallelism The amount of threads to hash the output with.
+     * @return The metadata.
+     * @throws IOException If the output could not be hashed.
+     */
+    static OutputMetadata create(File cacheDir, File output, int hashingParallelism) throws IOException {
+        final OutputMetadata metadata = new OutputMetadata(new File(cacheDir, FILE_NAME), null, new LinkedHashMap<>());
+        metadata.digest = output.exists() ? digestOf(output, hashingParallelism) : null;
+        metadata.dirty = true;
+        return metadata;
+    }
+
+    /**
+     * Creates the metadata of a newly stored output, whose digest is not tracked.
+     * This is used by caches which verify the content of their outputs themselves, like the {@link ContentAddressedCache}.
+     *
+     * @param cacheDir The directory of the cache entry.
+     * @return The metadata.
+     */
+    static OutputMetadata create(File cacheDir) {
+        final OutputMetadata metadata = new OutputMetadata(new File(cacheDir, FILE_NAME), null, new LinkedHashMap<>());
+        metadata.dirty = true;
+        return metadata;
+    }
+
+    /**
+     * Determines whether the given workspace output is unchanged since its fingerprint was recorded.
+     *
+     * @param workspaceOutput The workspace output.
+     * @return True if a fingerprint was recorded for the workspace output, and it still matches.
+     * @throws IOException If the fingerprint could not be computed.
+     */
+    boolean isUnchanged(File workspaceOutput) throws IOException {
+        final String fingerprint = fingerprintOf(workspaceOutput);
+        return fingerprint != null && fingerprint.equals(fingerprints.get(workspaceOutput.getAbsolutePath()));
+    }
+
+    /**
+     * Determines whether the given workspace output has the same content as the stored output.
+     * Workspace outputs with a recorded fingerprint are compared by their metadata only, all others by content.
+     * When the content matches, the fingerprint of the workspace output is recorded.
+     *
+     * @param workspaceOutput The workspace output.
+     * @param storedOutput The stored output.
+     * @param hashingParallelism The amount of threads to hash with, if the outputs need to be compared by content.
+     * @return True if the workspace output has the same content as the stored output.
+     * @throws IOException If the outputs could not be hashed.
+     */
+    boolean matches(File workspaceOutput, File storedOutput, int hashingParallelism) throws IOException {
+        final String key = workspaceOutput.getAbsolutePath();
+        final String fingerprint = fingerprintOf(workspaceOutput);
+        if (fingerprint != null && fingerprint.equals(fingerprints.get(key))) {
+            return true;
+        }
+
+        if (digest == null) {
+            //Entries stored by older versions have no digest yet, compute it once.
+            digest = digestOf(storedOutput, hashingParallelism);
+            dirty = true;
+        }
+
+        if (!digest.equals(digestOf(workspaceOutput, hashingParallelism))) {
+            return false;
+        }
+
+        record(workspaceOutput, fingerprint);
+        return true;
+    }
+
+    /**
+     * Records the fingerprint of the given workspace output, which has the same content as the stored output.
+     *
+     * @param workspaceOutput The workspace output.
+     * @throws IOException If the fingerprint could not be computed.
+     */
+    void record(File workspaceOutput) throws IOException {
+        record(workspaceOutput, fingerprintOf(workspaceOutput));
+    }
+
+    private void record(File workspaceOutput, @Nullable String fingerprint) {
+        final String key = workspaceOutput.getAbsolutePath();
+        if (fingerprint == null) {
+            dirty |= fingerprints.remove(key) != null;
+        } else {
+            dirty |= !fingerprint.equals(fingerprints.put(key, fingerprint));
+        }
+    }
+
+    /**
+     * Atomically writes the metadata, if it changed.
+     * Fingerprints of workspace outputs which no longer exist are dropped.
+     *
+     * @throws IOException If the metadata could not be written.
+     */
+    void write() throws IOException {
+        dirty |= fingerprints.keySet().removeIf(path -> !new File(path).exists());
+        if (!dirty) {
+            return;
+        }
+
+        final List<String> lines = new ArrayList<>();
+        lines.add(digest == null ? UNKNOWN_DIGEST : digest.toString());
+        fingerprints.forEach((path, fingerprint) -> lines.add(WORKSPACE_PREFIX + fingerprint + " " + path));
+
+        file.getParentFile().mkdirs();
+        final Path temporary = FileUtils.temporaryPath(file.getParentFile().toPath(), FILE_NAME);
+        Files.write(temporary, lines, StandardCharsets.UTF_8);
+        FileUtils.atomicMove(temporary, file.toPath());
+        dirty = false;
+    }
+
+    /**
+     * Computes the digest of the content of the given file or directory.
+     * The digest of a directory does not depend on its name, so outputs in differently named workspace directories can be compared.
+     */
+    private static HashCode digestOf(File output, int hashingParallelism) throws IOException {
+        return output.isDirectory() ? Hashing.hashDirectory(output, hashingParallelism) : Hashing.hashFile(output);
+    }
+
+    /**
+     * Computes the fingerprint of the given file or directory from the metadata of its files.
+     *
+     * @return The fingerprint, or null if the output does not exist or was modified too recently to be reliable.
+     */
+    @Nullable
+    private static String fingerprintOf(File output) throws IOException {
+        if (!output.exists()) {
+            return null;
+        }
+
+        final Path root = output.toPath();
+        final List<Path> paths;
+        try (Stream<Path> stream = Files.walk(root)) {
+            paths = stream.sorted().collect(Collectors.toList());
+        }
+
+        final long now = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        final Hasher hasher = Hashing.sha256().newHasher();
+        for (Path path : paths) {
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            hasher.putString(relativePath(root, path));
+            hasher.putBoolean(attributes.isDirectory());
+            if (attributes.isDirectory()) {
+                continue;
+            }
+
+            final long lastModified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+            if (now - lastModified < RECENT_MODIFICATION_WINDOW) {
+                //A further modification within the resolution of the file system clock would go unnoticed.
+                return null;
+            }
+
+            hasher.putLong(attributes.size());
+            hasher.putLong(lastModified);
+            hasher.putString(Objects.toString(attributes.fileKey(), ""));
+        }
+
+        return hasher.hash().toString();
+    }
+
+    private static String relativePath(Path root, Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+}
@@ -0,0 +1,58 @@
+package net.neoforged.gradle.common.services.caching.eviction;
+
+import net.neoforged.gradle.common.services.caching.cache.ContentManifest;
+import net.neoforged.gradle.common.services.caching.locking.IOControlledFileBasedLock;
+import net.neoforged.gradle.common.services.caching.locking.LockManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+/**
+ * Represents a single entry of the cache directory, as seen by the eviction engine.
+ *
+ * @param directory The directory of the entry.
+ * @param lastAccess The last time the entry was accessed, in milliseconds since the epoch.
+ * @param size The size of the entry in bytes, for content addressed entries this is the size of the referenced content.
+ * @param healthy True if the entry was completed successfully.
+ */
+public record CacheEntry(File directory, long lastAccess, long size, boolean healthy) {
+
+    /**
+     * Reads the entry information from the given cache entry directory.
+     * The access time is taken from the lock file, which is touched on every successful use of the entry.
+     *
+     * @param directory The directory of the entry.
+     * @return The entry.
+     * @throws IOException If the size of the entry could not be determined.
+     */
+    public static CacheEntry of(File directory) throws IOException {
+        final File lockFile = new File(directory, LockManager.LOCK_FILE_NAME);
+        final long lastAccess = lockFile.exists() ? lockFile.lastModified() : directory.lastModified();
+        final boolean healthy = new File(directory, IOControlledFileBasedLock.HEALTHY_FILE_NAME).exists();
+
+        final File manifest = new File(directory, ContentManifest.FILE_NAME);
+        final long size = manifest.exists() ? ContentManifest.read(manifest).totalSize() : sizeOf(directory.toPath());
+
+        return new CacheEntry(directory, lastAccess, size, healthy);
+    }
+
+    private static long sizeOf(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .mapToLong(path -> {
+                        try {
+                            return Files.size(path);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .sum();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
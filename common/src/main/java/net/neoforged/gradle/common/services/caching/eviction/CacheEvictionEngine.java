@@ -0,0 +1,251 @@
+package net.neoforged.gradle.common.services.caching.eviction;
+
+import net.neoforged.gradle.common.services.caching.cache.BlobStore;
+import net.neoforged.gradle.common.services.caching.cache.ContentManifest;
+import net.neoforged.gradle.common.services.caching.cache.DecompiledSourceCache;
+import net.neoforged.gradle.common.services.caching.locking.ChannelBasedFileLock;
+import net.neoforged.gradle.common.services.caching.locking.IOControlledFileBasedLock;
+import net.neoforged.gradle.common.services.caching.locking.LockManager;
+import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Evicts the least recently used entries from the cache directory, until both the entry count and the
+ * total size of the cache are within their configured limits.
+ * <p>
+ * The access time of an entry is the modification time of its lock file, which is updated every time the entry is used.
+ * Entries which are currently locked by another thread or process are never removed, they are skipped instead.
+ * Only a single eviction can run at the same time on a given cache directory, concurrent runs are skipped.
+ * <p>
+ * When the cache contains a {@link BlobStore}, blobs which are no longer referenced by any entry are removed afterwards.
+ * The {@link DecompiledSourceCache} is not an entry, it removes its unused sources itself.
+ */
+public final class CacheEvictionEngine {
+
+    public static final String EVICTION_LOCK_FILE_NAME = "eviction.lock";
+    public static final String LAST_EVICTION_FILE_NAME = "eviction.last";
+
+    /**
+     * The minimal age of an unreferenced blob before it is removed, protects blobs of entries which are being stored.
+     */
+    private static final Duration BLOB_GRACE_PERIOD = Duration.ofHours(1);
+
+    private final File cacheDirectory;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LockManager.LockType lockType;
+    private final CacheLogger logger;
+
+    /**
+     * Creates a new eviction engine.
+     *
+     * @param cacheDirectory The cache directory to evict entries from.
+     * @param maxEntries The maximum amount of entries to keep, zero or less means unlimited.
+     * @param maxBytes The maximum size of the cache in bytes, zero or less means unlimited.
+     * @param lockType The locking mechanism used by the cache entries.
+     * @param logger The logger to use.
+     */
+    public CacheEvictionEngine(File cacheDirectory, int maxEntries, long maxBytes, LockManager.LockType lockType, CacheLogger logger) {
+        this.cacheDirectory = cacheDirectory;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.lockType = lockType;
+        this.logger = logger;
+    }
+
+    /**
+     * Runs the eviction if the last eviction on this cache directory is longer ago than the given interval.
+     *
+     * @param interval The minimal interval between two evictions.
+     * @return The result of the eviction.
+     * @throws IOException If an error occurs while evicting.
+     */
+    public EvictionResult evictIfDue(Duration interval) throws IOException {
+        final File lastEviction = new File(cacheDirectory, LAST_EVICTION_FILE_NAME);
+        if (lastEviction.exists() && System.currentTimeMillis() - lastEviction.lastModified() < interval.toMillis()) {
+            logger.debug("Skipping cache eviction, last eviction was less than %s ago.".formatted(interval));
+            return EvictionResult.skipped();
+        }
+
+        return evict();
+    }
+
+    /**
+     * Runs the eviction.
+     *
+     * @return The result of the eviction.
+     * @throws IOException If an error occurs while evicting.
+     */
+    public EvictionResult evict() throws IOException {
+        if (!cacheDirectory.isDirectory()) {
+            return EvictionResult.skipped();
+        }
+
+        final File lockFile = new File(cacheDirectory, EVICTION_LOCK_FILE_NAME);
+        try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            final FileLock lock = tryLock(channel);
+            if (lock == null) {
+                logger.debug("Skipping cache eviction, another eviction is running on: %s".formatted(cacheDirectory.getAbsolutePath()));
+                return EvictionResult.skipped();
+            }
+
+            try (lock) {
+                final EvictionResult result = evictLocked();
+                FileUtils.touch(new File(cacheDirectory, LAST_EVICTION_FILE_NAME));
+
+                if (result.evictedEntries() > 0) {
+                    logger.lifecycle(result.toString());
+                } else {
+                    logger.debug(result.toString());
+                }
+
+                return result;
+            }
+        }
+    }
+
+    private EvictionResult evictLocked() throws IOException {
+        final List<CacheEntry> entries = new ArrayList<>();
+        for (File directory : Objects.requireNonNull(cacheDirectory.listFiles(File::isDirectory))) {
+            if (!directory.getName().equals(BlobStore.DIRECTORY_NAME) && !directory.getName().equals(DecompiledSourceCache.DIRECTORY_NAME) && !isRemains(directory)) {
+                entries.add(CacheEntry.of(directory));
+            }
+        }
+
+        //Failed entries go first, then the least recently used ones.
+        entries.sort(Comparator.comparing(CacheEntry::healthy).thenComparingLong(CacheEntry::lastAccess));
+
+        int remainingEntries = entries.size();
+        long remainingBytes = entries.stream().mapToLong(CacheEntry::size).sum();
+        int evictedEntries = 0;
+        long reclaimedBytes = 0;
+        int skippedEntries = 0;
+        final List<CacheEntry> remaining = new ArrayList<>(entries);
+
+        for (CacheEntry entry : entries) {
+            if (!exceedsLimits(remainingEntries, remainingBytes)) {
+                break;
+            }
+
+            if (!delete(entry)) {
+                skippedEntries++;
+                continue;
+            }
+
+            remainingEntries--;
+            remainingBytes -= entry.size();
+            evictedEntries++;
+            reclaimedBytes += entry.size();
+            remaining.remove(entry);
+        }
+
+        collectBlobs(remaining);
+
+        return new EvictionResult(evictedEntries, reclaimedBytes, remainingEntries, remainingBytes, skippedEntries);
+    }
+
+    /**
+     * Removes all blobs which are not referenced by the manifest of any remaining entry.
+     */
+    private void collectBlobs(List<CacheEntry> remaining) throws IOException {
+        final BlobStore blobStore = new BlobStore(new File(cacheDirectory, BlobStore.DIRECTORY_NAME));
+        if (!blobStore.root().isDirectory()) {
+            return;
+        }
+
+        final Set<String> referenced = new HashSet<>();
+        for (CacheEntry entry : remaining) {
+            final File manifest = new File(entry.directory(), ContentManifest.FILE_NAME);
+            if (manifest.exists()) {
+                ContentManifest.read(manifest).files().values().forEach(blob -> referenced.add(blob.digest()));
+            }
+        }
+
+        final long removed = blobStore.collectGarbage(referenced, BLOB_GRACE_PERIOD);
+        if (removed > 0) {
+            logger.lifecycle("Removed unreferenced cache blobs, reclaiming %s.".formatted(EvictionResult.formatBytes(removed)));
+        }
+    }
+
+    private boolean exceedsLimits(int entries, long bytes) {
+        return (maxEntries > 0 && entries > maxEntries) || (maxBytes > 0 && bytes > maxBytes);
+    }
+
+    /**
+     * Deletes the given entry, if it is not in use.
+     * The healthy marker is removed first, so that a partially deleted entry is never considered a valid cache entry.
+     *
+     * @param entry The entry to delete.
+     * @return True if the entry was deleted, false if it is in use.
+     */
+    private boolean delete(CacheEntry entry) throws IOException {
+        final File lockFile = new File(entry.directory(), LockManager.LOCK_FILE_NAME);
+        final Optional<? extends AutoCloseable> lock = LockManager.tryLock(entry.directory(), lockType, logger);
+        if (lock.isEmpty()) {
+            logger.debug("Cache entry is in use, skipping eviction: %s".formatted(entry.directory().getAbsolutePath()));
+            return false;
+        }
+
+        try (AutoCloseable held = lock.get()) {
+            logger.debug("Evicting cache entry: %s".formatted(entry.directory().getAbsolutePath()));
+            FileUtils.deleteQuietly(new File(entry.directory(), IOControlledFileBasedLock.HEALTHY_FILE_NAME));
+            for (File file : Objects.requireNonNull(entry.directory().listFiles())) {
+                if (!file.getName().equals(LockManager.LOCK_FILE_NAME)) {
+                    FileUtils.forceDelete(file);
+                }
+            }
+
+            //Channel based locks which wait for this entry notice that their lock file was removed, and lock the new one.
+            //So the remains can be removed while we still hold the lock. Pid based locks truncate the lock file when they
+            //are released, which could clear the pid of the next owner, so their remains are left in place instead.
+            if (held instanceof ChannelBasedFileLock) {
+                try {
+                    Files.deleteIfExists(lockFile.toPath());
+                    Files.deleteIfExists(entry.directory().toPath());
+                } catch (IOException e) {
+                    logger.debug("Failed to remove remains of evicted cache entry: %s".formatted(entry.directory().getAbsolutePath()), e);
+                }
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to release the lock of cache entry: %s".formatted(entry.directory().getAbsolutePath()), e);
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether the given directory only contains the remains of an evicted entry, which is its empty lock file.
+     * Remains take no space, and are reused when the entry is created again, so they are not considered entries.
+     */
+    private static boolean isRemains(File directory) {
+        final File[] files = Objects.requireNonNull(directory.listFiles());
+        return files.length == 1 && files[0].getName().equals(LockManager.LOCK_FILE_NAME) && files[0].length() == 0;
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            //Another thread of this process is evicting.
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package net.neoforged.gradle.common.services.caching.eviction;
+
+/**
+ * The result of an eviction run.
+ *
+ * @param evictedEntries The amount of entries that were removed.
+ * @param reclaimedBytes The amount of bytes that were freed.
+ * @param remainingEntries The amount of entries that are still in the cache.
+ * @param remainingBytes The amount of bytes still used by the cache.
+ * @param skippedEntries The amount of entries that should have been removed, but were in use.
+ */
+public record EvictionResult(int evictedEntries, long reclaimedBytes, int remainingEntries, long remainingBytes, int skippedEntries) {
+
+    /**
+     * @return An eviction result indicating that the eviction did not run.
+     */
+    public static EvictionResult skipped() {
+        return new EvictionResult(0, 0, 0, 0, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "Evicted %d cache entries, reclaiming %s. %d entries (%s) remain, %d entries were in use and skipped.".formatted(
+                evictedEntries,
+                formatBytes(reclaimedBytes),
+                remainingEntries,
+                formatBytes(remainingBytes),
+                skippedEntries
+        );
+    }
+
+    static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+
+        final int exponent = (int) (Math.log(bytes) / Math.log(1024));
+        return "%.1f %sB".formatted(bytes / Math.pow(1024, exponent), "KMGTPE".charAt(exponent - 1));
+    }
+}
@@ -0,0 +1,192 @@
+package net.neoforged.gradle.common.services.caching.hasher;
+
+import net.neoforged.gradle.common.util.hash.HashCode;
+import net.neoforged.gradle.common.util.hash.HashFunction;
+import net.neoforged.gradle.util.FileUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A persistent index of file digests, keyed by the absolute path of the file.
+ * <p>
+ * Every indexed digest is stored together with the size, modification time and file key (the inode on unix systems)
+ * of the file at the time it was hashed. As long as all of these are unchanged, the stored digest is returned instead of
+ * reading the file again. Files which were modified very recently are hashed but not indexed, because a further
+ * modification within the resolution of the file system clock would go unnoticed.
+ * <p>
+ * The index is kept in memory for the lifetime of the daemon, one instance per cache directory and hash function,
+ * and written to the cache directory by {@link #saveAll()}.
+ */
+public final class FileHashIndex {
+
+    public static final String FILE_NAME_PREFIX = "file-hashes-";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final long RECENT_MODIFICATION_WINDOW = TimeUnit.SECONDS.toNanos(2);
+
+    private static final Map<File, FileHashIndex> INDICES = new ConcurrentHashMap<>();
+
+    private record Entry(long size, long lastModified, String fileKey, HashCode hash) {
+
+        private boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size()
+                    && lastModified == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+                    && fileKey.equals(fileKeyOf(attributes));
+        }
+    }
+
+    private final File indexFile;
+    private final HashFunction hashFunction;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded = false;
+    private volatile boolean dirty = false;
+
+    private FileHashIndex(File indexFile, HashFunction hashFunction) {
+        this.indexFile = indexFile;
+        this.hashFunction = hashFunction;
+    }
+
+    /**
+     * Gets the index for the given cache directory and hash function.
+     *
+     * @param cacheDirectory The cache directory to store the index in.
+     * @param hashFunction The hash function of the indexed digests.
+     * @return The index.
+     */
+    public static FileHashIndex of(File cacheDirectory, HashFunction hashFunction) {
+        final File indexFile = new File(cacheDirectory, FILE_NAME_PREFIX + hashFunction.getAlgorithm().toLowerCase(Locale.ROOT) + ".bin");
+        return INDICES.computeIfAbsent(indexFile, file -> new FileHashIndex(file, hashFunction));
+    }
+
+    /**
+     * Writes all indices which were changed since they were loaded.
+     *
+     * @throws IOException If an index could not be written.
+     */
+    public static void saveAll() throws IOException {
+        for (FileHashIndex index : INDICES.values()) {
+            index.save();
+        }
+    }
+
+    /**
+     * Hashes the given file, using the indexed digest if the file did not change since it was indexed.
+     *
+     * @param file The file to hash.
+     * @return The digest of the file.
+     * @throws IOException If the file could not be read.
+     */
+    public HashCode hash(File file) throws IOException {
+        final Path path = file.toPath();
+        if (!Files.isRegularFile(path)) {
+            return hashFunction.hashFile(file);
+        }
+
+        load();
+
+        final String key = file.getAbsolutePath();
+        final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        final Entry entry = entries.get(key);
+        if (entry != null && entry.matches(attributes)) {
+            return entry.hash();
+        }
+
+        final HashCode hash = hashFunction.hashFile(file);
+
+        //Re-read the attributes, so that a modification while hashing is never indexed with the old digest.
+        final BasicFileAttributes hashedAttributes = Files.readAttributes(path, BasicFileAttributes.class);
+        final long lastModified = hashedAttributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        final boolean recentlyModified = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - lastModified < RECENT_MODIFICATION_WINDOW;
+        if (hashedAttributes.lastModifiedTime().equals(attributes.lastModifiedTime()) && !recentlyModified) {
+            entries.put(key, new Entry(hashedAttributes.size(), lastModified, fileKeyOf(hashedAttributes), hash));
+            dirty = true;
+        } else {
+            entries.remove(key);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Writes the index to disk, if it was changed since it was loaded.
+     * Entries of files which no longer exist are dropped.
+     *
+     * @throws IOException If the index could not be written.
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+
+        entries.keySet().removeIf(path -> !new File(path).isFile());
+        dirty = false;
+
+        //Hashing continues while we write, so write a consistent snapshot.
+        final Map<String, Entry> snapshot = new HashMap<>(entries);
+
+        indexFile.getParentFile().mkdirs();
+        final Path temporary = FileUtils.temporaryPath(indexFile.getParentFile().toPath(), indexFile.getName());
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(hashFunction.getAlgorithm());
+            output.writeInt(snapshot.size());
+            for (Map.Entry<String, Entry> entry : snapshot.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeLong(entry.getValue().size());
+                output.writeLong(entry.getValue().lastModified());
+                output.writeUTF(entry.getValue().fileKey());
+                output.writeUTF(entry.getValue().hash().toString());
+            }
+        }
+
+        FileUtils.atomicMove(temporary, indexFile.toPath());
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+
+            if (indexFile.exists()) {
+                try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile.toPath())))) {
+                    if (input.readInt() == FORMAT_VERSION && input.readUTF().equals(hashFunction.getAlgorithm())) {
+                        final int count = input.readInt();
+                        for (int i = 0; i < count; i++) {
+                            final String path = input.readUTF();
+                            entries.putIfAbsent(path, new Entry(input.readLong(), input.readLong(), input.readUTF(), HashCode.fromString(input.readUTF())));
+                        }
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    //A broken index only costs us the rehashing, start over.
+                    entries.clear();
+                }
+            }
+
+            loaded = true;
+        }
+    }
+
+    private static String fileKeyOf(BasicFileAttributes attributes) {
+        return Objects.toString(attributes.fileKey(), "");
+    }
+}
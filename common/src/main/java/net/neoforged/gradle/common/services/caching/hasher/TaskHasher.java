@@ -5,6 +5,7 @@ import net.neoforged.gradle.common.util.hash.HashCode;
 import net.neoforged.gradle.common.util.hash.HashFunction;
 import net.neoforged.gradle.common.util.hash.Hasher;
 import net.neoforged.gradle.common.util.hash.Hashing;
+import net.neoforged.gradle.common.util.hash.ParallelHashing;
 import org.gradle.api.Task;
 import org.gradle.api.tasks.TaskInputs;
 
@@ -21,10 +22,14 @@ public final class TaskHasher {
 
     private final Task task;
     private final CacheLogger logger;
+    private final FileHashIndex fileHashes;
+    private final int parallelism;
 
-    public TaskHasher(Task task, CacheLogger logger) {
+    public TaskHasher(Task task, CacheLogger logger, File cacheDirectory, int parallelism) {
         this.task = task;
         this.logger = logger;
+        this.fileHashes = FileHashIndex.of(cacheDirectory, hashFunction);
+        this.parallelism = parallelism;
     }
 
     public void hash() throws IOException {
@@ -57,10 +62,13 @@ public final class TaskHasher {
         final List<File> files = new ArrayList<>(inputFiles);
         files.sort(Comparator.comparing(File::getAbsolutePath));
 
-        for (File file : files) {
+        //The files are hashed in parallel, but combined in their sorted order, so the result does not depend on the parallelism.
+        final List<HashCode> codes = ParallelHashing.hashFiles(files, fileHashes::hash, parallelism);
+        for (int i = 0; i < files.size(); i++) {
+            final File file = files.get(i);
             logger.debug("Hashing task input file: " + file.getAbsolutePath());
             hasher.putString(file.getName());
-            final HashCode code = hashFunction.hashFile(file);
+            final HashCode code = codes.get(i);
             logger.debug("Hashing task input file hash: " + code);
             hasher.putHash(code);
         }
@@ -0,0 +1,269 @@
+package net.neoforged.gradle.common.services.caching.locking;
+
+import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A lock on a file, which uses the locking mechanism of the operating system to exclude other processes.
+ * <p>
+ * Threads of the current process wait on a fair in-process lock, and are woken up as soon as the holder releases it.
+ * Other processes wait in the operating system until the file lock is released, there is no polling involved.
+ * The operating system releases the file lock when the holding process dies, so stale locks can not occur.
+ * <p>
+ * The pid of the holder is written to the lock file, exactly like {@link PIDBasedFileLock} does. Both implementations
+ * therefore exclude each other: a lock file which contains the pid of another running process is considered held,
+ * in that case the file is polled, as that process does not take the file lock.
+ */
+public final class ChannelBasedFileLock implements AutoCloseable {
+
+    private static final Map<String, ProcessLock> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * The interval in which a lock file held by a process using {@link PIDBasedFileLock} is checked again.
+     */
+    private static final long PID_OWNER_POLL_INTERVAL = 500;
+
+    /**
+     * The in-process state of a lock file, shared by all threads of this process which lock the same file.
+     */
+    private static final class ProcessLock {
+        private final ReentrantLock lock = new ReentrantLock(true);
+
+        //Guarded by the compute functions of PROCESS_LOCKS
+        private int references = 0;
+
+        //Guarded by the lock
+        private FileChannel channel;
+    }
+
+    private final File lockFile;
+    private final CacheLogger logger;
+    private final String key;
+    private final ProcessLock processLock;
+
+    private boolean released = false;
+
+    /**
+     * Creates a new lock, and waits until it is acquired.
+     *
+     * @param lockFile The lock file to acquire.
+     * @param logger The logger to use.
+     * @throws IOException If the file could not be locked, for example because the file system does not support file locks.
+     */
+    public ChannelBasedFileLock(File lockFile, CacheLogger logger) throws IOException {
+        this(lockFile, logger, true);
+    }
+
+    private ChannelBasedFileLock(File lockFile, CacheLogger logger, boolean acquire) throws IOException {
+        this.lockFile = lockFile;
+        this.logger = logger;
+        this.key = lockFile.getAbsolutePath();
+        this.processLock = PROCESS_LOCKS.compute(key, (path, existing) -> {
+            final ProcessLock processLock = existing == null ? new ProcessLock() : existing;
+            processLock.references++;
+            return processLock;
+        });
+
+        if (acquire && !acquire(true)) {
+            throw new IllegalStateException("Blocking acquisition of lock file returned without the lock: " + key);
+        }
+    }
+
+    /**
+     * Attempts to acquire the lock on the given file without waiting.
+     * Used by maintenance operations, like cache eviction, which should skip entries that are currently in use.
+     *
+     * @param lockFile The lock file to acquire.
+     * @param logger The logger to use.
+     * @return The acquired lock, or an empty optional if the lock is held by another thread or process.
+     * @throws IOException If the file could not be locked, for example because the file system does not support file locks.
+     */
+    public static Optional<ChannelBasedFileLock> tryLock(File lockFile, CacheLogger logger) throws IOException {
+        final ChannelBasedFileLock lock = new ChannelBasedFileLock(lockFile, logger, false);
+        if (lock.acquire(false)) {
+            return Optional.of(lock);
+        }
+
+        return Optional.empty();
+    }
+
+    private boolean acquire(boolean blocking) throws IOException {
+        logger.debug("Attempting to acquire lock on file: " + key);
+        boolean acquired = false;
+        try {
+            if (blocking) {
+                processLock.lock.lock();
+            } else if (processLock.lock.isLocked() || !processLock.lock.tryLock()) {
+                //When any thread of this process holds the lock, including the current one, the file is in use.
+                logger.debug("Lock file is held by another thread of this process: " + key);
+                return false;
+            }
+
+            if (processLock.lock.getHoldCount() > 1) {
+                //The current thread already holds the file lock.
+                acquired = true;
+            } else {
+                acquired = lockChannel(blocking);
+            }
+
+            if (!acquired) {
+                processLock.lock.unlock();
+            }
+
+            return acquired;
+        } catch (IOException | RuntimeException e) {
+            if (processLock.lock.isHeldByCurrentThread()) {
+                processLock.lock.unlock();
+            }
+            throw e;
+        } finally {
+            if (acquired) {
+                logger.debug("Lock acquired on file: " + key);
+            } else {
+                release();
+            }
+        }
+    }
+
+    private boolean lockChannel(boolean blocking) throws IOException {
+        final Path path = lockFile.toPath();
+        final long pid = ProcessHandle.current().pid();
+        while (true) {
+            Files.createDirectories(path.getParent());
+            final FileChannel channel;
+            try {
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (NoSuchFileException e) {
+                //The directory was removed, for example by cache eviction, after we created it.
+                logger.debug("Lock file directory was removed while opening the lock file: " + key);
+                continue;
+            }
+            boolean locked = false;
+            try {
+                final Object identity = identityOf(path);
+                final FileLock fileLock = blocking ? channel.lock() : channel.tryLock();
+                if (fileLock == null) {
+                    logger.debug("Lock file is held by another process: " + key);
+                    return false;
+                }
+
+                if (identity == null || !identity.equals(identityOf(path))) {
+                    //The lock file was removed, for example by cache eviction, while we were waiting for it.
+                    logger.debug("Lock file was replaced while waiting for it: " + key);
+                    continue;
+                }
+
+                final long owner = readOwner(channel);
+                if (owner != 0 && owner != pid) {
+                    if (ProcessHandle.of(owner).isPresent()) {
+                        //The owner uses pid based locking, which does not take the file lock.
+                        logger.debug("Lock file is owned by another process: " + key + " pid: " + owner);
+                        if (!blocking) {
+                            return false;
+                        }
+
+                        channel.close();
+                        sleep();
+                        continue;
+                    }
+
+                    logger.debug("Lock file is owned by a killed process: " + key + " taking over. Old pid: " + owner);
+                }
+
+                channel.truncate(0);
+                channel.write(ByteBuffer.wrap(String.valueOf(pid).getBytes(StandardCharsets.UTF_8)), 0);
+                processLock.channel = channel;
+                locked = true;
+                return true;
+            } finally {
+                if (!locked) {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    private void sleep() throws IOException {
+        try {
+            Thread.sleep(PID_OWNER_POLL_INTERVAL);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for lock on file: " + key);
+        }
+    }
+
+    private void release() {
+        if (released) {
+            return;
+        }
+
+        released = true;
+        PROCESS_LOCKS.computeIfPresent(key, (path, processLock) -> --processLock.references == 0 ? null : processLock);
+    }
+
+    @Override
+    public void close() throws Exception {
+        logger.debug("Releasing lock on file: " + key);
+        try {
+            if (processLock.lock.getHoldCount() == 1) {
+                //Closing the channel releases the file lock, clear the owner first so pid based locks can take over.
+                try (FileChannel channel = processLock.channel) {
+                    processLock.channel = null;
+                    channel.truncate(0);
+                }
+            }
+        } finally {
+            processLock.lock.unlock();
+            release();
+        }
+    }
+
+    private static long readOwner(FileChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(32);
+        channel.read(buffer, 0);
+        final String content = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).trim();
+        if (content.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            return Long.parseLong(content);
+        } catch (NumberFormatException e) {
+            //Not written by a lock, nobody owns it.
+            return 0;
+        }
+    }
+
+    /**
+     * Determines the identity of the file at the given path, to detect whether the file we locked is still the lock file.
+     *
+     * @param path The path of the file.
+     * @return The identity of the file, or null if the file does not exist.
+     */
+    private static Object identityOf(Path path) throws IOException {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            //Not all file systems provide a file key, existence is the best we can do there.
+            return Objects.requireNonNullElse(attributes.fileKey(), Boolean.TRUE);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
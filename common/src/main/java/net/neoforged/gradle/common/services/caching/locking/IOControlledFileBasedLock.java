@@ -11,14 +11,24 @@ public final class IOControlledFileBasedLock extends HealthFileUsingFileBasedLoc
     private final File lockFile;
     private final CacheLogger logger;
 
-    private final PIDBasedFileLock pidBasedFileLock;
+    private final AutoCloseable fileLock;
 
     public IOControlledFileBasedLock(File lockFile, CacheLogger logger) {
+        this(lockFile, logger, new PIDBasedFileLock(lockFile, logger));
+    }
+
+    /**
+     * Creates a new lock, which uses an already acquired lock on the lock file.
+     *
+     * @param lockFile The lock file.
+     * @param logger The logger to use.
+     * @param fileLock The acquired lock on the lock file, released when this lock is closed.
+     */
+    public IOControlledFileBasedLock(File lockFile, CacheLogger logger, AutoCloseable fileLock) {
         super(new File(lockFile.getParentFile(), HEALTHY_FILE_NAME));
         this.lockFile = lockFile;
         this.logger = logger;
-        
-        this.pidBasedFileLock = new PIDBasedFileLock(lockFile, logger);
+        this.fileLock = fileLock;
     }
 
     @Override
@@ -34,7 +44,7 @@ public final class IOControlledFileBasedLock extends HealthFileUsingFileBasedLoc
     public void close() throws Exception {
         //Close the super first, this ensures that the healthy file is created only if the lock was successful
         super.close();
-        this.pidBasedFileLock.close();
+        this.fileLock.close();
         logger.debug("Lock file closed: %s".formatted(lockFile.getAbsolutePath()));
     }
 }
@@ -3,14 +3,98 @@ package net.neoforged.gradle.common.services.caching.locking;
 import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.Locale;
+import java.util.Optional;
 
 public final class LockManager {
 
     public static final String LOCK_FILE_NAME = "lock";
 
-    public static FileBasedLock createLock(File target, CacheLogger logger) {
+    /**
+     * The mechanisms that can be used to lock a cache entry.
+     */
+    public enum LockType {
+        /**
+         * Locks the lock file with the operating system, falls back to {@link #PID} on file systems without file locks.
+         *
+         * @see ChannelBasedFileLock
+         */
+        CHANNEL,
+        /**
+         * Writes the pid of the holder to the lock file, and polls the file while it is held by another process.
+         *
+         * @see PIDBasedFileLock
+         */
+        PID;
+
+        /**
+         * Gets the lock type with the given name, case-insensitive.
+         *
+         * @param name The name of the lock type.
+         * @return The lock type.
+         */
+        public static LockType fromName(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private LockManager() {
+        throw new IllegalStateException("Can not instantiate an instance of: LockManager. This is a utility class");
+    }
+
+    /**
+     * Creates and acquires the lock of the given cache entry, waiting until it becomes available.
+     *
+     * @param target The directory of the cache entry.
+     * @param type The locking mechanism to use.
+     * @param logger The logger to use.
+     * @return The acquired lock.
+     */
+    public static FileBasedLock createLock(File target, LockType type, CacheLogger logger) {
         final File lockFile = new File(target, LOCK_FILE_NAME);
 
+        if (type == LockType.CHANNEL) {
+            try {
+                return new IOControlledFileBasedLock(lockFile, logger, new ChannelBasedFileLock(lockFile, logger));
+            } catch (IOException e) {
+                rethrowIfInterrupted(e);
+                logger.debug("Failed to lock file with the operating system, falling back to pid based locking: %s".formatted(lockFile.getAbsolutePath()), e);
+            }
+        }
+
         return new IOControlledFileBasedLock(lockFile, logger);
     }
+
+    /**
+     * Attempts to acquire the lock of the given cache entry without waiting.
+     *
+     * @param target The directory of the cache entry.
+     * @param type The locking mechanism to use.
+     * @param logger The logger to use.
+     * @return The acquired lock, or an empty optional if the entry is in use by another thread or process.
+     */
+    public static Optional<? extends AutoCloseable> tryLock(File target, LockType type, CacheLogger logger) {
+        final File lockFile = new File(target, LOCK_FILE_NAME);
+
+        if (type == LockType.CHANNEL) {
+            try {
+                return ChannelBasedFileLock.tryLock(lockFile, logger);
+            } catch (IOException e) {
+                rethrowIfInterrupted(e);
+                logger.debug("Failed to lock file with the operating system, falling back to pid based locking: %s".formatted(lockFile.getAbsolutePath()), e);
+            }
+        }
+
+        return PIDBasedFileLock.tryLock(lockFile, logger);
+    }
+
+    private static void rethrowIfInterrupted(IOException e) {
+        if (e instanceof ClosedByInterruptException || e instanceof InterruptedIOException) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -7,6 +7,7 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 public final class PIDBasedFileLock implements AutoCloseable {
@@ -16,15 +17,38 @@ public final class PIDBasedFileLock implements AutoCloseable {
     private final CacheLogger logger;
 
     public PIDBasedFileLock(File lockFile, CacheLogger logger) {
+        this(lockFile, logger, true);
+    }
+
+    private PIDBasedFileLock(File lockFile, CacheLogger logger, boolean acquire) {
         this.lockFile = lockFile;
         this.logger = logger;
 
-        this.lockFile();
+        if (acquire) {
+            this.lockFile();
+        }
+    }
+
+    /**
+     * Attempts to acquire the lock on the given file without waiting.
+     * Used by maintenance operations, like cache eviction, which should skip entries that are currently in use.
+     *
+     * @param lockFile The lock file to acquire.
+     * @param logger The logger to use.
+     * @return The acquired lock, or an empty optional if the lock is held by another thread or process.
+     */
+    public static Optional<PIDBasedFileLock> tryLock(File lockFile, CacheLogger logger) {
+        final PIDBasedFileLock lock = new PIDBasedFileLock(lockFile, logger, false);
+        if (lock.attemptFileLock(false)) {
+            return Optional.of(lock);
+        }
+
+        return Optional.empty();
     }
 
     private void lockFile() {
         logger.debug("Attempting to acquire lock on file: " + lockFile.getAbsolutePath());
-        while (!attemptFileLock()) {
+        while (!attemptFileLock(true)) {
             //We attempt a lock every 500ms
             try {
                 Thread.sleep(500);
@@ -35,14 +59,13 @@ public final class PIDBasedFileLock implements AutoCloseable {
         logger.debug("Lock acquired on file: " + lockFile.getAbsolutePath());
     }
 
-    private synchronized boolean attemptFileLock() {
+    private synchronized boolean attemptFileLock(boolean blocking) {
         try {
             if (!lockFile.exists()) {
                 //No lock file exists, create one
                 lockFile.getParentFile().mkdirs();
                 Files.write(lockFile.toPath(), String.valueOf(ProcessHandle.current().pid()).getBytes(), StandardOpenOption.CREATE_NEW);
-                lockFileForCurrentProcess();
-                return true;
+                return lockFileForCurrentProcess(blocking);
             }
 
             //Lock file exists, check if we are the owner
@@ -51,8 +74,7 @@ public final class PIDBasedFileLock implements AutoCloseable {
                 int pid = Integer.parseInt(s);
                 if (ProcessHandle.current().pid() == pid) {
                     logger.debug("Lock file is owned by current process: " + lockFile.getAbsolutePath() + " pid: " + pid);
-                    lockFileForCurrentProcess();
-                    return true;
+                    return lockFileForCurrentProcess(blocking);
                 }
 
                 //Check if the process is still running
@@ -60,8 +82,7 @@ public final class PIDBasedFileLock implements AutoCloseable {
                     //Process is not running, we can take over the lock
                     logger.debug("Lock file is owned by a killed process: " + lockFile.getAbsolutePath() + " taking over. Old pid: " + pid);
                     Files.write(lockFile.toPath(), String.valueOf(ProcessHandle.current().pid()).getBytes(), StandardOpenOption.TRUNCATE_EXISTING);
-                    lockFileForCurrentProcess();
-                    return true;
+                    return lockFileForCurrentProcess(blocking);
                 }
 
 
@@ -73,22 +94,29 @@ public final class PIDBasedFileLock implements AutoCloseable {
             //No pid found in lock file, we can take over the lock
             logger.debug("Lock file is empty: " + lockFile.getAbsolutePath());
             Files.write(lockFile.toPath(), String.valueOf(ProcessHandle.current().pid()).getBytes(), StandardOpenOption.TRUNCATE_EXISTING);
-            lockFileForCurrentProcess();
-            return true;
+            return lockFileForCurrentProcess(blocking);
         } catch (Exception e) {
             logger.debug("Failed to acquire lock on file: " + lockFile.getAbsolutePath() + " -  Failure message: " + e.getLocalizedMessage(), e);
             return false;
         }
     }
 
-    private void lockFileForCurrentProcess() {
+    private boolean lockFileForCurrentProcess(boolean blocking) {
         final OwnerAwareReentrantLock lock = FILE_LOCKS.computeIfAbsent(lockFile.getAbsolutePath(), s1 -> new OwnerAwareReentrantLock());
         if (lock.getOwner() != null) {
             logger.debug("Lock file is held by thread: " + lock.getOwner().getId() + " - " + lock.getOwner().getName() + " current thread: " + Thread.currentThread().getId() + " - " + Thread.currentThread().getName());
         } else {
             logger.debug("Lock file is not held by any thread");
         }
+
+        if (!blocking) {
+            //When any thread of this process holds the lock, including the current one, the entry is in use.
+            //The pid file already points to us in that case, so we can leave it untouched.
+            return !lock.isLocked() && lock.tryLock();
+        }
+
         lock.lock();
+        return true;
     }
 
     @Override
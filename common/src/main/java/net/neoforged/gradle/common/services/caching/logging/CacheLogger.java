@@ -2,47 +2,57 @@ package net.neoforged.gradle.common.services.caching.logging;
 
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
 import org.gradle.api.Task;
+import org.gradle.api.logging.Logger;
 
 public class CacheLogger {
-    
-    private final Task task;
+
+    private final Logger logger;
+    private final String owner;
     private final boolean debug;
     private final boolean cacheHits;
 
     public CacheLogger(Task task, boolean debug, boolean cacheHits) {
-        this.task = task;
+        this(task.getLogger(), task.getPath(), debug, cacheHits);
+    }
+
+    public CacheLogger(Logger logger, String owner, boolean debug, boolean cacheHits) {
+        this.logger = logger;
+        this.owner = owner;
         this.debug = debug;
         this.cacheHits = cacheHits;
     }
-    
+
     public void onCacheEquals(ICacheableJob<?,?> stage) {
         if (cacheHits) {
-            task.getLogger().lifecycle("Cache equal for task {} from {}", task.getPath(), stage.name());
+            logger.lifecycle("Cache equal for task {} from {}", owner, stage.name());
         }
     }
 
     public void onCacheHit(ICacheableJob<?,?> stage) {
         if (cacheHits) {
-            task.getLogger().lifecycle("Cache hit for task {} from {}", task.getPath(), stage.name());
+            logger.lifecycle("Cache hit for task {} from {}", owner, stage.name());
         }
     }
 
     public void onCacheMiss(ICacheableJob<?,?> stage) {
         if (cacheHits) {
-            task.getLogger().lifecycle("Cache miss for task {} from {}", task.getPath(), stage.name());
+            logger.lifecycle("Cache miss for task {} from {}", owner, stage.name());
         }
     }
 
+    public void lifecycle(String message) {
+        logger.lifecycle(message);
+    }
+
     public void debug(String message) {
         if (debug) {
-            task.getLogger().lifecycle(" > [" + System.currentTimeMillis() + "] (" + ProcessHandle.current().pid() + "): " + message);
+            logger.lifecycle(" > [" + System.currentTimeMillis() + "] (" + ProcessHandle.current().pid() + "): " + message);
         }
     }
 
     public void debug(String message, Exception e) {
         if (debug) {
-            task.getLogger().lifecycle(" > [" + System.currentTimeMillis() + "] (" + ProcessHandle.current().pid() + "): " + message, e);
+            logger.lifecycle(" > [" + System.currentTimeMillis() + "] (" + ProcessHandle.current().pid() + "): " + message, e);
         }
     }
 }
-
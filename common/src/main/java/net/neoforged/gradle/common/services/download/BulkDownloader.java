@@ -0,0 +1,279 @@
+package net.neoforged.gradle.common.services.download;
+
+import net.neoforged.gradle.util.FileUtils;
+import net.neoforged.gradle.util.HashFunction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * Downloads many files at once.
+ * <p>
+ * All downloads share a single {@link HttpClient}, which multiplexes the requests over a few HTTP/2 connections
+ * (or keeps HTTP/1.1 connections alive), instead of opening a new connection per file.
+ * The amount of concurrent downloads is bounded, failed downloads are retried with an exponential backoff.
+ * The SHA-1 digest of every file is computed while it is written, a file only replaces the target file once it is verified.
+ */
+public final class BulkDownloader implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(5);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(10);
+    private static final int MAX_REPORTED_FAILURES = 10;
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final HttpClient client;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new downloader.
+     *
+     * @param maxConcurrentDownloads The maximal amount of files downloaded at the same time.
+     * @param maxAttempts The maximal amount of attempts per file.
+     * @param initialBackoff The delay before the first retry, doubled for every further retry.
+     */
+    public BulkDownloader(int maxConcurrentDownloads, int maxAttempts, Duration initialBackoff) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(CONNECT_TIMEOUT)
+                .build();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, maxConcurrentDownloads), new DownloadThreadFactory());
+    }
+
+    /**
+     * Downloads all given files, which are not already present with the expected digest.
+     * All downloads are attempted, even if some of them fail.
+     *
+     * @param requests The files to download.
+     * @param offline True if no downloads may be performed, only the presence of the files is verified.
+     * @param progress Receives the amount of bytes of every downloaded, or already present, chunk of a file. Called concurrently.
+     *                 When a download attempt fails, the negated amount of bytes it reported is passed, as they are downloaded again.
+     * @throws IOException If any of the files could not be downloaded.
+     */
+    public void download(Collection<DownloadRequest> requests, boolean offline, LongConsumer progress) throws IOException {
+        //The same file is only downloaded once.
+        final Map<File, DownloadRequest> distinct = new LinkedHashMap<>();
+        requests.forEach(request -> distinct.putIfAbsent(request.output().getAbsoluteFile(), request));
+
+        final List<Future<?>> futures = new ArrayList<>(distinct.size());
+        for (DownloadRequest request : distinct.values()) {
+            futures.add(executor.submit(() -> {
+                download(request, offline, progress);
+                return null;
+            }));
+        }
+
+        final List<Throwable> failures = new ArrayList<>();
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                futures.forEach(remaining -> remaining.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while downloading files");
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            final IOException exception = new IOException("Failed to download %d of %d files".formatted(failures.size(), distinct.size()), failures.get(0));
+            failures.stream().skip(1).limit(MAX_REPORTED_FAILURES).forEach(exception::addSuppressed);
+            throw exception;
+        }
+    }
+
+    private void download(DownloadRequest request, boolean offline, LongConsumer progress) throws IOException {
+        final File output = request.output();
+        if (output.exists() && (offline || request.sha1() != null)) {
+            final String hash = request.sha1() == null ? null : HashFunction.SHA1.hash(output);
+            if (hash == null || hash.equalsIgnoreCase(request.sha1())) {
+                progress.accept(output.length());
+                return;
+            }
+
+            if (offline) {
+                throw new IllegalStateException(String.format("Cannot validate file %s as Gradle is running in offline mode and the file does not match the expected hash. Expected: %s Actual: %s", request.url(), request.sha1(), hash));
+            }
+        }
+
+        if (offline) {
+            throw new IllegalStateException("Cannot download file " + request.url() + " as Gradle is running in offline mode and the file does not exist");
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            final AttemptProgress attemptProgress = new AttemptProgress(progress);
+            try {
+                transfer(request, attemptProgress);
+                return;
+            } catch (IOException e) {
+                //The bytes of the failed attempt are either downloaded again, or never complete the file.
+                attemptProgress.revert();
+                if (attempt >= maxAttempts || !isRetryable(e)) {
+                    throw e;
+                }
+
+                sleep(backoff(attempt));
+            }
+        }
+    }
+
+    private void transfer(DownloadRequest request, LongConsumer progress) throws IOException {
+        final HttpRequest httpRequest = HttpRequest.newBuilder(request.url())
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+
+        final HttpResponse<InputStream> response;
+        try {
+            response = client.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while downloading: " + request.url());
+        }
+
+        try (InputStream body = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new HttpStatusException(request, response.statusCode());
+            }
+
+            final Path target = request.output().toPath();
+            Files.createDirectories(target.getParent());
+            final Path temporary = FileUtils.temporaryPath(target.getParent(), target.getFileName().toString());
+            try {
+                final MessageDigest digest = HashFunction.SHA1.get();
+                try (OutputStream output = new DigestOutputStream(Files.newOutputStream(temporary), digest)) {
+                    final byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = body.read(buffer)) != -1) {
+                        output.write(buffer, 0, read);
+                        progress.accept(read);
+                    }
+                }
+
+                if (request.sha1() != null) {
+                    final String hash = HashFunction.SHA1.toHexString(digest);
+                    if (!hash.equalsIgnoreCase(request.sha1())) {
+                        throw new IOException("Downloaded file %s does not match the expected hash. Expected: %s Actual: %s".formatted(request.url(), request.sha1(), hash));
+                    }
+                }
+
+                FileUtils.atomicMove(temporary, target);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    private static boolean isRetryable(IOException e) {
+        if (e instanceof InterruptedIOException) {
+            return false;
+        }
+
+        return !(e instanceof HttpStatusException statusException) || statusException.isRetryable();
+    }
+
+    private Duration backoff(int attempt) {
+        final Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempt - 1, 16));
+        final Duration capped = delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+        //Spread the retries of concurrent downloads, so they do not hit the server at the same time again.
+        return capped.plusMillis(ThreadLocalRandom.current().nextLong(capped.toMillis() / 2 + 1));
+    }
+
+    private static void sleep(Duration duration) throws IOException {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry a download");
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Thrown when the server responds with an unexpected status code.
+     */
+    private static final class HttpStatusException extends IOException {
+        private final int statusCode;
+
+        private HttpStatusException(DownloadRequest request, int statusCode) {
+            super("Failed to download %s, the server responded with status code: %d".formatted(request.url(), statusCode));
+            this.statusCode = statusCode;
+        }
+
+        private boolean isRetryable() {
+            //Server errors, timeouts and rate limits are usually temporary, all other client errors are not.
+            return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+        }
+    }
+
+    /**
+     * Forwards the progress of a single download attempt, and remembers it so it can be reverted if the attempt fails.
+     * Only used by the thread performing the attempt.
+     */
+    private static final class AttemptProgress implements LongConsumer {
+        private final LongConsumer progress;
+        private long transferred = 0;
+
+        private AttemptProgress(LongConsumer progress) {
+            this.progress = progress;
+        }
+
+        @Override
+        public void accept(long bytes) {
+            transferred += bytes;
+            progress.accept(bytes);
+        }
+
+        private void revert() {
+            if (transferred != 0) {
+                progress.accept(-transferred);
+                transferred = 0;
+            }
+        }
+    }
+
+    private static final class DownloadThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "NeoGradle Download " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package net.neoforged.gradle.common.services.download;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.net.URI;
+
+/**
+ * A single file to download.
+ *
+ * @param url The url to download the file from.
+ * @param output The file to download to.
+ * @param sha1 The expected SHA-1 digest of the file, or null if the file should not be verified.
+ * @param size The expected size of the file in bytes, or a negative value if it is not known. Only used to report progress.
+ */
+public record DownloadRequest(URI url, File output, @Nullable String sha1, long size) {
+
+    /**
+     * Creates a new download request with a known digest and size.
+     *
+     * @param url The url to download the file from.
+     * @param output The file to download to.
+     * @param sha1 The expected SHA-1 digest of the file.
+     * @param size The expected size of the file in bytes.
+     * @return The download request.
+     */
+    public static DownloadRequest of(String url, File output, String sha1, long size) {
+        return new DownloadRequest(URI.create(url), output, sha1, size);
+    }
+}
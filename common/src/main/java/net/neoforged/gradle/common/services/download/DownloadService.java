@@ -0,0 +1,105 @@
+package net.neoforged.gradle.common.services.download;
+
+import net.neoforged.gradle.util.GradleInternalUtils;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Downloads the files needed by the runtimes, like assets, libraries and natives.
+ * A single {@link BulkDownloader} is shared by all tasks of the build, so connections to the download servers are reused.
+ */
+public abstract class DownloadService implements BuildService<DownloadService.Parameters>, AutoCloseable {
+
+    public static final String NAME = "DownloadService";
+
+    public static final String DOWNLOADS_PROPERTY_PREFIX = "net.neoforged.gradle.downloads.";
+    public static final String MAX_CONCURRENT_DOWNLOADS_PROPERTY = DOWNLOADS_PROPERTY_PREFIX + "maxConcurrentDownloads";
+    public static final String MAX_ATTEMPTS_PROPERTY = DOWNLOADS_PROPERTY_PREFIX + "maxAttempts";
+
+    private static final Logger LOGGER = Logging.getLogger(DownloadService.class);
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(250);
+
+    private BulkDownloader downloader;
+
+    public interface Parameters extends BuildServiceParameters {
+
+        /**
+         * @return The maximal amount of files downloaded at the same time.
+         */
+        Property<Integer> getMaxConcurrentDownloads();
+
+        /**
+         * @return The maximal amount of attempts to download a single file.
+         */
+        Property<Integer> getMaxAttempts();
+    }
+
+    public static void register(Project project) {
+        project.getGradle().getSharedServices().registerIfAbsent(
+                NAME,
+                DownloadService.class,
+                spec -> {
+                    spec.getParameters().getMaxConcurrentDownloads().set(project.getProviders().gradleProperty(MAX_CONCURRENT_DOWNLOADS_PROPERTY).map(Integer::parseInt).orElse(16));
+                    spec.getParameters().getMaxAttempts().set(project.getProviders().gradleProperty(MAX_ATTEMPTS_PROPERTY).map(Integer::parseInt).orElse(10));
+                }
+        );
+    }
+
+    /**
+     * Downloads all given files, which are not already present with the expected digest.
+     *
+     * @param task The task that requires the files, used to report progress.
+     * @param description The description of the files, used to report progress.
+     * @param requests The files to download.
+     * @param offline True if Gradle runs in offline mode, in which case the files are only verified.
+     * @throws IOException If any of the files could not be downloaded.
+     */
+    public void download(Task task, String description, Collection<DownloadRequest> requests, boolean offline) throws IOException {
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        final GradleInternalUtils.ProgressLoggerWrapper progress = GradleInternalUtils.getProgressLogger(LOGGER, task, description);
+        progress.setDestFileName(description);
+        progress.setSize(requests.stream().mapToLong(DownloadRequest::size).filter(size -> size > 0).sum());
+        progress.started();
+        try {
+            getDownloader().download(requests, offline, bytes -> {
+                synchronized (progress) {
+                    progress.incrementDownloadProgress(bytes);
+                }
+            });
+        } finally {
+            progress.completed();
+        }
+    }
+
+    private synchronized BulkDownloader getDownloader() {
+        if (downloader == null) {
+            downloader = new BulkDownloader(
+                    getParameters().getMaxConcurrentDownloads().get(),
+                    getParameters().getMaxAttempts().get(),
+                    INITIAL_BACKOFF
+            );
+        }
+
+        return downloader;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (downloader != null) {
+            downloader.close();
+            downloader = null;
+        }
+    }
+}
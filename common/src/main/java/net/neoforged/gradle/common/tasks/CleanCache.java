@@ -4,7 +4,9 @@ import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.provider.Property;
 import org.gradle.api.services.ServiceReference;
+import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.options.Option;
 
 import java.io.IOException;
 
@@ -14,14 +16,26 @@ public abstract class CleanCache extends DefaultTask {
     @ServiceReference(CachedExecutionService.NAME)
     public abstract Property<CachedExecutionService> getCacheService();
 
+    @Input
+    @Option(option = "all", description = "Removes all entries from the cache, instead of only evicting the least recently used ones.")
+    public abstract Property<Boolean> getCleanAll();
+
     public CleanCache() {
         setGroup("neogradle");
-        setDescription("Cleans the cache directory");
+        setDescription("Evicts the least recently used entries from the cache directory, until it is within its configured limits");
+
+        getCleanAll().convention(false);
+        getOutputs().upToDateWhen(task -> false);
     }
 
     @TaskAction
     public void cleanCache() throws IOException {
         CachedExecutionService cacheService = getCacheService().get();
-        cacheService.clean();
+        if (getCleanAll().get()) {
+            cacheService.clean();
+            return;
+        }
+
+        getLogger().lifecycle(cacheService.evict().toString());
     }
 }
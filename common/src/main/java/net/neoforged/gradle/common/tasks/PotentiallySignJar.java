@@ -5,15 +5,14 @@
 
 package net.neoforged.gradle.common.tasks;
 
-import com.google.common.collect.Maps;
 import groovy.lang.Closure;
+import jdk.security.jarsigner.JarSigner;
+import net.neoforged.gradle.common.util.JarSigningUtils;
 import net.neoforged.gradle.dsl.common.tasks.WithOutput;
 import net.neoforged.gradle.dsl.common.tasks.WithWorkspace;
 import net.neoforged.gradle.util.FileUtils;
-import net.neoforged.gradle.util.ZipBuildingFileTreeVisitor;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.NonNullApi;
-import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.RegularFile;
 import org.gradle.api.file.RegularFileProperty;
@@ -24,13 +23,10 @@ import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.security.GeneralSecurityException;
+import java.util.HashSet;
 import java.util.Set;
-import java.util.zip.ZipOutputStream;
 
 @CacheableTask
 @NonNullApi
@@ -43,10 +39,7 @@ public abstract class PotentiallySignJar extends DefaultTask implements PatternF
     }
     
     @TaskAction
-    public void doTask() throws IOException {
-        final Map<String, Entry<byte[], Long>> ignoredStuff = Maps.newHashMap();
-        
-        
+    public void doTask() throws IOException, GeneralSecurityException {
         File input = getInput().get().getAsFile();
         File output = ensureFileWorkspaceReady(getOutput());
         
@@ -55,46 +48,29 @@ public abstract class PotentiallySignJar extends DefaultTask implements PatternF
             return;
         }
         
-        File toSign = ensureFileWorkspaceReady(new File(getTemporaryDir(), input.getName() + ".unsigned.tmp"));
-        File signed = ensureFileWorkspaceReady(new File(getTemporaryDir(), input.getName() + ".signed.tmp"));
-        
-        // load in input jar, and create temp jar
-        processInputJar(input, toSign);
-        
-        // SIGN!
-        Map<String, Object> map = Maps.newHashMap();
-        map.put("alias", getAlias().get());
-        map.put("storePass", getStorePass().get());
-        map.put("jar", toSign.getAbsolutePath());
-        map.put("signedJar", signed.getAbsolutePath());
-        
-        if (getKeyPass().isPresent()) map.put("keypass", getKeyPass().get());
-        if (getKeyStore().isPresent()) map.put("keyStore", getKeyStore().get());
-        
-        getAnt().invokeMethod("signjar", map);
-        
-        // write out
-        writeOutputJar(signed, input, output);
-    }
-    
-    private void processInputJar(File inputJar, File toSign) throws IOException {
-        final FileTree inputFileTree = getArchiveOperations().zipTree(inputJar);
-        try (OutputStream toSignOutputStream = new FileOutputStream(toSign); ZipOutputStream toSignZipOutputStream = new ZipOutputStream(toSignOutputStream)) {
-            
-            ZipBuildingFileTreeVisitor toSignBuilder = new ZipBuildingFileTreeVisitor(toSignZipOutputStream);
-            inputFileTree.matching(patternSet).visit(toSignBuilder);
-        }
-    }
-    
-    private void writeOutputJar(File signedJar, File inputJar, File outputJar) throws IOException {
-        final FileTree inputFileTree = getArchiveOperations().zipTree(inputJar);
-        final FileTree signedFileTree = getArchiveOperations().zipTree(signedJar);
-        try (OutputStream outputStream = new FileOutputStream(outputJar); ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
-            
-            ZipBuildingFileTreeVisitor builder = new ZipBuildingFileTreeVisitor(zipOutputStream);
-            signedFileTree.visit(builder);
-            inputFileTree.minus(inputFileTree.matching(patternSet)).getAsFileTree().visit(builder);
+        // SIGN! Only the entries matching the patterns are signed, the others are copied unsigned.
+        final JarSigner signer = JarSigningUtils.createSigner(
+                getKeyStoreFile(),
+                getAlias().get(),
+                getStorePass().get().toCharArray(),
+                getKeyPass().map(String::toCharArray).getOrNull()
+        );
+        //Visiting the tree of the jar matches the patterns against its entries without extracting them.
+        final Set<String> toSign = new HashSet<>();
+        getArchiveOperations().zipTree(input).matching(patternSet).visit(details -> toSign.add(details.getPath()));
+        JarSigningUtils.sign(input, output, getTemporaryDir(), signer, entry -> toSign.contains(entry.name()));
+    }
+    
+    /*
+     * Resolves the key store like the signjar Ant task did: relative to the project directory, defaulting to the key store of the user.
+     */
+    private File getKeyStoreFile() {
+        if (!getKeyStore().isPresent()) {
+            return new File(System.getProperty("user.home"), ".keystore");
         }
+        
+        final File keyStore = new File(getKeyStore().get());
+        return keyStore.isAbsolute() ? keyStore : getLayout().getProjectDirectory().file(getKeyStore().get()).getAsFile();
     }
     
     @InputFile
@@ -0,0 +1,216 @@
+package net.neoforged.gradle.common.util;
+
+import net.minecraftforge.srgutils.IMappingBuilder;
+import net.minecraftforge.srgutils.IMappingFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary encoding of mapping files, used to serialize {@link CacheableIMappingFile}s.
+ * <p>
+ * All names, descriptors and metadata are stored once in a string table, followed by the packages and classes, which
+ * reference the strings by their varint encoded index. Unlike the text formats, nothing needs to be sorted when writing,
+ * nothing needs to be tokenized when reading, and all metadata is retained.
+ */
+final class BinaryMappingFormat {
+
+    private static final int VERSION = 1;
+    private static final String LEFT = "left";
+    private static final String RIGHT = "right";
+
+    private BinaryMappingFormat() {
+        throw new IllegalStateException("Can not instantiate an instance of: BinaryMappingFormat. This is a utility class");
+    }
+
+    /**
+     * Writes the given mapping file.
+     *
+     * @param file The mapping file to write.
+     * @param out The output to write to.
+     * @throws IOException If the mapping file could not be written.
+     */
+    static void write(IMappingFile file, DataOutput out) throws IOException {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final ByteArrayOutputStream nodeBytes = new ByteArrayOutputStream();
+        final DataOutputStream nodes = new DataOutputStream(nodeBytes);
+
+        writeVarInt(nodes, file.getPackages().size());
+        for (IMappingFile.IPackage pkg : file.getPackages()) {
+            writeNode(nodes, strings, pkg);
+        }
+
+        writeVarInt(nodes, file.getClasses().size());
+        for (IMappingFile.IClass cls : file.getClasses()) {
+            writeNode(nodes, strings, cls);
+
+            writeVarInt(nodes, cls.getFields().size());
+            for (IMappingFile.IField field : cls.getFields()) {
+                writeNode(nodes, strings, field);
+                writeString(nodes, strings, field.getDescriptor());
+            }
+
+            writeVarInt(nodes, cls.getMethods().size());
+            for (IMappingFile.IMethod method : cls.getMethods()) {
+                writeNode(nodes, strings, method);
+                writeString(nodes, strings, method.getDescriptor());
+
+                final Collection<? extends IMappingFile.IParameter> parameters = method.getParameters();
+                writeVarInt(nodes, parameters.size());
+                for (IMappingFile.IParameter parameter : parameters) {
+                    writeVarInt(nodes, parameter.getIndex());
+                    writeNode(nodes, strings, parameter);
+                }
+            }
+        }
+
+        out.writeInt(VERSION);
+        writeVarInt(out, strings.size());
+        for (String value : strings.keySet()) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+        nodes.flush();
+        out.write(nodeBytes.toByteArray());
+    }
+
+    /**
+     * Reads a mapping file written by {@link #write(IMappingFile, DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return The mapping file.
+     * @throws IOException If the mapping file could not be read.
+     */
+    static IMappingFile read(DataInput in) throws IOException {
+        final int version = in.readInt();
+        if (version != VERSION) {
+            throw new InvalidObjectException("Unsupported binary mapping format version: %s".formatted(version));
+        }
+
+        final String[] strings = new String[readVarInt(in)];
+        for (int i = 0; i < strings.length; i++) {
+            final byte[] bytes = new byte[readVarInt(in)];
+            in.readFully(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        final IMappingBuilder builder = IMappingBuilder.create(LEFT, RIGHT);
+
+        final int packageCount = readVarInt(in);
+        for (int i = 0; i < packageCount; i++) {
+            final IMappingBuilder.IPackage pkg = builder.addPackage(readString(in, strings), readString(in, strings));
+            readMetadata(in, strings, pkg::meta);
+        }
+
+        final int classCount = readVarInt(in);
+        for (int i = 0; i < classCount; i++) {
+            final IMappingBuilder.IClass cls = builder.addClass(readString(in, strings), readString(in, strings));
+            readMetadata(in, strings, cls::meta);
+
+            final int fieldCount = readVarInt(in);
+            for (int j = 0; j < fieldCount; j++) {
+                final IMappingBuilder.IField field = cls.field(readString(in, strings), readString(in, strings));
+                final List<String[]> metadata = readMetadata(in, strings);
+                final String descriptor = readString(in, strings);
+                if (descriptor != null) {
+                    field.descriptor(descriptor);
+                }
+                metadata.forEach(entry -> field.meta(entry[0], entry[1]));
+            }
+
+            final int methodCount = readVarInt(in);
+            for (int j = 0; j < methodCount; j++) {
+                final String original = readString(in, strings);
+                final String mapped = readString(in, strings);
+                final List<String[]> metadata = readMetadata(in, strings);
+                final IMappingBuilder.IMethod method = cls.method(readString(in, strings), original, mapped);
+                metadata.forEach(entry -> method.meta(entry[0], entry[1]));
+
+                final int parameterCount = readVarInt(in);
+                for (int k = 0; k < parameterCount; k++) {
+                    final int index = readVarInt(in);
+                    final IMappingBuilder.IParameter parameter = method.parameter(index, readString(in, strings), readString(in, strings));
+                    readMetadata(in, strings, parameter::meta);
+                }
+            }
+        }
+
+        return builder.build().getMap(LEFT, RIGHT);
+    }
+
+    private static void writeNode(DataOutput out, Map<String, Integer> strings, IMappingFile.INode node) throws IOException {
+        writeString(out, strings, node.getOriginal());
+        writeString(out, strings, node.getMapped());
+
+        final Map<String, String> metadata = node.getMetadata();
+        writeVarInt(out, metadata.size());
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            writeString(out, strings, entry.getKey());
+            writeString(out, strings, entry.getValue());
+        }
+    }
+
+    private static void writeString(DataOutput out, Map<String, Integer> strings, String value) throws IOException {
+        //Zero is reserved for null.
+        writeVarInt(out, value == null ? 0 : strings.computeIfAbsent(value, key -> strings.size()) + 1);
+    }
+
+    private static String readString(DataInput in, String[] strings) throws IOException {
+        final int index = readVarInt(in);
+        if (index > strings.length) {
+            throw new InvalidObjectException("Invalid string index: %s".formatted(index));
+        }
+        return index == 0 ? null : strings[index - 1];
+    }
+
+    private static List<String[]> readMetadata(DataInput in, String[] strings) throws IOException {
+        final int count = readVarInt(in);
+        final List<String[]> metadata = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            metadata.add(new String[] {readString(in, strings), readString(in, strings)});
+        }
+        return metadata;
+    }
+
+    private static void readMetadata(DataInput in, String[] strings, MetadataConsumer consumer) throws IOException {
+        for (String[] entry : readMetadata(in, strings)) {
+            consumer.accept(entry[0], entry[1]);
+        }
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new InvalidObjectException("Malformed varint");
+    }
+
+    @FunctionalInterface
+    private interface MetadataConsumer {
+        void accept(String key, String value);
+    }
+}
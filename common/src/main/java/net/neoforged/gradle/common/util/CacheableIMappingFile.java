@@ -1,17 +1,13 @@
 package net.neoforged.gradle.common.util;
 
-import net.neoforged.gradle.util.IMappingFileUtils;
 import net.minecraftforge.srgutils.IMappingFile;
 import net.minecraftforge.srgutils.IRenamer;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.List;
 
 public class CacheableIMappingFile implements IMappingFile, Serializable {
 
@@ -77,18 +73,11 @@ public class CacheableIMappingFile implements IMappingFile, Serializable {
     }
 
     private void writeObject(java.io.ObjectOutputStream out) throws IOException {
-        final List<String> clientLines = IMappingFileUtils.writeMappingFile(delegate, IMappingFile.Format.TSRG2, false);
-
-        out.writeObject(clientLines);
+        BinaryMappingFormat.write(delegate, out);
     }
 
-    @SuppressWarnings("unchecked")
-    private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
-        final List<String> clientLines = (List<String>) in.readObject();
-
-        InputStream clientStream = new ByteArrayInputStream(String.join("\n", clientLines).getBytes());
-
-        delegate = IMappingFile.load(clientStream);
+    private void readObject(java.io.ObjectInputStream in) throws IOException {
+        delegate = BinaryMappingFormat.read(in);
     }
 
     private void readObjectNoData() throws ObjectStreamException {
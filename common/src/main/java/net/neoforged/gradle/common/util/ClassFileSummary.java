@@ -0,0 +1,173 @@
+package net.neoforged.gradle.common.util;
+
+import net.neoforged.gradle.common.util.hash.HashCode;
+import net.neoforged.gradle.common.util.hash.Hasher;
+import net.neoforged.gradle.common.util.hash.Hashing;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A summary of a class file: the hash of its signature, and the classes it references.
+ * <p>
+ * The signature covers everything other classes can see of the class: its access flags, super class, interfaces and
+ * generic signature, and the access flags, names, descriptors and generic signatures of its fields and methods.
+ * Changes to method bodies do not change the signature.
+ *
+ * @param signature The hash of the signature of the class.
+ * @param references The internal names of all classes referenced by the class, including the ones in descriptors and generic signatures.
+ */
+public record ClassFileSummary(HashCode signature, Set<String> references) {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    /**
+     * Reads the summary of a class file.
+     *
+     * @param classFile The bytes of the class file.
+     * @return The summary of the class file.
+     * @throws IOException If the class file is malformed.
+     */
+    public static ClassFileSummary read(byte[] classFile) throws IOException {
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(classFile));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        input.readUnsignedShort();
+        input.readUnsignedShort();
+
+        final int constantPoolSize = input.readUnsignedShort();
+        final String[] utf8 = new String[constantPoolSize];
+        final int[] classNameIndices = new int[constantPoolSize];
+        for (int index = 1; index < constantPoolSize; index++) {
+            final int tag = input.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    utf8[index] = input.readUTF();
+                    break;
+                case 7:
+                    classNameIndices[index] = input.readUnsignedShort();
+                    break;
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    input.skipBytes(2);
+                    break;
+                case 15:
+                    input.skipBytes(3);
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    input.skipBytes(4);
+                    break;
+                case 5:
+                case 6:
+                    input.skipBytes(8);
+                    index++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag: %d".formatted(tag));
+            }
+        }
+
+        final Set<String> references = new HashSet<>();
+        for (int index = 1; index < constantPoolSize; index++) {
+            if (classNameIndices[index] != 0) {
+                final String name = utf8[classNameIndices[index]];
+                if (name.startsWith("[")) {
+                    collectDescriptorReferences(name, references);
+                } else {
+                    references.add(name);
+                }
+            } else if (utf8[index] != null) {
+                collectDescriptorReferences(utf8[index], references);
+            }
+        }
+
+        final Hasher hasher = Hashing.newHasher();
+        hasher.putInt(input.readUnsignedShort());
+        hasher.putString(className(utf8, classNameIndices, input.readUnsignedShort()));
+        hasher.putString(className(utf8, classNameIndices, input.readUnsignedShort()));
+        final int interfaces = input.readUnsignedShort();
+        for (int i = 0; i < interfaces; i++) {
+            hasher.putString(className(utf8, classNameIndices, input.readUnsignedShort()));
+        }
+
+        //Fields and methods share the same structure.
+        for (int kind = 0; kind < 2; kind++) {
+            final int members = input.readUnsignedShort();
+            hasher.putInt(members);
+            for (int i = 0; i < members; i++) {
+                hasher.putInt(input.readUnsignedShort());
+                hasher.putString(utf8[input.readUnsignedShort()]);
+                hasher.putString(utf8[input.readUnsignedShort()]);
+                hashSignature(input, utf8, hasher);
+            }
+        }
+        hashSignature(input, utf8, hasher);
+
+        return new ClassFileSummary(hasher.hash(), references);
+    }
+
+    /**
+     * Reads the attributes of a class or member, only hashing its generic signature.
+     */
+    private static void hashSignature(DataInputStream input, String[] utf8, Hasher hasher) throws IOException {
+        final int attributes = input.readUnsignedShort();
+        String signature = null;
+        for (int i = 0; i < attributes; i++) {
+            final String name = utf8[input.readUnsignedShort()];
+            final int length = input.readInt();
+            if ("Signature".equals(name)) {
+                signature = utf8[input.readUnsignedShort()];
+                input.skipBytes(length - 2);
+            } else {
+                input.skipBytes(length);
+            }
+        }
+
+        if (signature == null) {
+            hasher.putNull();
+        } else {
+            hasher.putString(signature);
+        }
+    }
+
+    private static String className(String[] utf8, int[] classNameIndices, int index) {
+        //The super class of java/lang/Object, and module-info classes have no super class.
+        return index == 0 ? "" : utf8[classNameIndices[index]];
+    }
+
+    /**
+     * Collects the class names of the form {@code L<name>;} or {@code L<name><} from a descriptor or generic signature.
+     * Other strings of the constant pool might produce false matches, which are harmless as they never name a class.
+     */
+    private static void collectDescriptorReferences(String descriptor, Set<String> references) {
+        int start = descriptor.indexOf('L');
+        while (start != -1) {
+            int end = start + 1;
+            while (end < descriptor.length() && isNameCharacter(descriptor.charAt(end))) {
+                end++;
+            }
+
+            if (end > start + 1 && end < descriptor.length() && (descriptor.charAt(end) == ';' || descriptor.charAt(end) == '<')) {
+                references.add(descriptor.substring(start + 1, end));
+            }
+            start = descriptor.indexOf('L', start + 1);
+        }
+    }
+
+    private static boolean isNameCharacter(char c) {
+        return c != ';' && c != '<' && c != '>' && c != '.' && c != '[' && c != '(' && c != ')' && c != ':' && !Character.isWhitespace(c);
+    }
+}
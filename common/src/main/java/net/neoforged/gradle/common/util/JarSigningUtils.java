@@ -0,0 +1,120 @@
+package net.neoforged.gradle.common.util;
+
+import jdk.security.jarsigner.JarSigner;
+import net.neoforged.gradle.util.RawZipFile;
+import net.neoforged.gradle.util.ZipRewriter;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.CertPath;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.zip.ZipFile;
+
+/**
+ * Signs jars inside the build process, with the signing APIs of the JDK instead of the {@code jarsigner} tool.
+ */
+public final class JarSigningUtils {
+
+    private static final int MAX_SIGNER_NAME_LENGTH = 8;
+
+    private JarSigningUtils() {
+        throw new IllegalStateException("Can not instantiate an instance of: JarSigningUtils. This is a utility class");
+    }
+
+    /**
+     * Creates a signer for the key with the given alias, like {@code jarsigner} does.
+     * The signature files are named after the alias, shortened to eight characters.
+     *
+     * @param keyStore The key store, its type is detected from its content.
+     * @param alias The alias of the key.
+     * @param storePass The password of the key store.
+     * @param keyPass The password of the key, or null if it is the password of the key store.
+     * @return The signer.
+     * @throws IOException If the key store could not be read.
+     * @throws GeneralSecurityException If the key store does not contain a private key with a certificate chain for the alias.
+     */
+    public static JarSigner createSigner(File keyStore, String alias, char[] storePass, char[] keyPass) throws IOException, GeneralSecurityException {
+        final KeyStore store = KeyStore.getInstance(keyStore, storePass);
+        final Key key = store.getKey(alias, keyPass == null ? storePass : keyPass);
+        final Certificate[] chain = store.getCertificateChain(alias);
+        if (!(key instanceof PrivateKey) || chain == null) {
+            throw new GeneralSecurityException("The key store %s has no private key with a certificate chain for alias: %s".formatted(keyStore, alias));
+        }
+
+        final CertPath certificates = CertificateFactory.getInstance("X.509").generateCertPath(Arrays.asList(chain));
+        return new JarSigner.Builder((PrivateKey) key, certificates)
+                .signerName(getSignerName(alias))
+                .build();
+    }
+
+    /**
+     * Signs the entries of the given jar which match the given filter, and copies the other entries unsigned.
+     * <p>
+     * The matching entries are copied to a temporary jar without recompressing them, which is signed directly into
+     * the output. The other entries are then appended to the output, again without recompressing them.
+     *
+     * @param input The jar to sign.
+     * @param output The signed jar.
+     * @param temporaryDirectory The directory for the temporary jar.
+     * @param signer The signer.
+     * @param shouldSign The filter of the entries to sign.
+     * @throws IOException If the jar could not be signed.
+     */
+    public static void sign(File input, File output, File temporaryDirectory, JarSigner signer, Predicate<RawZipFile.Entry> shouldSign) throws IOException {
+        final File toSign = new File(temporaryDirectory, input.getName() + ".unsigned.tmp");
+        try (RawZipFile inputZip = RawZipFile.open(input)) {
+            final List<RawZipFile.Entry> unsigned = new ArrayList<>();
+            try (ZipRewriter rewriter = new ZipRewriter(toSign)) {
+                for (RawZipFile.Entry entry : inputZip.entries()) {
+                    if (shouldSign.test(entry)) {
+                        rewriter.copy(inputZip, entry);
+                    } else {
+                        unsigned.add(entry);
+                    }
+                }
+            }
+
+            try (ZipFile zip = new ZipFile(toSign);
+                 OutputStream stream = new BufferedOutputStream(Files.newOutputStream(output.toPath()))) {
+                signer.sign(zip, stream);
+            }
+
+            try (ZipRewriter rewriter = ZipRewriter.append(output)) {
+                for (RawZipFile.Entry entry : unsigned) {
+                    //Directories can exist in both parts.
+                    if (!rewriter.contains(entry.name())) {
+                        rewriter.copy(inputZip, entry);
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(toSign.toPath());
+        }
+    }
+
+    /**
+     * Gets the name of the signature files for the given alias, like {@code jarsigner} does: the alias is shortened to
+     * eight characters, and all characters which are not allowed in the name are replaced by underscores.
+     */
+    static String getSignerName(String alias) {
+        final String name = alias.length() > MAX_SIGNER_NAME_LENGTH ? alias.substring(0, MAX_SIGNER_NAME_LENGTH) : alias;
+        final StringBuilder result = new StringBuilder(name.length());
+        for (char c : name.toUpperCase(Locale.ROOT).toCharArray()) {
+            result.append((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_' ? c : '_');
+        }
+        return result.toString();
+    }
+}
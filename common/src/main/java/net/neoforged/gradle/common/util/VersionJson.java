@@ -23,6 +23,7 @@ package net.neoforged.gradle.common.util;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.*;
 import net.neoforged.gradle.dsl.common.util.Artifact;
+import net.neoforged.gradle.util.ParsedFileCache;
 import org.gradle.api.file.RegularFile;
 
 import java.io.*;
@@ -48,13 +49,19 @@ public class VersionJson implements Serializable {
         return get(path.toFile());
     }
 
+    /**
+     * Gets the version json from the given file, it is shared with all other callers which read a file with the same
+     * content, see {@link ParsedFileCache}.
+     */
     public static VersionJson get(@Nullable File file) throws IOException {
         if (file == null) {
             throw new IllegalArgumentException("VersionJson File can not be null!");
         }
-        try (InputStream in = new FileInputStream(file)) {
-            return get(in);
-        }
+        return ParsedFileCache.get(file, VersionJson.class, jsonFile -> {
+            try (InputStream in = new FileInputStream(jsonFile)) {
+                return get(in);
+            }
+        });
     }
 
     public static VersionJson get(InputStream stream) {
@@ -1,7 +1,6 @@
 package net.neoforged.gradle.common.util.hash;
 
 import com.google.common.io.ByteStreams;
-import com.google.common.io.Files;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
@@ -11,9 +10,14 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class Hashing {
     private static final HashFunction MD5 = MessageDigestHashFunction.of("MD5");
@@ -60,19 +64,54 @@ public class Hashing {
         return DEFAULT.hashFile(file);
     }
 
+    /**
+     * Hashes the content of the given directory on the current thread.
+     *
+     * @param file The directory to hash.
+     * @return The hash of the directory.
+     * @throws IOException If a file could not be hashed.
+     * @see #hashDirectory(File, int)
+     */
     public static HashCode hashDirectory(File file) throws IOException {
-        Hasher hasher = newHasher();
-        hasher.putString("DIRECTORY");
-        hasher.putString(file.getName());
-        for (File listFile : Objects.requireNonNull(file.listFiles())) {
-            final HashCode innerHash;
-            if (listFile.isFile()) {
-                 innerHash = hashFile(listFile);
+        return hashDirectory(file, 1);
+    }
+
+    /**
+     * Hashes the content of the given directory, hashing its files on the given amount of threads.
+     * The paths of all files and directories, relative to the given directory, are part of the hash, the name of the
+     * given directory itself is not. So directories with the same content, but a different location, are equal.
+     * The result does not depend on the parallelism.
+     *
+     * @param file The directory to hash.
+     * @param parallelism The amount of threads to use, one or less hashes on the current thread.
+     * @return The hash of the directory.
+     * @throws IOException If a file could not be hashed.
+     */
+    public static HashCode hashDirectory(File file, int parallelism) throws IOException {
+        final Path root = file.toPath();
+        //Every path is classified exactly once, so the hashes stay aligned with the files, even if the directory changes.
+        final List<WalkedPath> paths;
+        try (Stream<Path> stream = Files.walk(root)) {
+            paths = stream.filter(path -> !path.equals(root))
+                    .sorted()
+                    .map(path -> new WalkedPath(path, Files.isRegularFile(path)))
+                    .collect(Collectors.toList());
+        }
+
+        final List<File> files = paths.stream().filter(WalkedPath::isFile).map(path -> path.path().toFile()).collect(Collectors.toList());
+        final List<HashCode> hashes = ParallelHashing.hashFiles(files, Hashing::hashFile, parallelism);
+
+        final Hasher hasher = newHasher();
+        int fileIndex = 0;
+        for (WalkedPath path : paths) {
+            hasher.putString(root.relativize(path.path()).toString().replace(File.separatorChar, '/'));
+            if (path.isFile()) {
+                hasher.putHash(hashes.get(fileIndex++));
             } else {
-                innerHash = hashDirectory(listFile);
+                hasher.putNull();
             }
-            hasher.putHash(innerHash);
         }
+
         return hasher.hash();
     }
 
@@ -106,6 +145,12 @@ public class Hashing {
         DEFAULT = sha512();
     }
 
+    /**
+     * A path walked while hashing a directory, together with whether it was a regular file at that time.
+     */
+    private record WalkedPath(Path path, boolean isFile) {
+    }
+
     private static class DefaultHasher implements Hasher {
         private final PrimitiveHasher hasher;
 
@@ -384,7 +429,7 @@ public class Hashing {
                     return hasher.hash();
                 } else {
                     HashingOutputStream hashingOutputStream = this.primitiveStreamHasher();
-                    Files.copy(file, hashingOutputStream);
+                    Files.copy(file.toPath(), hashingOutputStream);
                     return hashingOutputStream.hash();
                 }
             } else {
@@ -0,0 +1,103 @@
+package net.neoforged.gradle.common.util.hash;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Hashes lists of files on a fork-join pool.
+ * The digests are returned in the order of the given files, so combining them yields exactly the same
+ * result as hashing the files one after another.
+ */
+public final class ParallelHashing {
+
+    /**
+     * The amount of files below which a batch is hashed on the current thread instead of being split further.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 4;
+
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    private ParallelHashing() {
+        throw new IllegalStateException("Can not instantiate an instance of: ParallelHashing. This is a utility class");
+    }
+
+    /**
+     * Hashes a single file.
+     */
+    @FunctionalInterface
+    public interface FileHasher {
+        HashCode hash(File file) throws IOException;
+    }
+
+    /**
+     * Hashes all given files with the given hasher.
+     *
+     * @param files The files to hash.
+     * @param hasher The hasher to use for each file, must be thread safe.
+     * @param parallelism The amount of threads to use, one or less hashes on the current thread.
+     * @return The digests of the files, in the same order as the files.
+     * @throws IOException If a file could not be hashed.
+     */
+    public static List<HashCode> hashFiles(List<File> files, FileHasher hasher, int parallelism) throws IOException {
+        final HashCode[] hashes = new HashCode[files.size()];
+        if (parallelism <= 1 || files.size() <= SEQUENTIAL_THRESHOLD) {
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = hasher.hash(files.get(i));
+            }
+
+            return Arrays.asList(hashes);
+        }
+
+        final ForkJoinPool pool = POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+        try {
+            pool.invoke(new HashFilesAction(files, hasher, hashes, 0, hashes.length));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        return Arrays.asList(hashes);
+    }
+
+    private static final class HashFilesAction extends RecursiveAction {
+        private final List<File> files;
+        private final FileHasher hasher;
+        private final HashCode[] hashes;
+        private final int start;
+        private final int end;
+
+        private HashFilesAction(List<File> files, FileHasher hasher, HashCode[] hashes, int start, int end) {
+            this.files = files;
+            this.hasher = hasher;
+            this.hashes = hashes;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= SEQUENTIAL_THRESHOLD) {
+                for (int i = start; i < end; i++) {
+                    try {
+                        hashes[i] = hasher.hash(files.get(i));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return;
+            }
+
+            final int middle = (start + end) >>> 1;
+            invokeAll(
+                    new HashFilesAction(files, hasher, hashes, start, middle),
+                    new HashFilesAction(files, hasher, hashes, middle, end)
+            );
+        }
+    }
+}
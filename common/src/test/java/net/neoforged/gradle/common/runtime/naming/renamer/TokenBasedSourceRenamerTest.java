@@ -0,0 +1,105 @@
+package net.neoforged.gradle.common.runtime.naming.renamer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBasedSourceRenamerTest {
+
+    private static final Map<String, String> NAMES = new HashMap<>();
+
+    static {
+        NAMES.put("m_12345_", "tick");
+        NAMES.put("f_100_", "level");
+        NAMES.put("func_1_a", "render");
+        NAMES.put("field_2_b", "position");
+        NAMES.put("p_3_", "context");
+        NAMES.put("p_abc_4_", "partialTick");
+        NAMES.put("p_1_2_3_", "nested");
+    }
+
+    private static final String SOURCE = String.join("\n",
+            "package net.minecraft.world;",
+            "",
+            "public class Item {",
+            "   private int f_100_;",
+            "   public void m_12345_(int p_3_, float p_abc_4_) {",
+            "      this.f_100_ = p_3_ + item_100_ + m_12345_;",
+            "      this.func_1_a(); this.field_2_b = 1; Func_1_a(); Field_2_b; F_100_;",
+            "      list.forEach((p_3_, p_abc_4_) -> p_3_.m_12345_(p_abc_4_));",
+            "      p_1_2_3_ + p_x_ + m__ + m_1 + func_1_ + p_12_34 + pp_1_2_ + \u00e9m_12345_;",
+            "   }",
+            "}\r\n\r");
+
+    @Test
+    public void renamesLikeTheRegexBasedRenamer() throws IOException {
+        for (boolean lambdas : new boolean[] {true, false}) {
+            assertEquals(
+                    new String(regexRenamer().rename(SOURCE.getBytes(StandardCharsets.UTF_8), false, lambdas), StandardCharsets.UTF_8),
+                    new String(tokenRenamer().rename(SOURCE.getBytes(StandardCharsets.UTF_8), false, lambdas), StandardCharsets.UTF_8)
+            );
+        }
+    }
+
+    @Test
+    public void renamesRandomSourcesLikeTheRegexBasedRenamer() throws IOException {
+        final String alphabet = "fFmpunciel_0123456789abAB ,()->\r\n\t.;";
+        final Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            final StringBuilder source = new StringBuilder();
+            final int length = random.nextInt(200);
+            for (int j = 0; j < length; j++) {
+                if (random.nextInt(20) == 0) {
+                    source.append(NAMES.keySet().toArray(String[]::new)[random.nextInt(NAMES.size())]);
+                } else {
+                    source.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+
+            final byte[] bytes = source.toString().getBytes(StandardCharsets.UTF_8);
+            for (boolean lambdas : new boolean[] {true, false}) {
+                assertArrayEquals(regexRenamer().rename(bytes, false, lambdas), tokenRenamer().rename(bytes, false, lambdas), source::toString);
+            }
+        }
+    }
+
+    @Test
+    public void emptySourcesStayEmpty() throws IOException {
+        assertEquals(0, tokenRenamer().rename(new byte[0], false, true).length);
+    }
+
+    private static RegexBasedSourceRenamer regexRenamer() {
+        return new RegexBasedSourceRenamer() {
+            @Override
+            public Map<String, String> getNames() {
+                return NAMES;
+            }
+
+            @Override
+            public Map<String, String> getDocs() {
+                return Collections.emptyMap();
+            }
+        };
+    }
+
+    private static TokenBasedSourceRenamer tokenRenamer() {
+        return new TokenBasedSourceRenamer() {
+            @Override
+            public Map<String, String> getNames() {
+                return NAMES;
+            }
+
+            @Override
+            public Map<String, String> getDocs() {
+                return Collections.emptyMap();
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package net.neoforged.gradle.common.runtime.naming.tasks;
+
+import net.neoforged.gradle.common.runtime.naming.renamer.ISourceRenamer;
+import net.neoforged.gradle.util.ZipRewriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApplyMappingsToSourceJarTest {
+
+    private static final ISourceRenamer RENAMER = (classFile, javadocs, lambdas) -> {
+        //Finish the source files in a random order, so the order of the output is not determined by luck.
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+        return new String(classFile, StandardCharsets.UTF_8).replace("m_1234_", "remapped").getBytes(StandardCharsets.UTF_8);
+    };
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void parallelRemappingMatchesSequentialRemapping() throws Exception {
+        final File input = createSourceJar();
+        final File sequential = new File(directory, "sequential.jar");
+        final File parallel = new File(directory, "parallel.jar");
+
+        ApplyMappingsToSourceJar.remap(input, sequential, RENAMER, false, true, 1);
+        ApplyMappingsToSourceJar.remap(input, parallel, RENAMER, false, true, 8);
+
+        assertEquals(entryNames(input), entryNames(parallel));
+        assertEquals(entryNames(sequential), entryNames(parallel));
+        assertArrayEquals(Files.readAllBytes(sequential.toPath()), Files.readAllBytes(parallel.toPath()));
+    }
+
+    @Test
+    public void remapsSourceFilesAndCopiesOtherEntries() throws Exception {
+        final File input = createSourceJar();
+        final File output = new File(directory, "output.jar");
+
+        ApplyMappingsToSourceJar.remap(input, output, RENAMER, false, true, 4);
+
+        try (ZipFile zip = new ZipFile(output)) {
+            assertEquals("class Source0 { void remapped() {} }", read(zip, "net/example/Source0.java"));
+            assertEquals("m_1234_", read(zip, "data/resource0.txt"));
+        }
+    }
+
+    @Test
+    public void failuresAreReportedWithTheSourceFile() throws IOException {
+        final File input = createSourceJar();
+        final File output = new File(directory, "output.jar");
+        final ISourceRenamer failing = (classFile, javadocs, lambdas) -> {
+            if (new String(classFile, StandardCharsets.UTF_8).contains("Source42")) {
+                throw new IllegalStateException("Broken source");
+            }
+            return classFile;
+        };
+
+        final IOException exception = assertThrows(IOException.class, () -> ApplyMappingsToSourceJar.remap(input, output, failing, false, true, 4));
+        assertTrue(exception.getMessage().contains("net/example/Source42.java"));
+    }
+
+    private File createSourceJar() throws IOException {
+        final File jar = new File(directory, "input.jar");
+        try (ZipRewriter rewriter = new ZipRewriter(jar)) {
+            for (int i = 0; i < 200; i++) {
+                rewriter.write("net/example/Source" + i + ".java", ("class Source" + i + " { void m_1234_() {} }").getBytes(StandardCharsets.UTF_8));
+                if (i % 10 == 0) {
+                    rewriter.write("data/resource" + i + ".txt", "m_1234_".getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return jar;
+    }
+
+    private static List<String> entryNames(File jar) throws IOException {
+        try (ZipFile zip = new ZipFile(jar)) {
+            return Collections.list(zip.entries()).stream().map(ZipEntry::getName).collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static String read(ZipFile zip, String name) throws IOException {
+        return new String(zip.getInputStream(zip.getEntry(name)).readAllBytes(), StandardCharsets.UTF_8);
+    }
+}
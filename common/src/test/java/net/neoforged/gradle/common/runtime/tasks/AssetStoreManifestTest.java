@@ -0,0 +1,127 @@
+package net.neoforged.gradle.common.runtime.tasks;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AssetStoreManifestTest {
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void completeIndexesAreReadBack() throws IOException {
+        final File file = new File(directory, AssetStoreManifest.FILE_NAME);
+        final AssetStoreManifest manifest = AssetStoreManifest.read(file);
+        assertFalse(manifest.isComplete("index"));
+
+        manifest.markComplete("index", List.of("a", "b"));
+        manifest.write();
+
+        final AssetStoreManifest read = AssetStoreManifest.read(file);
+        assertTrue(read.isComplete("index"));
+        assertTrue(read.isVerified("a"));
+        assertTrue(read.isVerified("b"));
+        assertFalse(read.isVerified("c"));
+    }
+
+    @Test
+    public void writingKeepsRecordsOfConcurrentBuilds() throws IOException {
+        final File file = new File(directory, AssetStoreManifest.FILE_NAME);
+        final AssetStoreManifest first = AssetStoreManifest.read(file);
+        final AssetStoreManifest second = AssetStoreManifest.read(file);
+
+        first.markComplete("first", List.of("a"));
+        first.write();
+        second.markComplete("second", List.of("b"));
+        second.write();
+
+        final AssetStoreManifest read = AssetStoreManifest.read(file);
+        assertTrue(read.isComplete("first"));
+        assertTrue(read.isComplete("second"));
+        assertTrue(read.isVerified("a"));
+        assertTrue(read.isVerified("b"));
+    }
+
+    @Test
+    public void invalidatedIndexesAndObjectsAreRemovedUntilTheyAreCompleteAgain() throws IOException {
+        final File file = new File(directory, AssetStoreManifest.FILE_NAME);
+        final AssetStoreManifest manifest = AssetStoreManifest.read(file);
+        manifest.markComplete("index", List.of("a"));
+        manifest.write();
+
+        final AssetStoreManifest verifying = AssetStoreManifest.read(file);
+        verifying.invalidate("index", List.of("a"));
+        verifying.write();
+        final AssetStoreManifest interrupted = AssetStoreManifest.read(file);
+        assertFalse(interrupted.isComplete("index"));
+        assertFalse(interrupted.isVerified("a"));
+
+        verifying.markComplete("index", List.of("a"));
+        verifying.write();
+        assertTrue(AssetStoreManifest.read(file).isComplete("index"));
+        assertTrue(AssetStoreManifest.read(file).isVerified("a"));
+    }
+
+    @Test
+    public void writingDoesNotRestoreRecordsInvalidatedByConcurrentBuilds() throws IOException {
+        final File file = new File(directory, AssetStoreManifest.FILE_NAME);
+        final AssetStoreManifest initial = AssetStoreManifest.read(file);
+        initial.markComplete("index", List.of("a", "b"));
+        initial.write();
+
+        //A normal build starts with the complete index, while a verification invalidates it.
+        final AssetStoreManifest build = AssetStoreManifest.read(file);
+        final AssetStoreManifest verifying = AssetStoreManifest.read(file);
+        verifying.invalidate("index", List.of("a", "b"));
+        verifying.write();
+
+        build.markComplete("other", List.of("c"));
+        build.write();
+
+        final AssetStoreManifest read = AssetStoreManifest.read(file);
+        assertFalse(read.isComplete("index"));
+        assertFalse(read.isVerified("a"));
+        assertFalse(read.isVerified("b"));
+        assertTrue(read.isComplete("other"));
+        assertTrue(read.isVerified("c"));
+    }
+
+    @Test
+    public void concurrentWritesAreAllKept() throws Exception {
+        final File file = new File(directory, AssetStoreManifest.FILE_NAME);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                final String index = "index-" + i;
+                writes.add(executor.submit(() -> {
+                    final AssetStoreManifest manifest = AssetStoreManifest.read(file);
+                    manifest.markComplete(index, List.of("object-" + index));
+                    manifest.write();
+                    return null;
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final AssetStoreManifest read = AssetStoreManifest.read(file);
+        for (int i = 0; i < 32; i++) {
+            assertTrue(read.isComplete("index-" + i));
+            assertTrue(read.isVerified("object-index-" + i));
+        }
+    }
+}
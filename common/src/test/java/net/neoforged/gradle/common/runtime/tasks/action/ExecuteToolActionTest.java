@@ -0,0 +1,88 @@
+package net.neoforged.gradle.common.runtime.tasks.action;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExecuteToolActionTest {
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void toolOutputIsRedirected() throws IOException {
+        final File jar = createToolJar();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final ByteArrayOutputStream error = new ByteArrayOutputStream();
+        final PrintStream originalOut = System.out;
+
+        ExecuteToolAction.run(jar, EchoTool.class.getName(), List.of("first", "second"), output, error);
+
+        assertEquals("first second" + System.lineSeparator() + "isolated", output.toString(StandardCharsets.UTF_8).trim());
+        assertEquals("error", error.toString(StandardCharsets.UTF_8).trim());
+        assertSame(originalOut, System.out);
+    }
+
+    @Test
+    public void failingToolsThrow() throws IOException {
+        final File jar = createToolJar();
+
+        final ExecuteToolAction.ToolExecutionException exception = assertThrows(
+                ExecuteToolAction.ToolExecutionException.class,
+                () -> ExecuteToolAction.run(jar, FailingTool.class.getName(), List.of(), new ByteArrayOutputStream(), new ByteArrayOutputStream())
+        );
+        assertEquals("failed", exception.getCause().getMessage());
+    }
+
+    @Test
+    public void missingMainClassesThrow() throws IOException {
+        final File jar = createToolJar();
+
+        assertThrows(
+                ExecuteToolAction.ToolExecutionException.class,
+                () -> ExecuteToolAction.run(jar, "does.not.Exist", List.of(), new ByteArrayOutputStream(), new ByteArrayOutputStream())
+        );
+    }
+
+    private File createToolJar() throws IOException {
+        final File jar = new File(directory, "tool.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (Class<?> tool : List.of(EchoTool.class, FailingTool.class)) {
+                final String name = tool.getName().replace('.', '/') + ".class";
+                zip.putNextEntry(new ZipEntry(name));
+                try (InputStream stream = ExecuteToolActionTest.class.getClassLoader().getResourceAsStream(name)) {
+                    zip.write(stream.readAllBytes());
+                }
+                zip.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    public static final class EchoTool {
+        public static void main(String[] args) {
+            System.out.println(String.join(" ", args));
+            //The tool is loaded from the jar, not from the class loader of the tests.
+            System.out.println(EchoTool.class.getClassLoader() != ClassLoader.getSystemClassLoader() ? "isolated" : "shared");
+            System.err.println("error");
+        }
+    }
+
+    public static final class FailingTool {
+        public static void main(String[] args) {
+            throw new IllegalStateException("failed");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package net.neoforged.gradle.common.services.caching;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InFlightJobsTest {
+
+    private static final File ENTRY = new File("entry");
+
+    @Test
+    public void concurrentExecutionsAttachToTheOwner() throws Exception {
+        final InFlightJobs jobs = new InFlightJobs();
+        final InFlightJobs.Execution owner = jobs.join(ENTRY);
+        assertTrue(owner.isOwner());
+
+        final InFlightJobs.Execution attached = jobs.join(ENTRY);
+        assertFalse(attached.isOwner());
+        assertTrue(jobs.join(new File("other")).isOwner());
+
+        final CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> await(attached));
+        Thread.sleep(100);
+        assertFalse(waiter.isDone());
+
+        owner.markStored();
+        owner.close();
+        assertTrue(waiter.get(10, TimeUnit.SECONDS));
+        assertTrue(jobs.join(ENTRY).isOwner());
+    }
+
+    @Test
+    public void failedExecutionsAreHandedOver() throws Exception {
+        final InFlightJobs jobs = new InFlightJobs();
+        final InFlightJobs.Execution owner = jobs.join(ENTRY);
+        final InFlightJobs.Execution attached = jobs.join(ENTRY);
+
+        owner.close();
+        assertFalse(attached.awaitOwner());
+        assertEquals(0, jobs.size());
+        assertTrue(jobs.join(ENTRY).isOwner());
+    }
+
+    @Test
+    public void attachedExecutionsDoNotFinishTheOwner() {
+        final InFlightJobs jobs = new InFlightJobs();
+        final InFlightJobs.Execution owner = jobs.join(ENTRY);
+        final InFlightJobs.Execution attached = jobs.join(ENTRY);
+
+        attached.markStored();
+        attached.close();
+        assertEquals(1, jobs.size());
+        assertFalse(jobs.join(ENTRY).isOwner());
+
+        owner.close();
+        assertEquals(0, jobs.size());
+    }
+
+    private static boolean await(InFlightJobs.Execution execution) {
+        try {
+            return execution.awaitOwner();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package net.neoforged.gradle.common.services.caching.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentAddressedCacheTest {
+
+    @TempDir
+    public File root;
+
+    @Test
+    public void restoresDirectoryContent() throws IOException {
+        final BlobStore blobStore = new BlobStore(new File(root, BlobStore.DIRECTORY_NAME));
+        final File output = new File(root, "output");
+        write(new File(output, "a.txt"), "a");
+        write(new File(output, "nested/b.txt"), "b");
+        assertTrue(new File(output, "empty").mkdirs());
+
+        final ContentAddressedCache cache = new ContentAddressedCache(new File(root, "entry"), blobStore, true);
+        cache.loadFrom(output);
+
+        final File restored = new File(root, "restored");
+        assertTrue(cache.restoreTo(restored));
+
+        assertEquals("a", Files.readString(new File(restored, "a.txt").toPath()));
+        assertEquals("b", Files.readString(new File(restored, "nested/b.txt").toPath()));
+        assertTrue(new File(restored, "empty").isDirectory());
+    }
+
+    @Test
+    public void storesIdenticalContentOnce() throws IOException {
+        final BlobStore blobStore = new BlobStore(new File(root, BlobStore.DIRECTORY_NAME));
+        final File first = new File(root, "first.jar");
+        final File second = new File(root, "second.jar");
+        write(first, "same content");
+        write(second, "same content");
+
+        new ContentAddressedCache(new File(root, "entry-1"), blobStore, false).loadFrom(first);
+        new ContentAddressedCache(new File(root, "entry-2"), blobStore, false).loadFrom(second);
+
+        try (Stream<Path> blobs = Files.walk(blobStore.root().toPath())) {
+            assertEquals(1, blobs.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    public void restoredOutputIsConsideredEqual() throws IOException {
+        final BlobStore blobStore = new BlobStore(new File(root, BlobStore.DIRECTORY_NAME));
+        final File output = new File(root, "output.jar");
+        write(output, "content");
+
+        final ContentAddressedCache cache = new ContentAddressedCache(new File(root, "entry"), blobStore, false);
+        cache.loadFrom(output);
+
+        //The original output is not linked to the blob, so it is compared by content.
+        assertFalse(cache.restoreTo(output));
+
+        final File restored = new File(root, "restored.jar");
+        assertTrue(cache.restoreTo(restored));
+        assertFalse(cache.restoreTo(restored));
+
+        Files.delete(restored.toPath());
+        write(restored, "changed");
+        assertTrue(cache.restoreTo(restored));
+        assertEquals("content", Files.readString(restored.toPath()));
+    }
+
+    @Test
+    public void restoredOutputsAreReadOnlyLinksToTheBlob() throws IOException {
+        final BlobStore blobStore = new BlobStore(new File(root, BlobStore.DIRECTORY_NAME));
+        final File output = new File(root, "output.jar");
+        write(output, "content");
+
+        final ContentAddressedCache cache = new ContentAddressedCache(new File(root, "entry"), blobStore, false);
+        cache.loadFrom(output);
+
+        final File restored = new File(root, "restored.jar");
+        assertTrue(cache.restoreTo(restored));
+
+        final Path blob = findBlob(blobStore);
+        assertTrue(Files.isSameFile(blob, restored.toPath()));
+        if (blob.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            //Permission checks are bypassed for privileged users, so check the mode itself.
+            assertFalse(Files.getPosixFilePermissions(blob).contains(PosixFilePermission.OWNER_WRITE));
+        } else {
+            assertFalse(Files.isWritable(blob));
+        }
+    }
+
+    @Test
+    public void touchingTheBlobKeepsLinkedOutputsRestored() throws IOException {
+        final BlobStore blobStore = new BlobStore(new File(root, BlobStore.DIRECTORY_NAME));
+        final File output = new File(root, "output.jar");
+        write(output, "content");
+
+        final ContentAddressedCache cache = new ContentAddressedCache(new File(root, "entry"), blobStore, false);
+        cache.loadFrom(output);
+
+        final File restored = new File(root, "restored.jar");
+        assertTrue(cache.restoreTo(restored));
+
+        //Storing the same content again marks the blob, and the outputs linked to it, as recently used.
+        final File duplicate = new File(root, "duplicate.jar");
+        write(duplicate, "content");
+        new ContentAddressedCache(new File(root, "entry-2"), blobStore, false).loadFrom(duplicate);
+
+        assertFalse(cache.restoreTo(restored));
+        assertTrue(Files.isSameFile(findBlob(blobStore), restored.toPath()));
+    }
+
+    @Test
+    public void modifyingLinkedOutputInPlaceDiscardsTheBlob() throws IOException {
+        final BlobStore blobStore = new BlobStore(new File(root, BlobStore.DIRECTORY_NAME));
+        final File output = new File(root, "output.jar");
+        write(output, "content");
+
+        final ContentAddressedCache cache = new ContentAddressedCache(new File(root, "entry"), blobStore, false);
+        cache.loadFrom(output);
+
+        final File first = new File(root, "first.jar");
+        final File second = new File(root, "second.jar");
+        assertTrue(cache.restoreTo(first));
+        assertTrue(cache.restoreTo(second));
+        final Path blob = findBlob(blobStore);
+
+        //Make the link writable and rewrite the same inode, with the same size, like an in place editor would.
+        assertTrue(first.setWritable(true));
+        Files.write(first.toPath(), "CONTENT".getBytes(StandardCharsets.UTF_8));
+        assertTrue(first.setLastModified(first.lastModified() - 10_000));
+
+        assertThrows(IOException.class, () -> cache.restoreTo(first));
+        assertFalse(Files.exists(blob));
+
+        //Once the output is stored again, it can be restored again.
+        cache.loadFrom(output);
+        assertTrue(cache.restoreTo(second));
+        assertEquals("content", Files.readString(second.toPath()));
+    }
+
+    @Test
+    public void missingOutputIsRestoredAsMissing() throws IOException {
+        final BlobStore blobStore = new BlobStore(new File(root, BlobStore.DIRECTORY_NAME));
+        final ContentAddressedCache cache = new ContentAddressedCache(new File(root, "entry"), blobStore, false);
+        cache.loadFrom(new File(root, "does-not-exist"));
+
+        final File restored = new File(root, "restored.jar");
+        write(restored, "stale");
+        assertTrue(cache.restoreTo(restored));
+        assertFalse(restored.exists());
+    }
+
+    private static Path findBlob(BlobStore blobStore) throws IOException {
+        try (Stream<Path> blobs = Files.walk(blobStore.root().toPath())) {
+            return blobs.filter(Files::isRegularFile).findFirst().orElseThrow();
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
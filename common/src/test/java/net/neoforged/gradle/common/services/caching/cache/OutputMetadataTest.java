@@ -0,0 +1,88 @@
+package net.neoforged.gradle.common.services.caching.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutputMetadataTest {
+
+    private static final long OLD = 1_000_000_000_000L;
+
+    @TempDir
+    public File root;
+
+    @Test
+    public void unchangedFileIsComparedByMetadata() throws IOException {
+        final File output = new File(root, "output.jar");
+        write(output, "content");
+
+        final FileCache cache = new FileCache(new File(root, "entry"));
+        cache.loadFrom(output);
+        assertFalse(cache.restoreTo(output));
+
+        //Corrupt the stored output without changing its metadata, an unchanged workspace output is never read again.
+        final File stored = new File(root, "entry/output");
+        write(stored, "CONTENT");
+        assertFalse(cache.restoreTo(output));
+        assertEquals("content", Files.readString(output.toPath()));
+    }
+
+    @Test
+    public void changedFileIsRestored() throws IOException {
+        final File output = new File(root, "output.jar");
+        write(output, "content");
+
+        final FileCache cache = new FileCache(new File(root, "entry"));
+        cache.loadFrom(output);
+
+        write(output, "changed content");
+        assertTrue(cache.restoreTo(output));
+        assertEquals("content", Files.readString(output.toPath()));
+        assertFalse(cache.restoreTo(output));
+    }
+
+    @Test
+    public void directoriesAreComparedIndependentOfTheirName() throws IOException {
+        final File output = new File(root, "output");
+        write(new File(output, "a.txt"), "a");
+        write(new File(output, "nested/b.txt"), "b");
+
+        final DirectoryCache cache = new DirectoryCache(new File(root, "entry"), 2);
+        cache.loadFrom(output);
+
+        final File other = new File(root, "other-workspace");
+        write(new File(other, "a.txt"), "a");
+        write(new File(other, "nested/b.txt"), "b");
+        assertFalse(cache.restoreTo(other));
+
+        write(new File(other, "nested/b.txt"), "changed");
+        assertTrue(cache.restoreTo(other));
+        assertEquals("b", Files.readString(new File(other, "nested/b.txt").toPath()));
+    }
+
+    @Test
+    public void entriesWithoutMetadataAreComparedByContent() throws IOException {
+        final File output = new File(root, "output.jar");
+        write(output, "content");
+
+        final FileCache cache = new FileCache(new File(root, "entry"));
+        cache.loadFrom(output);
+        assertTrue(new File(root, "entry/" + OutputMetadata.FILE_NAME).delete());
+
+        assertFalse(cache.restoreTo(output));
+        assertTrue(new File(root, "entry/" + OutputMetadata.FILE_NAME).exists());
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        //Fingerprints are only recorded for files which were not modified within the last seconds.
+        assertTrue(file.setLastModified(OLD));
+    }
+}
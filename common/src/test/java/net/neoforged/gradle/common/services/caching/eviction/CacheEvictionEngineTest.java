@@ -0,0 +1,134 @@
+package net.neoforged.gradle.common.services.caching.eviction;
+
+import net.neoforged.gradle.common.services.caching.locking.ChannelBasedFileLock;
+import net.neoforged.gradle.common.services.caching.locking.IOControlledFileBasedLock;
+import net.neoforged.gradle.common.services.caching.locking.LockManager;
+import net.neoforged.gradle.common.services.caching.locking.PIDBasedFileLock;
+import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
+import org.gradle.api.logging.Logging;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheEvictionEngineTest {
+
+    private static final CacheLogger LOGGER = new CacheLogger(Logging.getLogger(CacheEvictionEngineTest.class), "test", false, false);
+
+    @TempDir
+    public File cacheDirectory;
+
+    @Test
+    public void evictsLeastRecentlyUsedEntriesByCount() throws IOException {
+        final File oldest = createEntry("a", 1000, 10);
+        final File middle = createEntry("b", 2000, 10);
+        final File newest = createEntry("c", 3000, 10);
+
+        final EvictionResult result = new CacheEvictionEngine(cacheDirectory, 2, 0, LockManager.LockType.CHANNEL, LOGGER).evict();
+
+        assertEquals(1, result.evictedEntries());
+        assertEquals(10, result.reclaimedBytes());
+        assertEquals(2, result.remainingEntries());
+        assertFalse(oldest.exists());
+        assertTrue(middle.exists());
+        assertTrue(newest.exists());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntriesBySize() throws IOException {
+        final File oldest = createEntry("a", 1000, 100);
+        final File middle = createEntry("b", 2000, 100);
+        final File newest = createEntry("c", 3000, 100);
+
+        final EvictionResult result = new CacheEvictionEngine(cacheDirectory, 0, 150, LockManager.LockType.CHANNEL, LOGGER).evict();
+
+        assertEquals(2, result.evictedEntries());
+        assertEquals(200, result.reclaimedBytes());
+        assertFalse(oldest.exists());
+        assertFalse(middle.exists());
+        assertTrue(newest.exists());
+    }
+
+    @Test
+    public void skipsEntriesWhichAreInUse() throws Exception {
+        final File oldest = createEntry("a", 1000, 10);
+        final File newest = createEntry("b", 2000, 10);
+
+        final File lockFile = new File(oldest, LockManager.LOCK_FILE_NAME);
+        try (ChannelBasedFileLock ignored = new ChannelBasedFileLock(lockFile, LOGGER)) {
+            //Acquiring the lock writes the pid, restore the access time so this entry is the first eviction candidate.
+            assertTrue(lockFile.setLastModified(1000));
+
+            final EvictionResult result = new CacheEvictionEngine(cacheDirectory, 1, 0, LockManager.LockType.CHANNEL, LOGGER).evict();
+
+            assertEquals(1, result.evictedEntries());
+            assertEquals(1, result.skippedEntries());
+            assertTrue(new File(oldest, "output").exists());
+            assertFalse(newest.exists());
+        }
+    }
+
+    @Test
+    public void skipsEntriesWhichAreInUseWithPidBasedLocks() throws Exception {
+        final File oldest = createEntry("a", 1000, 10);
+        final File newest = createEntry("b", 2000, 10);
+
+        final File lockFile = new File(oldest, LockManager.LOCK_FILE_NAME);
+        try (PIDBasedFileLock ignored = new PIDBasedFileLock(lockFile, LOGGER)) {
+            assertTrue(lockFile.setLastModified(1000));
+
+            final EvictionResult result = new CacheEvictionEngine(cacheDirectory, 1, 0, LockManager.LockType.PID, LOGGER).evict();
+
+            assertEquals(1, result.evictedEntries());
+            assertEquals(1, result.skippedEntries());
+            assertTrue(new File(oldest, "output").exists());
+            //The lock file of a pid based lock is not removed, as its release would clear the pid of a new owner.
+            assertEquals(List.of(LockManager.LOCK_FILE_NAME), Arrays.asList(Objects.requireNonNull(newest.list())));
+        }
+    }
+
+    @Test
+    public void remainsOfEvictedEntriesAreNotEntries() throws IOException {
+        final File entry = createEntry("a", 1000, 10);
+        final File remains = new File(cacheDirectory, "b");
+        assertTrue(remains.mkdirs());
+        assertTrue(new File(remains, LockManager.LOCK_FILE_NAME).createNewFile());
+
+        final EvictionResult result = new CacheEvictionEngine(cacheDirectory, 1, 0, LockManager.LockType.PID, LOGGER).evict();
+
+        assertEquals(0, result.evictedEntries());
+        assertEquals(1, result.remainingEntries());
+        assertTrue(new File(entry, "output").exists());
+    }
+
+    @Test
+    public void doesNothingWhenWithinLimits() throws IOException {
+        final File entry = createEntry("a", 1000, 10);
+
+        final EvictionResult result = new CacheEvictionEngine(cacheDirectory, 10, 1000, LockManager.LockType.CHANNEL, LOGGER).evict();
+
+        assertEquals(0, result.evictedEntries());
+        assertEquals(1, result.remainingEntries());
+        assertTrue(entry.exists());
+    }
+
+    private File createEntry(String name, long lastAccess, int size) throws IOException {
+        final File directory = new File(cacheDirectory, name);
+        assertTrue(directory.mkdirs());
+
+        Files.write(new File(directory, "output").toPath(), new byte[size]);
+        assertTrue(new File(directory, IOControlledFileBasedLock.HEALTHY_FILE_NAME).createNewFile());
+
+        final File lockFile = new File(directory, LockManager.LOCK_FILE_NAME);
+        assertTrue(lockFile.createNewFile());
+        assertTrue(lockFile.setLastModified(lastAccess));
+        return directory;
+    }
+}
@@ -0,0 +1,77 @@
+package net.neoforged.gradle.common.services.caching.hasher;
+
+import net.neoforged.gradle.common.util.hash.Hashing;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileHashIndexTest {
+
+    private static final long PAST = 1_000_000_000_000L;
+
+    @TempDir
+    public File root;
+
+    @Test
+    public void unchangedFilesAreNotRehashed() throws IOException {
+        final FileHashIndex index = FileHashIndex.of(new File(root, "cache"), Hashing.sha256());
+        final File file = write("input.jar", "aaaa");
+
+        assertEquals(Hashing.sha256().hashFile(file), index.hash(file));
+
+        //Same size, same modification time and same inode, the index can not tell the difference.
+        Files.write(file.toPath(), "bbbb".getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(PAST));
+        assertEquals(Hashing.sha256().hashString("aaaa"), index.hash(file));
+    }
+
+    @Test
+    public void changedFilesAreRehashed() throws IOException {
+        final FileHashIndex index = FileHashIndex.of(new File(root, "cache"), Hashing.sha256());
+        final File file = write("input.jar", "aaaa");
+        index.hash(file);
+
+        Files.write(file.toPath(), "bbbbbb".getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(PAST));
+        assertEquals(Hashing.sha256().hashFile(file), index.hash(file));
+
+        Files.write(file.toPath(), "cccccc".getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(PAST + 1000));
+        assertEquals(Hashing.sha256().hashFile(file), index.hash(file));
+    }
+
+    @Test
+    public void recentlyModifiedFilesAreNotIndexed() throws IOException {
+        final FileHashIndex index = FileHashIndex.of(new File(root, "cache"), Hashing.sha256());
+        final File file = write("input.jar", "aaaa");
+        assertTrue(file.setLastModified(System.currentTimeMillis()));
+        index.hash(file);
+
+        Files.write(file.toPath(), "bbbb".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Hashing.sha256().hashString("bbbb"), index.hash(file));
+    }
+
+    @Test
+    public void indexIsWrittenToTheCacheDirectory() throws IOException {
+        final File cacheDirectory = new File(root, "cache");
+        final FileHashIndex index = FileHashIndex.of(cacheDirectory, Hashing.sha256());
+        index.hash(write("input.jar", "aaaa"));
+
+        index.save();
+
+        assertTrue(new File(cacheDirectory, FileHashIndex.FILE_NAME_PREFIX + "sha-256.bin").exists());
+    }
+
+    private File write(String name, String content) throws IOException {
+        final File file = new File(root, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(PAST));
+        return file;
+    }
+}
@@ -0,0 +1,108 @@
+package net.neoforged.gradle.common.services.caching.locking;
+
+import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
+import org.gradle.api.logging.Logging;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChannelBasedFileLockTest {
+
+    private static final CacheLogger LOGGER = new CacheLogger(Logging.getLogger(ChannelBasedFileLockTest.class), "test", false, false);
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void writesPidWhileHeldAndClearsItOnRelease() throws Exception {
+        final File lockFile = new File(directory, LockManager.LOCK_FILE_NAME);
+        try (ChannelBasedFileLock ignored = new ChannelBasedFileLock(lockFile, LOGGER)) {
+            assertEquals(String.valueOf(ProcessHandle.current().pid()), Files.readString(lockFile.toPath()));
+        }
+
+        assertEquals(0, lockFile.length());
+    }
+
+    @Test
+    public void tryLockFailsWhileHeld() throws Exception {
+        final File lockFile = new File(directory, LockManager.LOCK_FILE_NAME);
+        try (ChannelBasedFileLock ignored = new ChannelBasedFileLock(lockFile, LOGGER)) {
+            assertTrue(ChannelBasedFileLock.tryLock(lockFile, LOGGER).isEmpty());
+            assertTrue(CompletableFuture.supplyAsync(() -> tryLock(lockFile)).get(10, TimeUnit.SECONDS).isEmpty());
+        }
+
+        final Optional<ChannelBasedFileLock> lock = ChannelBasedFileLock.tryLock(lockFile, LOGGER);
+        assertTrue(lock.isPresent());
+        lock.get().close();
+    }
+
+    @Test
+    public void waitingThreadIsHandedTheLockOnRelease() throws Exception {
+        final File lockFile = new File(directory, LockManager.LOCK_FILE_NAME);
+        final CountDownLatch waiting = new CountDownLatch(1);
+        final AtomicLong acquiredAt = new AtomicLong();
+
+        final CompletableFuture<Void> waiter;
+        final long releasedAt;
+        try (ChannelBasedFileLock ignored = new ChannelBasedFileLock(lockFile, LOGGER)) {
+            waiter = CompletableFuture.runAsync(() -> {
+                waiting.countDown();
+                try (ChannelBasedFileLock lock = new ChannelBasedFileLock(lockFile, LOGGER)) {
+                    acquiredAt.set(System.nanoTime());
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            assertTrue(waiting.await(10, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            assertEquals(0, acquiredAt.get());
+            releasedAt = System.nanoTime();
+        }
+
+        waiter.get(10, TimeUnit.SECONDS);
+        //The waiter is woken up by the release, instead of polling the lock file.
+        assertTrue(acquiredAt.get() - releasedAt < TimeUnit.MILLISECONDS.toNanos(400));
+    }
+
+    @Test
+    public void respectsPidOfOtherRunningProcess() throws Exception {
+        final File lockFile = new File(directory, LockManager.LOCK_FILE_NAME);
+        final long otherPid = ProcessHandle.current().parent().orElseThrow().pid();
+        Files.write(lockFile.toPath(), String.valueOf(otherPid).getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(ChannelBasedFileLock.tryLock(lockFile, LOGGER).isEmpty());
+    }
+
+    @Test
+    public void takesOverLockOfKilledProcess() throws Exception {
+        final Process process = new ProcessBuilder("java", "-version").start();
+        process.waitFor();
+
+        final File lockFile = new File(directory, LockManager.LOCK_FILE_NAME);
+        Files.write(lockFile.toPath(), String.valueOf(process.pid()).getBytes(StandardCharsets.UTF_8));
+
+        final Optional<ChannelBasedFileLock> lock = ChannelBasedFileLock.tryLock(lockFile, LOGGER);
+        assertTrue(lock.isPresent());
+        assertEquals(String.valueOf(ProcessHandle.current().pid()), Files.readString(lockFile.toPath()));
+        lock.get().close();
+    }
+
+    private static Optional<ChannelBasedFileLock> tryLock(File lockFile) {
+        try {
+            return ChannelBasedFileLock.tryLock(lockFile, LOGGER);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package net.neoforged.gradle.common.services.download;
+
+import com.sun.net.httpserver.HttpServer;
+import net.neoforged.gradle.util.HashFunction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkDownloaderTest {
+
+    @TempDir
+    public File directory;
+
+    private HttpServer server;
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> failuresBeforeSuccess = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            final String name = exchange.getRequestURI().getPath().substring(1);
+            requestCounts.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+
+            final AtomicInteger failures = failuresBeforeSuccess.get(name);
+            if (name.startsWith("truncated") && failures != null && failures.getAndDecrement() > 0) {
+                //Send half of the announced content, then drop the connection.
+                final byte[] content = content(name);
+                exchange.sendResponseHeaders(200, content.length);
+                exchange.getResponseBody().write(content, 0, content.length / 2);
+                exchange.getResponseBody().flush();
+                exchange.close();
+                return;
+            }
+
+            if (name.startsWith("missing") || (failures != null && failures.getAndDecrement() > 0)) {
+                exchange.sendResponseHeaders(name.startsWith("missing") ? 404 : 503, -1);
+                exchange.close();
+                return;
+            }
+
+            final byte[] content = content(name);
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(content);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void downloadsAllFiles() throws IOException {
+        final List<DownloadRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            requests.add(request("file-" + i, new File(directory, "files/file-" + i)));
+        }
+
+        final AtomicLong progress = new AtomicLong();
+        try (BulkDownloader downloader = new BulkDownloader(8, 3, Duration.ofMillis(1))) {
+            downloader.download(requests, false, progress::addAndGet);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertArrayEquals(content("file-" + i), Files.readAllBytes(new File(directory, "files/file-" + i).toPath()));
+        }
+        assertEquals(requests.stream().mapToLong(DownloadRequest::size).sum(), progress.get());
+    }
+
+    @Test
+    public void skipsFilesWhichArePresent() throws IOException {
+        final File output = new File(directory, "present");
+        Files.write(output.toPath(), content("present"));
+
+        try (BulkDownloader downloader = new BulkDownloader(2, 3, Duration.ofMillis(1))) {
+            downloader.download(List.of(request("present", output)), false, bytes -> {});
+        }
+
+        assertNull(requestCounts.get("present"));
+    }
+
+    @Test
+    public void retriesTemporaryFailures() throws IOException {
+        failuresBeforeSuccess.put("flaky", new AtomicInteger(2));
+        final File output = new File(directory, "flaky");
+
+        try (BulkDownloader downloader = new BulkDownloader(2, 3, Duration.ofMillis(1))) {
+            downloader.download(List.of(request("flaky", output)), false, bytes -> {});
+        }
+
+        assertEquals(3, requestCounts.get("flaky").get());
+        assertArrayEquals(content("flaky"), Files.readAllBytes(output.toPath()));
+    }
+
+    @Test
+    public void progressOfFailedAttemptsIsReverted() throws IOException {
+        failuresBeforeSuccess.put("truncated", new AtomicInteger(2));
+        final DownloadRequest request = request("truncated", new File(directory, "truncated"));
+
+        final AtomicLong progress = new AtomicLong();
+        try (BulkDownloader downloader = new BulkDownloader(2, 3, Duration.ofMillis(1))) {
+            downloader.download(List.of(request), false, progress::addAndGet);
+        }
+
+        assertEquals(3, requestCounts.get("truncated").get());
+        assertEquals(request.size(), progress.get());
+    }
+
+    @Test
+    public void progressOfFailedDownloadsIsReverted() {
+        final DownloadRequest request = new DownloadRequest(url("corrupt"), new File(directory, "corrupt"), HashFunction.SHA1.hash("something else"), -1);
+
+        final AtomicLong progress = new AtomicLong();
+        final AtomicLong maximum = new AtomicLong();
+        try (BulkDownloader downloader = new BulkDownloader(2, 2, Duration.ofMillis(1))) {
+            assertThrows(IOException.class, () -> downloader.download(List.of(request), false, bytes -> maximum.accumulateAndGet(progress.addAndGet(bytes), Math::max)));
+        }
+
+        assertEquals(content("corrupt").length, maximum.get());
+        assertEquals(0, progress.get());
+    }
+
+    @Test
+    public void doesNotRetryMissingFiles() {
+        final File output = new File(directory, "missing");
+
+        try (BulkDownloader downloader = new BulkDownloader(2, 5, Duration.ofMillis(1))) {
+            assertThrows(IOException.class, () -> downloader.download(List.of(request("missing", output)), false, bytes -> {}));
+        }
+
+        assertEquals(1, requestCounts.get("missing").get());
+        assertFalse(output.exists());
+    }
+
+    @Test
+    public void rejectsFilesWithWrongDigest() {
+        final File output = new File(directory, "corrupt");
+        final DownloadRequest request = new DownloadRequest(url("corrupt"), output, HashFunction.SHA1.hash("something else"), -1);
+
+        try (BulkDownloader downloader = new BulkDownloader(2, 2, Duration.ofMillis(1))) {
+            assertThrows(IOException.class, () -> downloader.download(List.of(request), false, bytes -> {}));
+        }
+
+        assertFalse(output.exists());
+    }
+
+    private DownloadRequest request(String name, File output) {
+        final byte[] content = content(name);
+        return new DownloadRequest(url(name), output, HashFunction.SHA1.hash(content), content.length);
+    }
+
+    private URI url(String name) {
+        return URI.create("http://127.0.0.1:%d/%s".formatted(server.getAddress().getPort(), name));
+    }
+
+    private static byte[] content(String name) {
+        return ("content of " + name).repeat(100).getBytes(StandardCharsets.UTF_8);
+    }
+}
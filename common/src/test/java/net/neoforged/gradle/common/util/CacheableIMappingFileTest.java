@@ -0,0 +1,210 @@
+package net.neoforged.gradle.common.util;
+
+import net.minecraftforge.srgutils.IMappingBuilder;
+import net.minecraftforge.srgutils.IMappingFile;
+import net.neoforged.gradle.util.IMappingFileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheableIMappingFileTest {
+
+    /**
+     * An excerpt of the official mappings, in the ProGuard format in which they are published.
+     */
+    private static final String OFFICIAL_MAPPINGS = """
+            net.minecraft.world.entity.Entity -> bsr:
+                int id -> b
+                net.minecraft.world.level.Level level -> t
+                java.util.List passengers -> q
+                45:47:void <init>(net.minecraft.world.entity.EntityType,net.minecraft.world.level.Level) -> <init>
+                120:120:int getId() -> af
+                130:131:void setPos(double,double,double) -> e
+                140:140:net.minecraft.world.entity.Entity[] getPassengersArray() -> cN
+                void unknownLines() -> cO
+            net.minecraft.world.level.Level -> cmm:
+                boolean isClientSide -> B
+                200:205:net.minecraft.world.entity.Entity getEntity(int) -> a
+            net.minecraft.world.entity.EntityType -> bsx:
+            net.minecraft.world.entity.Entity$RemovalReason -> bsr$c:
+                net.minecraft.world.entity.Entity$RemovalReason KILLED -> a
+                1:1:net.minecraft.world.entity.Entity$RemovalReason[] values() -> values
+            """;
+
+    @Test
+    public void serializationRetainsAllNodes() throws Exception {
+        final IMappingFile original = createMappings();
+        final IMappingFile copy = roundTrip(new CacheableIMappingFile(original));
+
+        assertEquals(
+                IMappingFileUtils.writeMappingFile(original, IMappingFile.Format.TSRG2, false),
+                IMappingFileUtils.writeMappingFile(copy, IMappingFile.Format.TSRG2, false)
+        );
+    }
+
+    @Test
+    public void serializationRetainsMetadataAndDescriptors() throws Exception {
+        final IMappingFile copy = roundTrip(new CacheableIMappingFile(createMappings()));
+
+        final IMappingFile.IClass cls = copy.getClass("a");
+        assertEquals("net/example/Example", cls.getMapped());
+        assertEquals("An example", cls.getMetadata().get("comment"));
+        assertEquals("I", cls.getField("b").getDescriptor());
+
+        final IMappingFile.IMethod method = cls.getMethod("c", "(ILa;)V");
+        assertEquals("setValue", method.getMapped());
+        assertEquals("true", method.getMetadata().get("is_static"));
+        assertEquals(2, method.getParameters().size());
+        assertEquals("net/example/Example", copy.remapClass("a"));
+    }
+
+    @Test
+    public void serializationRetainsReversedMappings() throws Exception {
+        final IMappingFile reversed = createMappings().reverse();
+
+        assertSameMappings(reversed, roundTrip(new CacheableIMappingFile(reversed)));
+    }
+
+    @Test
+    public void serializationRetainsChainedMappings() throws Exception {
+        final IMappingFile original = createMappings();
+        final IMappingFile chained = original.chain(original.reverse());
+
+        assertSameMappings(chained, roundTrip(new CacheableIMappingFile(chained)));
+    }
+
+    @Test
+    public void serializationRetainsOfficialMappings() throws Exception {
+        final IMappingFile official = loadOfficialMappings();
+        final IMappingFile copy = roundTrip(new CacheableIMappingFile(official));
+
+        assertSameMappings(official, copy);
+        assertEquals("bsr", copy.remapClass("net/minecraft/world/entity/Entity"));
+        assertEquals("e", copy.getClass("net/minecraft/world/entity/Entity").getMethod("setPos", "(DDD)V").getMapped());
+        assertEquals(
+                official.getClass("net/minecraft/world/level/Level").getMethod("getEntity", "(I)Lnet/minecraft/world/entity/Entity;").getMetadata(),
+                copy.getClass("net/minecraft/world/level/Level").getMethod("getEntity", "(I)Lnet/minecraft/world/entity/Entity;").getMetadata()
+        );
+    }
+
+    @Test
+    public void serializationRetainsReversedAndChainedOfficialMappings() throws Exception {
+        //The official mappings are used from obfuscated to official names, with parameter names chained in front.
+        final IMappingFile reversed = loadOfficialMappings().reverse();
+        final IMappingFile chained = createParameterMappings().chain(reversed);
+
+        assertSameMappings(reversed, roundTrip(new CacheableIMappingFile(reversed)));
+
+        final IMappingFile copy = roundTrip(new CacheableIMappingFile(chained));
+        assertSameMappings(chained, copy);
+        assertEquals("net/minecraft/world/entity/Entity", copy.remapClass("bsr"));
+
+        final IMappingFile.IMethod method = copy.getClass("bsr").getMethod("e", "(DDD)V");
+        assertEquals("setPos", method.getMapped());
+        assertEquals(3, method.getParameters().size());
+    }
+
+    @Test
+    public void serializedMappingsCanBeSerializedAgain() throws Exception {
+        final IMappingFile official = createParameterMappings().chain(loadOfficialMappings().reverse());
+        final IMappingFile copy = roundTrip(new CacheableIMappingFile(roundTrip(new CacheableIMappingFile(official))));
+
+        assertSameMappings(official, copy);
+    }
+
+    /**
+     * Asserts that both mapping files contain the same nodes, with the same names, descriptors and metadata.
+     * The text formats drop most metadata, so the nodes are compared directly as well.
+     */
+    private static void assertSameMappings(IMappingFile expected, IMappingFile actual) {
+        assertEquals(describe(expected), describe(actual));
+        assertEquals(
+                IMappingFileUtils.writeMappingFile(expected, IMappingFile.Format.TSRG2, false),
+                IMappingFileUtils.writeMappingFile(actual, IMappingFile.Format.TSRG2, false)
+        );
+        assertEquals(
+                IMappingFileUtils.writeMappingFile(expected, IMappingFile.Format.TSRG2, true),
+                IMappingFileUtils.writeMappingFile(actual, IMappingFile.Format.TSRG2, true)
+        );
+    }
+
+    private static List<String> describe(IMappingFile file) {
+        final Comparator<IMappingFile.INode> sort = Comparator.comparing(IMappingFile.INode::getOriginal);
+        final List<String> lines = new ArrayList<>();
+        file.getPackages().stream().sorted(sort).forEachOrdered(pkg -> lines.add(describe("package", pkg, null)));
+        file.getClasses().stream().sorted(sort).forEachOrdered(cls -> {
+            lines.add(describe("class", cls, null));
+            cls.getFields().stream().sorted(sort).forEachOrdered(field -> lines.add(describe("field", field, field.getDescriptor())));
+            cls.getMethods().stream().sorted(sort.thenComparing(method -> ((IMappingFile.IMethod) method).getDescriptor())).forEachOrdered(method -> {
+                lines.add(describe("method", method, method.getDescriptor()));
+                method.getParameters().stream()
+                        .sorted(Comparator.comparingInt(IMappingFile.IParameter::getIndex))
+                        .forEachOrdered(parameter -> lines.add(describe("parameter " + parameter.getIndex(), parameter, null)));
+            });
+        });
+        return lines;
+    }
+
+    private static String describe(String kind, IMappingFile.INode node, String descriptor) {
+        return "%s %s %s %s %s".formatted(kind, node.getOriginal(), node.getMapped(), descriptor, new TreeMap<>(node.getMetadata()));
+    }
+
+    private static IMappingFile loadOfficialMappings() throws IOException {
+        return IMappingFile.load(new ByteArrayInputStream(OFFICIAL_MAPPINGS.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static IMappingFile createParameterMappings() {
+        final IMappingBuilder builder = IMappingBuilder.create("left", "right");
+        final IMappingBuilder.IClass entity = builder.addClass("bsr", "bsr");
+        entity.method("(DDD)V", "e", "e")
+                .parameter(1, "o", "x").build()
+                .parameter(3, "p", "y").build()
+                .parameter(5, "q", "z");
+        entity.method("(Lbsx;Lcmm;)V", "<init>", "<init>")
+                .parameter(1, "o", "type").meta("comment", "The type of the entity").build()
+                .parameter(2, "p", "level");
+        builder.addClass("cmm", "cmm")
+                .method("(I)Lbsr;", "a", "a")
+                .parameter(1, "o", "id");
+        return builder.build().getMap("left", "right");
+    }
+
+    private static IMappingFile createMappings() {
+        final IMappingBuilder builder = IMappingBuilder.create("left", "right");
+        builder.addPackage("a", "net/example");
+        final IMappingBuilder.IClass cls = builder.addClass("a", "net/example/Example").meta("comment", "An example");
+        cls.field("b", "value").descriptor("I");
+        cls.method("(ILa;)V", "c", "setValue")
+                .meta("is_static", "true")
+                .parameter(0, "o", "value").build()
+                .parameter(1, "p", "example");
+        cls.method("()I", "d", "getValue");
+        builder.addClass("b", "net/example/Other").field("a", "other");
+        return builder.build().getMap("left", "right");
+    }
+
+    private static IMappingFile roundTrip(CacheableIMappingFile file) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialize(file)))) {
+            return (IMappingFile) in.readObject();
+        }
+    }
+
+    private static byte[] serialize(CacheableIMappingFile file) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(file);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,80 @@
+package net.neoforged.gradle.common.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClassFileSummaryTest {
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void referencesIncludeTypesOfSignatures() throws IOException {
+        final ClassFileSummary summary = ClassFileSummary.read(compile("Example",
+                "public class Example extends java.util.AbstractList<java.util.UUID> implements Runnable {\n" +
+                "    private java.util.Map<String, java.math.BigInteger> values;\n" +
+                "    public java.util.UUID get(int index) { return null; }\n" +
+                "    public int size() { return new java.util.ArrayList<String>().size(); }\n" +
+                "    public java.util.List<java.time.Instant> times() { return null; }\n" +
+                "    public void run() { }\n" +
+                "}"));
+
+        assertTrue(summary.references().contains("java/util/AbstractList"));
+        assertTrue(summary.references().contains("java/lang/Runnable"));
+        assertTrue(summary.references().contains("java/util/UUID"));
+        assertTrue(summary.references().contains("java/util/Map"));
+        assertTrue(summary.references().contains("java/math/BigInteger"));
+        assertTrue(summary.references().contains("java/util/ArrayList"));
+        assertTrue(summary.references().contains("java/time/Instant"));
+    }
+
+    @Test
+    public void signatureIgnoresMethodBodies() throws IOException {
+        final ClassFileSummary first = ClassFileSummary.read(compile("Example",
+                "public class Example { public int value() { return 1; } }"));
+        final ClassFileSummary second = ClassFileSummary.read(compile("Example",
+                "public class Example { public int value() { return 2 + Integer.parseInt(\"3\"); } }"));
+
+        assertEquals(first.signature(), second.signature());
+    }
+
+    @Test
+    public void signatureCoversMembers() throws IOException {
+        final ClassFileSummary original = ClassFileSummary.read(compile("Example",
+                "public class Example { public int value() { return 1; } }"));
+        final ClassFileSummary renamed = ClassFileSummary.read(compile("Example",
+                "public class Example { public int other() { return 1; } }"));
+        final ClassFileSummary generic = ClassFileSummary.read(compile("Example",
+                "public class Example<T> { public int value() { return 1; } }"));
+        final ClassFileSummary field = ClassFileSummary.read(compile("Example",
+                "public class Example { protected long count; public int value() { return 1; } }"));
+
+        assertNotEquals(original.signature(), renamed.signature());
+        assertNotEquals(original.signature(), generic.signature());
+        assertNotEquals(original.signature(), field.signature());
+    }
+
+    @Test
+    public void invalidClassFilesAreRejected() {
+        assertThrows(IOException.class, () -> ClassFileSummary.read("not a class file".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private byte[] compile(String className, String source) throws IOException {
+        final File sourceDirectory = Files.createTempDirectory(directory.toPath(), "source").toFile();
+        final File sourceFile = new File(sourceDirectory, className + ".java");
+        Files.writeString(sourceFile.toPath(), source);
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, "-d", sourceDirectory.getAbsolutePath(), sourceFile.getAbsolutePath()));
+        return Files.readAllBytes(new File(sourceDirectory, className + ".class").toPath());
+    }
+}
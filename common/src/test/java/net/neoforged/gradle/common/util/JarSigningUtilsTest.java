@@ -0,0 +1,89 @@
+package net.neoforged.gradle.common.util;
+
+import jdk.security.jarsigner.JarSigner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JarSigningUtilsTest {
+
+    private static final String PASSWORD = "password";
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void onlyMatchingEntriesAreSigned() throws Exception {
+        final File input = new File(directory, "input.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(input))) {
+            zip.putNextEntry(new ZipEntry("a/"));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("a/Signed.class"));
+            zip.write("signed".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("a/unsigned.txt"));
+            zip.write("unsigned".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        final JarSigner signer = JarSigningUtils.createSigner(createKeyStore(), "neoforged-test", PASSWORD.toCharArray(), null);
+        final File output = new File(directory, "output.jar");
+        JarSigningUtils.sign(input, output, directory, signer, entry -> entry.name().endsWith(".class"));
+
+        try (JarFile jar = new JarFile(output, true)) {
+            assertNotNull(jar.getEntry("META-INF/NEOFORGE.SF"));
+            assertNotNull(jar.getEntry("a/"));
+            assertNotNull(readAndGetCodeSigners(jar, "a/Signed.class"));
+            assertNull(readAndGetCodeSigners(jar, "a/unsigned.txt"));
+        }
+        assertFalse(new File(directory, "input.jar.unsigned.tmp").exists());
+    }
+
+    @Test
+    public void missingKeysAreRejected() throws Exception {
+        final File keyStore = createKeyStore();
+        assertThrows(GeneralSecurityException.class, () -> JarSigningUtils.createSigner(keyStore, "missing", PASSWORD.toCharArray(), null));
+    }
+
+    @Test
+    public void signerNamesAreDerivedFromTheAlias() {
+        assertEquals("NEOFORGE", JarSigningUtils.getSignerName("neoforged-test"));
+        assertEquals("MY_KEY", JarSigningUtils.getSignerName("my.key"));
+    }
+
+    private static Object readAndGetCodeSigners(JarFile jar, String name) throws IOException {
+        final JarEntry entry = jar.getJarEntry(name);
+        //The signers of an entry are only known once it was read completely.
+        try (InputStream stream = jar.getInputStream(entry)) {
+            stream.readAllBytes();
+        }
+        return entry.getCodeSigners();
+    }
+
+    private File createKeyStore() throws IOException, InterruptedException {
+        final File keyStore = new File(directory, "keystore.p12");
+        final File keytool = new File(System.getProperty("java.home"), "bin/keytool");
+        final Process process = new ProcessBuilder(
+                keytool.getAbsolutePath(), "-genkeypair",
+                "-keystore", keyStore.getAbsolutePath(), "-storetype", "PKCS12", "-storepass", PASSWORD,
+                "-alias", "neoforged-test", "-keyalg", "RSA", "-keysize", "2048", "-validity", "1",
+                "-dname", "CN=NeoGradle Test"
+        ).redirectErrorStream(true).start();
+        process.getInputStream().transferTo(OutputStream.nullOutputStream());
+        assertEquals(0, process.waitFor());
+        return keyStore;
+    }
+}
@@ -0,0 +1,82 @@
+package net.neoforged.gradle.common.util.hash;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelHashingTest {
+
+    @TempDir
+    public File root;
+
+    @Test
+    public void parallelDirectoryHashIsIdenticalToSequentialHash() throws IOException {
+        for (int i = 0; i < 50; i++) {
+            write(new File(root, "dir-" + (i % 5) + "/nested-" + (i % 3) + "/file-" + i + ".txt"), "content " + i);
+        }
+        write(new File(root, "top.txt"), "top");
+
+        assertEquals(Hashing.hashDirectory(root, 1), Hashing.hashDirectory(root, 8));
+        assertEquals(Hashing.hashDirectory(root), Hashing.hashDirectory(root, 8));
+    }
+
+    @Test
+    public void directoryHashDependsOnContentAndRelativePathsOnly() throws IOException {
+        final File first = new File(root, "first");
+        final File second = new File(root, "second");
+        for (File directory : List.of(first, second)) {
+            write(new File(directory, "a.txt"), "a");
+            write(new File(directory, "nested/b.txt"), "b");
+        }
+
+        assertEquals(Hashing.hashDirectory(first, 4), Hashing.hashDirectory(second, 4));
+
+        write(new File(second, "nested/b.txt"), "changed");
+        assertNotEquals(Hashing.hashDirectory(first, 4), Hashing.hashDirectory(second, 4));
+
+        write(new File(second, "nested/b.txt"), "b");
+        assertTrue(new File(second, "nested/b.txt").renameTo(new File(second, "nested/c.txt")));
+        assertNotEquals(Hashing.hashDirectory(first, 4), Hashing.hashDirectory(second, 4));
+    }
+
+    @Test
+    public void filesAreHashedInTheirOriginalOrder() throws IOException {
+        final List<File> files = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final File file = new File(root, "file-" + i + ".txt");
+            write(file, "content " + i);
+            files.add(file);
+        }
+
+        final List<HashCode> sequential = ParallelHashing.hashFiles(files, Hashing::hashFile, 1);
+        final List<HashCode> parallel = ParallelHashing.hashFiles(files, Hashing::hashFile, 8);
+
+        assertEquals(sequential, parallel);
+        assertEquals(Hashing.hashFile(files.get(42)), parallel.get(42));
+    }
+
+    @Test
+    public void failuresArePropagated() {
+        final List<File> files = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            files.add(new File(root, "file-" + i + ".txt"));
+        }
+
+        assertThrows(IOException.class, () -> ParallelHashing.hashFiles(files, file -> {
+            throw new IOException("Failed to hash: " + file);
+        }, 4));
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -49,4 +49,13 @@ interface Decompiler extends ConfigurableDSLElement<Decompiler> {
     @DSLProperty
     ListProperty<String> getJvmArgs();
 
+    /**
+     * Whether the decompiled sources of single classes are cached, so that only changed classes are decompiled
+     * when the Minecraft version changes. Defaults to false.
+     */
+    @Input
+    @Optional
+    @DSLProperty
+    Property<Boolean> getIncremental();
+
 }
@@ -34,6 +34,34 @@ interface Tools extends ConfigurableDSLElement<Tools> {
     @DSLProperty
     Property<String> getDevLogin();
 
+    /**
+     * Whether tool jars, like the decompiler, are executed inside of long-lived worker daemons, instead of forking
+     * a new process for every execution.
+     * Tools which terminate the worker daemon are executed in a forked process again.
+     */
+    @Input
+    @Optional
+    @DSLProperty
+    Property<Boolean> getUseWorkerDaemons();
+
+    /**
+     * Whether consecutive steps of the NeoForm pipeline which run inside of Gradle, like injecting additional files into
+     * the decompiled sources and patching them, are executed as a single step.
+     * This avoids writing and reading back the intermediate jars of these steps.
+     */
+    @Input
+    @Optional
+    @DSLProperty
+    Property<Boolean> getFuseInProcessSteps();
+
+    /**
+     * The maximum number of threads used to apply mappings to source files. By default, it will use all available threads.
+     */
+    @Input
+    @Optional
+    @DSLProperty
+    Property<Integer> getSourceRemappingThreads();
+
     /**
      * Tool configuration for RenderDoc and RenderNurse.
      * @return The RenderDoc tool configuration.
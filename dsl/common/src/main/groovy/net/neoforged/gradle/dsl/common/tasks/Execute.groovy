@@ -78,28 +78,39 @@ interface Execute extends WithWorkspace, WithOutput, WithJavaVersion, ExecuteSpe
     }
 
     default Provider<List<String>> applyVariableSubstitutions(Provider<List<String>> list) {
-        return list.map(values -> {
-            final List<String> interpolated = new ArrayList<>()
-            for (i in 0..<values.size()) {
-                final String value = values.get(i)
-                final String previous = i == 0 ? null : values.get(i - 1)
+        return list.map((List<String> values) -> applyVariableSubstitutions(values)) as Provider<List<String>>
+    }
 
-                final List<String> substituted = ((Execute) this).interpolateVariableSubstitution(value, previous)
+    default List<String> applyVariableSubstitutions(List<String> values) {
+        final List<String> interpolated = new ArrayList<>()
+        for (i in 0..<values.size()) {
+            final String value = values.get(i)
+            final String previous = i == 0 ? null : values.get(i - 1)
 
-                if (substituted.size() != 1) {
-                    interpolated.removeAt(interpolated.size() - 1)
-                }
+            final List<String> substituted = ((Execute) this).interpolateVariableSubstitution(value, previous)
 
-                interpolated.addAll(substituted)
+            if (substituted.size() != 1) {
+                interpolated.removeAt(interpolated.size() - 1)
             }
 
-            return interpolated
-        }) as Provider<List<String>>
+            interpolated.addAll(substituted)
+        }
+
+        return interpolated
     }
 
     default void doExecute() throws Exception {
+        doExecute(getRuntimeProgramArguments().get())
+    }
+
+    /**
+     * Executes the tool in a forked process with the given program arguments, instead of the runtime program arguments.
+     *
+     * @param programArguments The program arguments, before variable substitution.
+     */
+    default void doExecute(List<String> programArguments) throws Exception {
         final Provider<List<String>> jvmArgs = applyVariableSubstitutions(getJvmArguments())
-        final Provider<List<String>> programArgs = applyVariableSubstitutions(getRuntimeProgramArguments())
+        final List<String> programArgs = applyVariableSubstitutions(programArguments)
 
         final File outputFile = ensureFileWorkspaceReady(getOutput())
         final File logFile = ensureFileWorkspaceReady(getLogFile())
@@ -117,7 +128,7 @@ interface Execute extends WithWorkspace, WithOutput, WithJavaVersion, ExecuteSpe
                 PrintWriter writer = new PrintWriter(log_out)
                 Function<String, CharSequence> quote = s -> (CharSequence) ('"' + s + '"')
                 writer.println("JVM Args:          " + jvmArgs.get().stream().map(quote).collect(Collectors.joining(", ")))
-                writer.println("Run Args:          " + programArgs.get().stream().map(quote).collect(Collectors.joining(", ")))
+                writer.println("Run Args:          " + programArgs.stream().map(quote).collect(Collectors.joining(", ")))
                 writer.println("JVM:               " + executable.get())
                 writer.println("Classpath:         " + me.getExecutingJar().get().getAsFile().getAbsolutePath())
                 writer.println("Working Dir:       " + me.getOutputDirectory().get().getAsFile().getAbsolutePath())
@@ -128,7 +139,7 @@ interface Execute extends WithWorkspace, WithOutput, WithJavaVersion, ExecuteSpe
 
                 java.executable(executable.get())
                 java.setJvmArgs(jvmArgs.get())
-                java.setArgs(programArgs.get())
+                java.setArgs(programArgs)
                 java.setClasspath(me.getObjectFactory().fileCollection().from(me.getExecutingJar().get()))
                 java.setWorkingDir(me.getOutputDirectory().get())
                 java.getMainClass().set(mainClass)
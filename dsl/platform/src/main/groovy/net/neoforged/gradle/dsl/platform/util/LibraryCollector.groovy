@@ -4,7 +4,6 @@ import groovy.transform.CompileStatic
 import net.neoforged.gradle.dsl.platform.model.Artifact
 import net.neoforged.gradle.dsl.platform.model.Library
 import net.neoforged.gradle.dsl.platform.model.LibraryDownload
-import net.neoforged.gradle.util.HashFunction
 import org.apache.commons.io.FilenameUtils
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier
 import org.gradle.api.artifacts.result.ResolvedArtifactResult
@@ -18,7 +17,7 @@ import java.net.http.HttpResponse
 import java.nio.file.Files
 import java.util.concurrent.CompletableFuture
 import java.util.concurrent.Future
-import java.util.function.Function
+import java.util.concurrent.Semaphore
 
 @CompileStatic
 class LibraryCollector extends ModuleIdentificationVisitor {
@@ -40,17 +39,37 @@ class LibraryCollector extends ModuleIdentificationVisitor {
     private static final URI MODCRAFT_MAVEN = URI.create("https://maven.modcraftmc.fr/releases")
     private static final URI SPONGE_MAVEN = URI.create("https://repo.spongepowered.org/maven/")
 
+    /**
+     * The maximal amount of concurrent requests to the repositories, shared by all libraries being searched.
+     */
+    private static final int MAX_IN_FLIGHT_REQUESTS = 32
+
     private final ObjectFactory objectFactory;
     private final List<URI> repositoryUrls
 
     private final List<Future<Library>> libraries = new ArrayList<>();
 
     private final HttpClient httpClient = HttpClient.newBuilder().build();
+    private final Semaphore inFlightRequests = new Semaphore(MAX_IN_FLIGHT_REQUESTS)
+    private final LibraryRepositoryCache cache
     private final Logger logger
 
     LibraryCollector(ObjectFactory objectFactory, List<URI> repoUrl, Logger logger) {
+        this(objectFactory, repoUrl, null, logger)
+    }
+
+    /**
+     * Creates a new collector which remembers the repositories of the collected libraries in the given cache file.
+     *
+     * @param objectFactory The object factory to create the libraries with.
+     * @param repoUrl The repositories to search, in addition to the default ones.
+     * @param cacheFile The file of the {@link LibraryRepositoryCache}, or null if nothing should be persisted.
+     * @param logger The logger.
+     */
+    LibraryCollector(ObjectFactory objectFactory, List<URI> repoUrl, @Nullable File cacheFile, Logger logger) {
         super(objectFactory);
         this.logger = logger
+        this.cache = new LibraryRepositoryCache(cacheFile)
         this.objectFactory = objectFactory;
         this.repositoryUrls = new ArrayList<>(repoUrl)
 
@@ -127,50 +146,97 @@ class LibraryCollector extends ModuleIdentificationVisitor {
         final String path = group.replace(".", "/") + "/" + module + "/" + version + "/" + module + "-" + version + (classifier.isEmpty() ? "" : "-" + classifier) + "." + extension;
 
         library.getName().set(name);
+        String sha1
         try {
+            sha1 = cache.getSha1(file)
             artifact.getPath().set(path);
-            artifact.getSha1().set(HashFunction.SHA1.hash(file));
+            artifact.getSha1().set(sha1);
             artifact.getSize().set(Files.size(file.toPath()));
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
 
-        // Try each configured repository in-order to find the file
-        CompletableFuture<Library> libraryFuture = null;
-        for (var repositoryUrl in repositoryUrls) {
-            def artifactUri = joinUris(repositoryUrl, path)
-            var request = HttpRequest.newBuilder(artifactUri)
-                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
-                    .build()
-
-            Function<String, CompletableFuture<Library>> makeRequest = (String previousError) -> {
-                httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
-                        .thenApply { response ->
-                            if (response.statusCode() != 200) {
-                                logger.info("  Got ${response.statusCode()} for ${artifactUri}")
-                                String message = "Could not find ${artifactUri}: ${response.statusCode()}"
-                                // Prepend error message from previous repo if they all fail
-                                if (previousError != null) {
-                                    message = previousError + "\n" + message
-                                }
-                                throw new RuntimeException(message)
-                            }
-                            logger.info("  Found $name -> $artifactUri")
-                            artifact.getUrl().set(artifactUri.toString());
-                            library
-                        }
-            };
-
-            if (libraryFuture == null) {
-                libraryFuture = makeRequest(null)
-            } else {
-                libraryFuture = libraryFuture.exceptionallyCompose { error ->
-                    makeRequest(error.getMessage())
+        final LibraryRepositoryCache.Entry cached = cache.getRepository(name, sha1)
+        CompletableFuture<URI> repositoryFuture
+        if (cached == null || !repositoryUrls.contains(cached.repository)) {
+            repositoryFuture = findRepository(name, sha1, path)
+        } else if (!cached.needsRevalidation()) {
+            logger.info("  Cached $name -> ${cached.repository}")
+            repositoryFuture = CompletableFuture.completedFuture(cached.repository)
+        } else {
+            // Revalidate the cached repository, and only search all of them if it no longer serves the library
+            repositoryFuture = probe(name, joinUris(cached.repository, path)).thenCompose { String error ->
+                if (error != null) {
+                    return findRepository(name, sha1, path)
                 }
+                cache.putRepository(name, sha1, cached.repository)
+                return CompletableFuture.completedFuture(cached.repository)
+            }
+        }
+
+        libraries.add(repositoryFuture.thenApply { URI repositoryUrl ->
+            artifact.getUrl().set(joinUris(repositoryUrl, path).toString())
+            library
+        })
+    }
+
+    /**
+     * Probes the repositories in order, and picks the first one which serves the library.
+     * A repository is only probed once all earlier ones missed, libraries are searched concurrently.
+     */
+    private CompletableFuture<URI> findRepository(String name, String sha1, String path) {
+        return findRepository(name, sha1, path, 0, new ArrayList<String>())
+    }
+
+    private CompletableFuture<URI> findRepository(String name, String sha1, String path, int index, List<String> errors) {
+        if (index >= repositoryUrls.size()) {
+            return CompletableFuture.<URI>failedFuture(new RuntimeException(errors.join("\n")))
+        }
+
+        final URI repositoryUrl = repositoryUrls.get(index)
+        return probe(name, joinUris(repositoryUrl, path)).thenCompose { String error ->
+            if (error == null) {
+                cache.putRepository(name, sha1, repositoryUrl)
+                return CompletableFuture.completedFuture(repositoryUrl)
             }
+
+            errors.add(error)
+            return findRepository(name, sha1, path, index + 1, errors)
         }
+    }
 
-        libraries.add(libraryFuture);
+    /**
+     * Sends a HEAD request for the given artifact, blocking while too many requests are in flight.
+     *
+     * @return A future for the error message, which is null if the artifact was found.
+     */
+    private CompletableFuture<String> probe(String name, URI artifactUri) {
+        var request = HttpRequest.newBuilder(artifactUri)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build()
+
+        inFlightRequests.acquire()
+        final CompletableFuture<HttpResponse<Void>> response
+        try {
+            response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+        } catch (Exception e) {
+            inFlightRequests.release()
+            throw e
+        }
+
+        return response.handle { HttpResponse<Void> result, Throwable error ->
+            inFlightRequests.release()
+            if (error != null) {
+                logger.info("  Failed to request ${artifactUri}: ${error.message}")
+                return "Could not find ${artifactUri}: ${error.message}".toString()
+            }
+            if (result.statusCode() != 200) {
+                logger.info("  Got ${result.statusCode()} for ${artifactUri}")
+                return "Could not find ${artifactUri}: ${result.statusCode()}".toString()
+            }
+            logger.info("  Found $name -> $artifactUri")
+            return (String) null
+        }
     }
 
     private static URI joinUris(URI repositoryUrl, String path) {
@@ -192,6 +258,7 @@ class LibraryCollector extends ModuleIdentificationVisitor {
             it.get()
         }
         logger.info("Collected ${result.size()} libraries")
+        cache.save()
         return new HashSet<>(result)
     }
 }
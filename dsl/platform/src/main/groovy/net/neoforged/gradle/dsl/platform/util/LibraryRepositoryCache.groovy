@@ -0,0 +1,176 @@
+package net.neoforged.gradle.dsl.platform.util
+
+import groovy.transform.CompileStatic
+import net.neoforged.gradle.util.HashFunction
+import org.jetbrains.annotations.Nullable
+
+import java.nio.file.AtomicMoveNotSupportedException
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.time.Duration
+
+/**
+ * A persistent cache of the repositories which serve the libraries collected by the {@link LibraryCollector}.
+ * <p>
+ * The repository of a library is keyed by its coordinate and the sha1 of its file, so a republished artifact is always
+ * probed again. Entries are trusted without any request for a while, after that the cached repository is revalidated
+ * the next time the library is collected. Additionally the sha1 of each library file is cached by its path, size and
+ * modification time, so unchanged files do not need to be hashed again.
+ */
+@CompileStatic
+class LibraryRepositoryCache {
+
+    /**
+     * The time after which the cached repository of a library is revalidated.
+     */
+    public static final Duration REVALIDATION_INTERVAL = Duration.ofDays(7)
+
+    private static final String HASH_PREFIX = "sha1:"
+    private static final String REPOSITORY_PREFIX = "repository:"
+
+    @Nullable
+    private final File file
+    private final Properties entries = new Properties()
+    private final Properties updatedEntries = new Properties()
+
+    /**
+     * Creates a new cache, which is loaded from the given file.
+     *
+     * @param file The file of the cache, or null if nothing should be persisted.
+     */
+    LibraryRepositoryCache(@Nullable File file) {
+        this.file = file
+        if (file != null) {
+            load(file, entries)
+        }
+    }
+
+    /**
+     * Gets the sha1 of the given file, it is only computed if the file changed since it was last hashed.
+     *
+     * @param library The library file.
+     * @return The sha1 of the file.
+     */
+    String getSha1(File library) {
+        final String key = HASH_PREFIX + library.getAbsolutePath()
+        final String fingerprint = library.length() + ":" + library.lastModified() + ":"
+
+        final String cached = entries.getProperty(key)
+        if (cached != null && cached.startsWith(fingerprint)) {
+            return cached.substring(fingerprint.length())
+        }
+
+        final String sha1 = HashFunction.SHA1.hash(library)
+        put(key, fingerprint + sha1)
+        return sha1
+    }
+
+    /**
+     * Gets the repository which served the library with the given coordinate and sha1.
+     *
+     * @param name The coordinate of the library.
+     * @param sha1 The sha1 of the library.
+     * @return The cached repository, or null if the library was not resolved yet.
+     */
+    @Nullable
+    Entry getRepository(String name, String sha1) {
+        final String cached = entries.getProperty(REPOSITORY_PREFIX + name + "#" + sha1)
+        final int separator = cached == null ? -1 : cached.indexOf('|')
+        if (separator < 0) {
+            return null
+        }
+
+        try {
+            return new Entry(URI.create(cached.substring(separator + 1)), Long.parseLong(cached.substring(0, separator)))
+        } catch (IllegalArgumentException ignored) {
+            //Damaged entries are resolved again.
+            return null
+        }
+    }
+
+    /**
+     * Records that the library with the given coordinate and sha1 was found in the given repository just now.
+     *
+     * @param name The coordinate of the library.
+     * @param sha1 The sha1 of the library.
+     * @param repository The repository which serves the library.
+     */
+    void putRepository(String name, String sha1, URI repository) {
+        put(REPOSITORY_PREFIX + name + "#" + sha1, System.currentTimeMillis() + "|" + repository)
+    }
+
+    /**
+     * Writes the updated entries to the file of the cache.
+     * The file is reloaded first, so entries written concurrently by other builds are kept.
+     */
+    void save() {
+        if (file == null || updatedEntries.isEmpty()) {
+            return
+        }
+
+        final Properties merged = new Properties()
+        load(file, merged)
+        merged.putAll(updatedEntries)
+        //Forget the hashes of files which were removed, for example when the gradle cache was cleaned up.
+        merged.stringPropertyNames()
+                .findAll { it.startsWith(HASH_PREFIX) && !new File(it.substring(HASH_PREFIX.length())).exists() }
+                .each { merged.remove(it) }
+
+        try {
+            file.getParentFile().mkdirs()
+            final File temporary = File.createTempFile(file.getName(), ".tmp", file.getParentFile())
+            try {
+                temporary.withOutputStream { merged.store(it, "Repositories of the libraries collected for launcher and installer profiles") }
+                try {
+                    Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+                } catch (AtomicMoveNotSupportedException ignored) {
+                    Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING)
+                }
+            } finally {
+                Files.deleteIfExists(temporary.toPath())
+            }
+            updatedEntries.clear()
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the library repository cache: " + file, e)
+        }
+    }
+
+    private void put(String key, String value) {
+        entries.setProperty(key, value)
+        updatedEntries.setProperty(key, value)
+    }
+
+    private static void load(File file, Properties target) {
+        if (!file.exists()) {
+            return
+        }
+
+        try {
+            file.withInputStream { target.load(it) }
+        } catch (IOException | IllegalArgumentException ignored) {
+            //A damaged cache only costs the requests to resolve the libraries again.
+            target.clear()
+        }
+    }
+
+    /**
+     * A cached repository of a library.
+     */
+    @CompileStatic
+    static final class Entry {
+        final URI repository
+        final long verifiedAt
+
+        Entry(URI repository, long verifiedAt) {
+            this.repository = repository
+            this.verifiedAt = verifiedAt
+        }
+
+        /**
+         * @return True if the repository was verified too long ago to be trusted without a request.
+         */
+        boolean needsRevalidation() {
+            return System.currentTimeMillis() - verifiedAt > REVALIDATION_INTERVAL.toMillis()
+        }
+    }
+}
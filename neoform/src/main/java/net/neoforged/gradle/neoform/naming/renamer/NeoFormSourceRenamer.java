@@ -21,7 +21,7 @@
 package net.neoforged.gradle.neoform.naming.renamer;
 
 import de.siegmar.fastcsv.reader.NamedCsvReader;
-import net.neoforged.gradle.common.runtime.naming.renamer.RegexBasedSourceRenamer;
+import net.neoforged.gradle.common.runtime.naming.renamer.TokenBasedSourceRenamer;
 import org.gradle.api.tasks.Nested;
 
 import java.io.File;
@@ -34,7 +34,7 @@ import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
-public class NeoFormSourceRenamer extends RegexBasedSourceRenamer {
+public class NeoFormSourceRenamer extends TokenBasedSourceRenamer {
 
     public static NeoFormSourceRenamer from(File data) throws IOException {
         Map<String, String> names = new HashMap<>();
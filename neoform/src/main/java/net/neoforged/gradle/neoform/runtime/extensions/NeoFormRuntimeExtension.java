@@ -5,6 +5,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import net.minecraftforge.gdi.ConfigurableDSLElement;
 import net.neoforged.gradle.common.runtime.extensions.CommonRuntimeExtension;
+import net.neoforged.gradle.common.runtime.tasks.Decompile;
 import net.neoforged.gradle.common.runtime.tasks.DefaultExecute;
 import net.neoforged.gradle.common.runtime.tasks.ListLibraries;
 import net.neoforged.gradle.common.util.ConfigurationUtils;
@@ -123,12 +124,22 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
                             );
                 });
             case "patch":
+                final Optional<TaskProvider<InjectZipContent>> fusedInjection = adaptedInput.isPresent() ? Optional.empty() : findFusableInjection(spec, step, tasks);
                 return spec.getProject().getTasks().register(
                         CommonRuntimeUtils.buildTaskName(spec, step.getName()),
                         Patch.class,
                         task -> {
-                            task.getInput().fileProvider(NeoFormRuntimeUtils.getTaskInputFor(spec, tasks, step, task));
-                            task.getPatchArchive().from(spec.getProject().fileTree(spec.getNeoFormArchive()));
+                            if (fusedInjection.isPresent()) {
+                                //Inject directly into the patched output, the injection task is then never executed.
+                                //The providers are only resolved with the patch task, so the injection task is not realized.
+                                //Flat mapping keeps the dependencies of the injection inputs, not on the injection task itself.
+                                final TaskProvider<InjectZipContent> injection = fusedInjection.get();
+                                task.getInput().set(injection.flatMap(InjectZipContent::getInjectionSource));
+                                task.getInjectedSources().set(injection.flatMap(InjectZipContent::getInjectedSources));
+                            } else {
+                                task.getInput().fileProvider(NeoFormRuntimeUtils.getTaskInputFor(spec, tasks, step, task));
+                            }
+                            task.getPatchArchive().from(spec.getNeoFormArchive());
                             task.getPatchDirectory().set(neoFormConfigV2.getData("patches", spec.getDistribution().getName()));
                         }
                 );
@@ -149,6 +160,23 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
         return null;
     }
 
+    /**
+     * Finds the injection task which produces the input of the given patch step, if the injection can be fused into
+     * the patch step: fusing is enabled, and the input is the plain output of the injection task, not of an adapter.
+     */
+    private static Optional<TaskProvider<InjectZipContent>> findFusableInjection(NeoFormRuntimeSpecification spec, NeoFormConfigConfigurationSpecV1.Step step, Map<String, TaskProvider<? extends WithOutput>> tasks) {
+        final Tools tools = spec.getProject().getExtensions().getByType(Subsystems.class).getTools();
+        final String inputValue = step.getValue("input");
+        if (!tools.getFuseInProcessSteps().get() || inputValue == null) {
+            return Optional.empty();
+        }
+
+        return NeoFormRuntimeUtils.getInputTaskForTaskFrom(spec, inputValue, tasks)
+                .map(TaskProvider::getName)
+                .filter(name -> spec.getProject().getTasks().withType(InjectZipContent.class).getNames().contains(name))
+                .map(name -> spec.getProject().getTasks().named(name, InjectZipContent.class));
+    }
+
     @NotNull
     private static TaskProvider<? extends Runtime> createDecompile(NeoFormRuntimeSpecification spec, NeoFormConfigConfigurationSpecV1.Step step, NeoFormConfigConfigurationSpecV2 neoFormConfig) {
         NeoFormConfigConfigurationSpecV1.Function function = neoFormConfig.getFunction(step.getType());
@@ -183,7 +211,7 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
         }
         decompilerArgs.add(0, "-log=" + logLevel);
 
-        return spec.getProject().getTasks().register(CommonRuntimeUtils.buildTaskName(spec, step.getName()), DefaultExecute.class, task -> {
+        return spec.getProject().getTasks().register(CommonRuntimeUtils.buildTaskName(spec, step.getName()), Decompile.class, task -> {
             task.getExecutingJar().set(ToolUtilities.resolveTool(task.getProject(), function.getVersion()));
             task.getJvmArguments().addAll(jvmArgs);
             task.getProgramArguments().addAll(decompilerArgs);
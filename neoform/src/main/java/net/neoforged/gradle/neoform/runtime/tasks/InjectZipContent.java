@@ -4,10 +4,12 @@ import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
 import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
 import net.neoforged.gradle.util.FileUtils;
-import org.apache.commons.io.IOUtils;
+import net.neoforged.gradle.util.RawZipFile;
+import net.neoforged.gradle.util.ZipRewriter;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.RegularFile;
 import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
@@ -23,18 +25,16 @@ import org.gradle.api.tasks.util.PatternSet;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 /**
@@ -76,16 +76,62 @@ public abstract class InjectZipContent extends DefaultRuntime {
 
         String packageInfoTemplateContent = findPackageInfoTemplate(injectedSources);
 
-        try (OutputStream fileOut = new FileOutputStream(outputZipFile);
-             ZipOutputStream zos = new ZipOutputStream(fileOut)) {
+        final Path injectedZipFile = writeInjectedContent(injectedSources, outputZipFile);
+        try {
+            try (ZipRewriter rewriter = new ZipRewriter(outputZipFile)) {
+                copyInputZipContent(inputZipFile, rewriter, true, packageInfoTemplateContent);
+                copyInjectedContent(injectedZipFile.toFile(), rewriter, getLogger());
+            }
+        } finally {
+            Files.deleteIfExists(injectedZipFile);
+        }
+    }
+
+    /**
+     * Adds the content of the given injection sources to a zip file that was derived from the input of the injection,
+     * like the patched sources, without rewriting it. This allows other tasks to perform the injection as part of
+     * their own output, instead of writing a separate injected zip file.
+     * <p>
+     * The package-info files are generated for the packages of the original input, and entries of the zip file take
+     * precedence over the injected content, just like the entries of the input do in this task.
+     *
+     * @param injectedSources The sources to inject.
+     * @param inputZipFile The original input of the injection.
+     * @param outputZipFile The zip file to add the injected content to.
+     * @param logger The logger for duplicate files.
+     * @throws IOException If the content could not be injected.
+     */
+    static void appendInjectedContent(List<AbstractInjectSource> injectedSources, File inputZipFile, File outputZipFile, Logger logger) throws IOException {
+        String packageInfoTemplateContent = findPackageInfoTemplate(injectedSources);
 
-            copyInputZipContent(inputZipFile, zos, packageInfoTemplateContent);
+        final Path injectedZipFile = writeInjectedContent(injectedSources, outputZipFile);
+        try {
+            try (ZipRewriter rewriter = ZipRewriter.append(outputZipFile)) {
+                copyInputZipContent(inputZipFile, rewriter, false, packageInfoTemplateContent);
+                copyInjectedContent(injectedZipFile.toFile(), rewriter, logger);
+            }
+        } finally {
+            Files.deleteIfExists(injectedZipFile);
+        }
+    }
 
+    /*
+     * The injection sources write through a zip output stream, so they are collected in a separate zip first,
+     * which is then merged into the output without recompressing it.
+     */
+    private static Path writeInjectedContent(List<AbstractInjectSource> injectedSources, File outputZipFile) throws IOException {
+        final Path injectedZipFile = FileUtils.temporaryPath(outputZipFile.getParentFile().toPath(), "injected");
+        try (OutputStream fileOut = Files.newOutputStream(injectedZipFile);
+             ZipOutputStream zos = new ZipOutputStream(fileOut)) {
             // Copy over the injection sources
             for (AbstractInjectSource injectedSource : injectedSources) {
                 injectedSource.copyTo(zos);
             }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(injectedZipFile);
+            throw e;
         }
+        return injectedZipFile;
     }
 
     /*
@@ -93,7 +139,7 @@ public abstract class InjectZipContent extends DefaultRuntime {
      * found in any one of the inject directories.
      */
     @Nullable
-    private String findPackageInfoTemplate(List<AbstractInjectSource> injectedSources) throws IOException {
+    private static String findPackageInfoTemplate(List<AbstractInjectSource> injectedSources) throws IOException {
         // Try to find a package-info-template.java
         for (AbstractInjectSource injectedSource : injectedSources) {
             byte[] content = injectedSource.tryReadFile("package-info-template.java");
@@ -106,28 +152,45 @@ public abstract class InjectZipContent extends DefaultRuntime {
 
     /*
      * Copies the original ZIP content while applying the optional package-info.java transform.
+     * When the content was already copied, only the package-info.java files are written.
      */
-    private void copyInputZipContent(File inputZipFile, ZipOutputStream zos, @Nullable String packageInfoTemplateContent) throws IOException {
+    private static void copyInputZipContent(File inputZipFile, ZipRewriter rewriter, boolean copyEntries, @Nullable String packageInfoTemplateContent) throws IOException {
         Set<String> visited = new HashSet<>();
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(inputZipFile))) {
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
-                zos.putNextEntry(entry);
-                IOUtils.copyLarge(zis, zos);
-                zos.closeEntry();
+        try (RawZipFile zip = RawZipFile.open(inputZipFile)) {
+            for (RawZipFile.Entry entry : zip.entries()) {
+                if (copyEntries) {
+                    rewriter.copy(zip, entry);
+                }
 
                 if (packageInfoTemplateContent != null) {
-                    String pkg = entry.isDirectory() && !entry.getName().endsWith("/") ? entry.getName() : entry.getName().indexOf('/') == -1 ? "" : entry.getName().substring(0, entry.getName().lastIndexOf('/'));
+                    String pkg = entry.name().indexOf('/') == -1 ? "" : entry.name().substring(0, entry.name().lastIndexOf('/'));
                     if (visited.add(pkg)) {
                         if (!pkg.startsWith("net/minecraft/") &&
                                 !pkg.startsWith("com/mojang/")) {
                             continue;
                         }
-                        zos.putNextEntry(FileUtils.getStableEntry(pkg + "/package-info.java"));
-                        zos.write(packageInfoTemplateContent.replace("{PACKAGE}", pkg.replaceAll("/", ".")).getBytes(StandardCharsets.UTF_8));
-                        zos.closeEntry();
+                        rewriter.write(pkg + "/package-info.java", packageInfoTemplateContent.replace("{PACKAGE}", pkg.replaceAll("/", ".")).getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Copies the content of the injection sources, the original ZIP content takes precedence.
+     */
+    private static void copyInjectedContent(File injectedZipFile, ZipRewriter rewriter, Logger logger) throws IOException {
+        try (RawZipFile zip = RawZipFile.open(injectedZipFile)) {
+            for (RawZipFile.Entry entry : zip.entries()) {
+                if (rewriter.contains(entry.name())) {
+                    // Warn on duplicate files, but ignore duplicate directories
+                    if (!entry.isDirectory()) {
+                        logger.warn("Cannot inject duplicate file {}", entry.name());
                     }
+                    continue;
                 }
+
+                rewriter.copy(zip, entry);
             }
         }
     }
@@ -9,12 +9,18 @@ import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
 import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
 import org.gradle.api.file.*;
+import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.*;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
 
 @CacheableTask
 public abstract class Patch extends DefaultRuntime {
@@ -44,6 +50,24 @@ public abstract class Patch extends DefaultRuntime {
         final File output = ensureFileWorkspaceReady(getOutput());
         final File rejects = getRejectsFile().get().getAsFile();
 
+        final Set<File> patchSources = getPatchArchive().getFiles();
+        if (patchSources.size() == 1) {
+            final File patchSource = patchSources.iterator().next();
+            if (patchSource.isFile()) {
+                //Read the patches directly from the archive, instead of extracting it first.
+                try (FileSystem archive = FileSystems.newFileSystem(patchSource.toPath())) {
+                    applyPatches(input, output, rejects, locatePatchDirectory(archive.getPath("/"), getPatchDirectory().get()));
+                }
+                return;
+            }
+
+            if (patchSource.isDirectory()) {
+                applyPatches(input, output, rejects, locatePatchDirectory(patchSource.toPath(), getPatchDirectory().get()));
+                return;
+            }
+        }
+
+        //Arbitrary file trees, like zip trees, need to be extracted.
         final String patchDirectory = getPatchDirectory().get();
         final ExtractingAndRootCollectingVisitor patchArchiveLocator = new ExtractingAndRootCollectingVisitor(patchDirectory);
         getPatchArchive()
@@ -62,14 +86,48 @@ public abstract class Patch extends DefaultRuntime {
             throw new RuntimeException("Patch directory not found.");
         }
 
-        PatchOperation.Builder builder = PatchOperation.builder()
-                .logTo(getLogger()::lifecycle)
+        applyPatches(input, output, rejects, patchArchiveLocator.directory.toPath());
+    }
+
+    /**
+     * Locates the patch directory in the given root, which can be a directory or the root of an archive file system.
+     *
+     * @param root The root to locate the patch directory in.
+     * @param patchDirectory The path of the patch directory, relative to the root.
+     * @return The patch directory.
+     */
+    static Path locatePatchDirectory(Path root, String patchDirectory) {
+        final Path directory = root.resolve(patchDirectory);
+        if (!Files.isDirectory(directory)) {
+            throw new RuntimeException("Patch directory not found.");
+        }
+
+        return directory;
+    }
+
+    /**
+     * Creates the operation which applies the patches in the given directory to the input archive.
+     * The patch directory does not need to be on the default file system, so patches can be read from an archive.
+     *
+     * @param input The archive to patch.
+     * @param output The patched archive.
+     * @param rejects The archive to write rejected hunks to.
+     * @param patches The directory containing the patches.
+     * @return The builder of the operation.
+     */
+    static PatchOperation.Builder createPatchOperation(File input, File output, File rejects, Path patches) {
+        return PatchOperation.builder()
                 .baseInput(MultiInput.detectedArchive(input.toPath()))
-                .patchesInput(MultiInput.folder(patchArchiveLocator.directory.toPath()))
+                .patchesInput(MultiInput.folder(patches))
                 .patchedOutput(MultiOutput.detectedArchive(output.toPath()))
                 .rejectsOutput(MultiOutput.detectedArchive(rejects.toPath()))
-                .level(getIsVerbose().get() ? io.codechicken.diffpatch.util.LogLevel.ALL : io.codechicken.diffpatch.util.LogLevel.WARN)
                 .mode(PatchMode.OFFSET);
+    }
+
+    private void applyPatches(File input, File output, File rejects, Path patches) throws Exception {
+        PatchOperation.Builder builder = createPatchOperation(input, output, rejects, patches)
+                .logTo(getLogger()::lifecycle)
+                .level(getIsVerbose().get() ? io.codechicken.diffpatch.util.LogLevel.ALL : io.codechicken.diffpatch.util.LogLevel.WARN);
 
         if (getPatchesModifiedPrefix().isPresent()) {
             builder = builder.bPrefix(getPatchesModifiedPrefix().get());
@@ -87,12 +145,21 @@ public abstract class Patch extends DefaultRuntime {
             throw new RuntimeException("Patch failure.");
         }
 
+        if (!getInjectedSources().get().isEmpty()) {
+            InjectZipContent.appendInjectedContent(getInjectedSources().get(), input, output, getLogger());
+        }
     }
 
     @InputFile
     @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getInput();
 
+    /**
+     * The source of the patches: either a single archive or directory, from which the patches are read directly,
+     * or a file tree, which is extracted before patching.
+     *
+     * @return The source of the patches.
+     */
     @InputFiles
     @PathSensitive(PathSensitivity.NONE)
     public abstract ConfigurableFileCollection getPatchArchive();
@@ -100,6 +167,16 @@ public abstract class Patch extends DefaultRuntime {
     @Input
     public abstract Property<String> getPatchDirectory();
 
+    /**
+     * Content which is injected into the patched output, like {@link InjectZipContent} does.
+     * This allows an injection step that only feeds this task to be fused into it, so that no separate injected
+     * jar is written. The content is added after patching, so the patches can not modify injected files.
+     *
+     * @return The sources of the injected content, empty by default.
+     */
+    @Nested
+    public abstract ListProperty<AbstractInjectSource> getInjectedSources();
+
     @OutputFile
     public abstract RegularFileProperty getRejectsFile();
 
@@ -4,7 +4,9 @@ import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
 import net.neoforged.gradle.util.FileUtils;
-import org.apache.commons.io.IOUtils;
+import net.neoforged.gradle.util.HashFunction;
+import net.neoforged.gradle.util.RawZipFile;
+import net.neoforged.gradle.util.ZipRewriter;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
@@ -13,17 +15,32 @@ import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.*;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
-import java.util.jar.JarOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.Set;
+import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 
 @CacheableTask
 public abstract class StripJar extends DefaultRuntime {
 
+    private static final int MAX_CACHED_FILTERS = 4;
+
+    //Parsed class filters, keyed by the digest of the mappings files they were parsed from.
+    private static final Map<String, Set<String>> FILTERS_BY_MAPPINGS = Collections.synchronizedMap(new LinkedHashMap<>(MAX_CACHED_FILTERS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+            return size() > MAX_CACHED_FILTERS;
+        }
+    });
+
     public StripJar() {
         super();
 
@@ -35,13 +52,9 @@ public abstract class StripJar extends DefaultRuntime {
                         return null;
                     }
 
-                    return getMappingsFiles().getFiles()
-                            .stream()
-                            .flatMap(file -> FileUtils.readAllLines(file.toPath()))
-                            .filter(l -> !l.startsWith("\t"))
-                            .map(s -> s.split(" ")[0] + ".class")
-                            .distinct()
-                            .collect(Collectors.toList());
+                    return List.copyOf(filtersOf(getMappingsFiles().getFiles().stream()
+                            .sorted()
+                            .collect(Collectors.toList())));
                 })
         );
 
@@ -58,6 +71,13 @@ public abstract class StripJar extends DefaultRuntime {
                 this,
                 ICacheableJob.Default.file(getOutput(), this::doRun)
         ).execute();
+
+        if (!getKeptEntries().isPresent()) {
+            //The output was restored from the cache, its entries are counted instead.
+            final StripResult result = count(getInput().get().getAsFile(), getOutput().get().getAsFile());
+            getKeptEntries().set(result.kept());
+            getDroppedEntries().set(result.dropped());
+        }
     }
 
     protected void doRun() throws Exception {
@@ -65,38 +85,138 @@ public abstract class StripJar extends DefaultRuntime {
         final File output = ensureFileWorkspaceReady(getOutput());
         final boolean isWhitelist = getIsWhitelistMode().get();
 
-        strip(input, output, isWhitelist);
+        final StripResult result = strip(input, output, getEffectiveFilters(), isWhitelist);
+        getKeptEntries().set(result.kept());
+        getDroppedEntries().set(result.dropped());
+        getLogger().info("Stripped {}: kept {} entries, dropped {} entries", input.getName(), result.kept(), result.dropped());
     }
 
-    private void strip(File input, File output, boolean whitelist) throws IOException {
-        try (JarInputStream is = new JarInputStream(new FileInputStream(input));
-             FileOutputStream fout = new FileOutputStream(output);
-             JarOutputStream os = new JarOutputStream(fout)) {
+    /**
+     * @return The configured filters, which default to the classes of the mappings files, or null if no entries are filtered.
+     */
+    private Set<String> getEffectiveFilters() {
+        return getFilters().isPresent() ? new HashSet<>(getFilters().get()) : null;
+    }
 
-            // Ignore any entry that's not allowed
-            JarEntry entry;
-            while ((entry = is.getNextJarEntry()) != null) {
-                if (!isEntryValid(entry, whitelist)) {
+    /**
+     * Gets the classes of the given mappings files, they are only parsed if the last few calls did not use the same content.
+     *
+     * @param mappingsFiles The mappings files.
+     * @return The names of the class files of the mappings files, in the order of the mappings files.
+     * @throws IOException If the mappings files could not be hashed.
+     */
+    static Set<String> filtersOf(List<File> mappingsFiles) throws IOException {
+        //The digests of the individual files are hashed, so that content can not move between files unnoticed.
+        final List<String> digests = new ArrayList<>(mappingsFiles.size());
+        for (File mappingsFile : mappingsFiles) {
+            digests.add(HashFunction.SHA1.hash(mappingsFile));
+        }
+
+        return FILTERS_BY_MAPPINGS.computeIfAbsent(HashFunction.SHA1.hash(String.join("\n", digests)), key -> parseFilters(mappingsFiles));
+    }
+
+    private static Set<String> parseFilters(List<File> mappingsFiles) {
+        final Set<String> filters = mappingsFiles.stream()
+                .flatMap(file -> FileUtils.readAllLines(file.toPath()))
+                .filter(l -> !l.startsWith("\t"))
+                .map(s -> s.split(" ")[0] + ".class")
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return Collections.unmodifiableSet(filters);
+    }
+
+    /**
+     * Copies the entries of the input which pass the filters to the output, without recompressing them.
+     * Like the {@link java.util.jar.JarInputStream} this task used to read the input with, directories and a manifest at
+     * the start of the input are never copied.
+     *
+     * @param input The jar to strip.
+     * @param output The stripped jar.
+     * @param filters The names of the entries to keep, or to drop if not in whitelist mode. Null to keep all entries.
+     * @param whitelist True if the filters name the entries to keep.
+     * @return The amount of kept and dropped entries.
+     * @throws IOException If the jar could not be stripped.
+     */
+    static StripResult strip(File input, File output, Set<String> filters, boolean whitelist) throws IOException {
+        int kept = 0;
+        int dropped = 0;
+        try (RawZipFile zip = RawZipFile.open(input);
+             ZipRewriter rewriter = new ZipRewriter(output)) {
+
+            final List<RawZipFile.Entry> entries = zip.entries();
+            final int manifestIndex = manifestIndex(entries);
+
+            // Ignore any entry that's not allowed, the others are copied without recompressing them
+            for (int i = 0; i < entries.size(); i++) {
+                final RawZipFile.Entry entry = entries.get(i);
+                if (i == manifestIndex || !isEntryValid(entry, filters, whitelist)) {
+                    dropped++;
                     continue;
                 }
-                os.putNextEntry(entry);
-                IOUtils.copyLarge(is, os);
-                os.closeEntry();
+                rewriter.copy(zip, entry);
+                kept++;
+            }
+        }
+
+        return new StripResult(kept, dropped);
+    }
+
+    /**
+     * Counts the kept and dropped entries of a jar which was stripped before, from the central directories of both jars.
+     *
+     * @param input The jar which was stripped.
+     * @param output The stripped jar.
+     * @return The amount of kept and dropped entries.
+     * @throws IOException If the jars could not be read.
+     */
+    static StripResult count(File input, File output) throws IOException {
+        try (RawZipFile inputZip = RawZipFile.open(input);
+             RawZipFile outputZip = RawZipFile.open(output)) {
+            final int kept = outputZip.entries().size();
+            return new StripResult(kept, inputZip.entries().size() - kept);
+        }
+    }
+
+    /**
+     * Determines the index of the manifest which a {@link java.util.jar.JarInputStream} would consume instead of
+     * returning it as an entry. That is the case when it is the first entry, or the second one after {@code META-INF/}.
+     *
+     * @return The index of the manifest, or -1 if the input has no such manifest.
+     */
+    private static int manifestIndex(List<RawZipFile.Entry> entries) {
+        for (int i = 0; i < Math.min(2, entries.size()); i++) {
+            final String name = entries.get(i).name().toUpperCase(Locale.ROOT);
+            if (name.equals(JarFile.MANIFEST_NAME)) {
+                return i;
+            }
+
+            if (!name.equals("META-INF/")) {
+                break;
             }
         }
+
+        return -1;
     }
 
-    private boolean isEntryValid(JarEntry entry, boolean whitelist) {
+    private static boolean isEntryValid(RawZipFile.Entry entry, Set<String> filters, boolean whitelist) {
         if (entry.isDirectory())
             return false;
 
-        if (getFilters().isPresent()) {
-            return getFilters().get().contains(entry.getName()) == whitelist;
+        if (filters != null) {
+            return filters.contains(entry.name()) == whitelist;
         }
 
         return true;
     }
 
+    /**
+     * The result of stripping a jar.
+     *
+     * @param kept The amount of entries copied to the output.
+     * @param dropped The amount of entries which were not copied.
+     */
+    record StripResult(int kept, int dropped) {
+    }
+
     @InputFiles
     @PathSensitive(PathSensitivity.NONE)
     @Optional
@@ -106,10 +226,27 @@ public abstract class StripJar extends DefaultRuntime {
     @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getInput();
 
+    /**
+     * @return The names of the entries to keep, or to drop if not in whitelist mode. Defaults to the classes of the mappings files.
+     */
     @Input
     @Optional
     public abstract ListProperty<String> getFilters();
 
     @Input
     public abstract Property<Boolean> getIsWhitelistMode();
+
+    /**
+     * @return The amount of entries that were kept by the last execution of this task, also when its output was restored
+     * from the cache. Not set if Gradle considered the task up to date, or took its output from the build cache.
+     */
+    @Internal
+    public abstract Property<Integer> getKeptEntries();
+
+    /**
+     * @return The amount of entries that were dropped by the last execution of this task, also when its output was restored
+     * from the cache. Not set if Gradle considered the task up to date, or took its output from the build cache.
+     */
+    @Internal
+    public abstract Property<Integer> getDroppedEntries();
 }
@@ -0,0 +1,98 @@
+package net.neoforged.gradle.neoform.runtime.tasks;
+
+import io.codechicken.diffpatch.cli.CliOperation;
+import io.codechicken.diffpatch.cli.PatchOperation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatchTest {
+
+    private static final String ORIGINAL = "public class Test {\n    int value = 1;\n}\n";
+    private static final String PATCHED = "public class Test {\n    int value = 2;\n}\n";
+    private static final String PATCH = """
+            --- a/Test.java
+            +++ b/Test.java
+            @@ -1,3 +1,3 @@
+             public class Test {
+            -    int value = 1;
+            +    int value = 2;
+             }
+            """;
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void appliesPatchesReadFromAnArchive() throws Exception {
+        final File patches = new File(directory, "patches.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(patches))) {
+            zip.putNextEntry(new ZipEntry("patches/"));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("patches/Test.java.patch"));
+            zip.write(PATCH.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        try (FileSystem archive = FileSystems.newFileSystem(patches.toPath())) {
+            final Path patchDirectory = Patch.locatePatchDirectory(archive.getPath("/"), "patches/");
+            assertNotEquals(FileSystems.getDefault(), patchDirectory.getFileSystem());
+            assertPatched(patchDirectory);
+        }
+    }
+
+    @Test
+    public void appliesPatchesReadFromADirectory() throws Exception {
+        final Path patchFile = directory.toPath().resolve("extracted/patches/Test.java.patch");
+        Files.createDirectories(patchFile.getParent());
+        Files.writeString(patchFile, PATCH);
+
+        assertPatched(Patch.locatePatchDirectory(directory.toPath().resolve("extracted"), "patches/"));
+    }
+
+    @Test
+    public void missingPatchDirectoryIsReported() throws IOException {
+        final File patches = new File(directory, "empty.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(patches))) {
+            zip.putNextEntry(new ZipEntry("other/"));
+            zip.closeEntry();
+        }
+
+        try (FileSystem archive = FileSystems.newFileSystem(patches.toPath())) {
+            assertThrows(RuntimeException.class, () -> Patch.locatePatchDirectory(archive.getPath("/"), "patches/"));
+        }
+    }
+
+    private void assertPatched(Path patchDirectory) throws Exception {
+        final File input = new File(directory, "input.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(input))) {
+            zip.putNextEntry(new ZipEntry("Test.java"));
+            zip.write(ORIGINAL.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        final File output = new File(directory, "output.jar");
+        final File rejects = new File(directory, "rejects.zip");
+        final CliOperation.Result<PatchOperation.PatchesSummary> result = Patch.createPatchOperation(input, output, rejects, patchDirectory)
+                .build()
+                .operate();
+
+        assertEquals(0, result.exit);
+        try (ZipFile zip = new ZipFile(output)) {
+            assertEquals(PATCHED, new String(zip.getInputStream(zip.getEntry("Test.java")).readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package net.neoforged.gradle.neoform.runtime.tasks;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripJarTest {
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void whitelistKeepsTheSameEntriesAsTheStreamBasedFilter() throws IOException {
+        final File input = createJar(true);
+        final Set<String> filters = Set.of("a.class", "b/c.class", "stored.class", "META-INF/MANIFEST.MF");
+
+        assertStripsLikeStreamBasedFilter(input, filters, true);
+    }
+
+    @Test
+    public void blacklistKeepsTheSameEntriesAsTheStreamBasedFilter() throws IOException {
+        final File input = createJar(true);
+        final Set<String> filters = Set.of("a.class");
+
+        assertStripsLikeStreamBasedFilter(input, filters, false);
+    }
+
+    @Test
+    public void withoutFiltersKeepsTheSameEntriesAsTheStreamBasedFilter() throws IOException {
+        assertStripsLikeStreamBasedFilter(createJar(true), null, true);
+        assertStripsLikeStreamBasedFilter(createJar(false), null, true);
+    }
+
+    @Test
+    public void keptEntriesAreCopiedWithoutRecompressing() throws IOException {
+        final File input = createJar(true);
+        final File output = new File(directory, "output.jar");
+        StripJar.strip(input, output, null, true);
+
+        try (ZipFile source = new ZipFile(input);
+             ZipFile stripped = new ZipFile(output)) {
+            for (ZipEntry entry : Collections.list(stripped.entries())) {
+                final ZipEntry original = source.getEntry(entry.getName());
+                assertEquals(original.getMethod(), entry.getMethod(), entry.getName());
+                assertEquals(original.getCompressedSize(), entry.getCompressedSize(), entry.getName());
+                assertEquals(original.getCrc(), entry.getCrc(), entry.getName());
+            }
+
+            assertEquals(ZipEntry.STORED, stripped.getEntry("stored.class").getMethod());
+        }
+    }
+
+    @Test
+    public void filtersAreCachedPerMappingsContent() throws IOException {
+        final File mappings = writeMappings("mappings.tsrg", "a b", "c/d e/f");
+        final File copy = writeMappings("copy.tsrg", "a b", "c/d e/f");
+
+        final Set<String> filters = StripJar.filtersOf(List.of(mappings));
+        assertEquals(Set.of("a.class", "c/d.class"), filters);
+        assertSame(filters, StripJar.filtersOf(List.of(mappings)));
+        assertSame(filters, StripJar.filtersOf(List.of(copy)));
+
+        //Only the most recently used filters are kept.
+        for (int i = 0; i < 4; i++) {
+            StripJar.filtersOf(List.of(writeMappings("other-" + i + ".tsrg", "other" + i + " x")));
+        }
+
+        final Set<String> reparsed = StripJar.filtersOf(List.of(mappings));
+        assertNotSame(filters, reparsed);
+        assertEquals(filters, reparsed);
+    }
+
+    @Test
+    public void recentlyUsedFiltersSurviveEviction() throws IOException {
+        final File mappings = writeMappings("recent.tsrg", "recent a");
+        final Set<String> filters = StripJar.filtersOf(List.of(mappings));
+
+        for (int i = 0; i < 8; i++) {
+            StripJar.filtersOf(List.of(writeMappings("filler-" + i + ".tsrg", "filler" + i + " x")));
+            //Using the filters again makes them the most recently used entry.
+            assertSame(filters, StripJar.filtersOf(List.of(mappings)));
+        }
+    }
+
+    @Test
+    public void filtersDependOnTheBoundariesOfTheMappingsFiles() throws IOException {
+        final File first = new File(directory, "first.tsrg");
+        final File second = new File(directory, "second.tsrg");
+        Files.writeString(first.toPath(), "x y\nc");
+        Files.writeString(second.toPath(), "d e\n");
+
+        final File joined = new File(directory, "joined.tsrg");
+        final File split = new File(directory, "split.tsrg");
+        Files.writeString(joined.toPath(), "x y\n");
+        Files.writeString(split.toPath(), "cd e\n");
+
+        //Both pairs of files have the same concatenated content.
+        assertEquals(Set.of("x.class", "c.class", "d.class"), StripJar.filtersOf(List.of(first, second)));
+        assertEquals(Set.of("x.class", "cd.class"), StripJar.filtersOf(List.of(joined, split)));
+    }
+
+    @Test
+    public void countedEntriesMatchTheStripResult() throws IOException {
+        final File input = createJar(true);
+        final File output = new File(directory, "output.jar");
+        final StripJar.StripResult result = StripJar.strip(input, output, Set.of("a.class", "b/c.class"), true);
+
+        assertEquals(result, StripJar.count(input, output));
+        assertEquals(2, result.kept());
+    }
+
+    private void assertStripsLikeStreamBasedFilter(File input, Set<String> filters, boolean whitelist) throws IOException {
+        final File expected = new File(directory, "expected.jar");
+        final File actual = new File(directory, "actual.jar");
+
+        streamBasedStrip(input, expected, filters, whitelist);
+        final StripJar.StripResult result = StripJar.strip(input, actual, filters, whitelist);
+
+        final Map<String, String> expectedEntries = readEntries(expected);
+        assertEquals(expectedEntries, readEntries(actual));
+        assertEquals(expectedEntries.size(), result.kept());
+    }
+
+    /**
+     * The filter this task used before entries were copied without recompressing them.
+     */
+    private static void streamBasedStrip(File input, File output, Set<String> filters, boolean whitelist) throws IOException {
+        try (JarInputStream is = new JarInputStream(new FileInputStream(input));
+             FileOutputStream fout = new FileOutputStream(output);
+             JarOutputStream os = new JarOutputStream(fout)) {
+
+            JarEntry entry;
+            while ((entry = is.getNextJarEntry()) != null) {
+                if (entry.isDirectory() || (filters != null && filters.contains(entry.getName()) != whitelist)) {
+                    continue;
+                }
+                os.putNextEntry(new JarEntry(entry.getName()));
+                IOUtils.copyLarge(is, os);
+                os.closeEntry();
+            }
+        }
+    }
+
+    private File createJar(boolean withManifest) throws IOException {
+        final File jar = new File(directory, withManifest ? "input.jar" : "input-without-manifest.jar");
+        final byte[] random = new byte[10_000];
+        new Random(0).nextBytes(random);
+
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jar))) {
+            if (withManifest) {
+                zip.putNextEntry(new ZipEntry("META-INF/"));
+                zip.closeEntry();
+                zip.putNextEntry(new ZipEntry(JarFile.MANIFEST_NAME));
+                zip.write("Manifest-Version: 1.0\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+
+            write(zip, "a.class", "a".repeat(1000));
+            zip.putNextEntry(new ZipEntry("b/"));
+            zip.closeEntry();
+            write(zip, "b/c.class", "c".repeat(1000));
+            write(zip, "b/d.class", "d");
+            write(zip, "data/text.txt", "text");
+
+            final ZipEntry stored = new ZipEntry("stored.class");
+            final CRC32 crc = new CRC32();
+            crc.update(random);
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(random.length);
+            stored.setCrc(crc.getValue());
+            zip.putNextEntry(stored);
+            zip.write(random);
+            zip.closeEntry();
+
+            //Only a manifest at the start of the jar is hidden by a JarInputStream.
+            write(zip, "late/META-INF/MANIFEST.MF", "not a manifest");
+        }
+
+        return jar;
+    }
+
+    private File writeMappings(String name, String... classes) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        for (String cls : classes) {
+            lines.add(cls);
+            lines.add("\tfield renamed");
+        }
+
+        final File file = new File(directory, name);
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static void write(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private static Map<String, String> readEntries(File jar) throws IOException {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipFile zip = new ZipFile(jar)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                entries.put(entry.getName(), new String(zip.getInputStream(entry).readAllBytes(), StandardCharsets.ISO_8859_1));
+            }
+        }
+        return entries;
+    }
+}
@@ -7,7 +7,6 @@ import com.google.common.collect.Sets;
 import net.minecraftforge.gdi.BaseDSLElement;
 import net.minecraftforge.gdi.annotations.DSLProperty;
 import net.minecraftforge.gdi.annotations.ProjectGetter;
-import net.minecraftforge.srgutils.IMappingFile;
 import net.neoforged.gradle.common.dependency.ExtraJarDependencyManager;
 import net.neoforged.gradle.common.extensions.IdeManagementExtension;
 import net.neoforged.gradle.common.extensions.JarJarExtension;
@@ -53,6 +52,7 @@ import net.neoforged.gradle.platform.runtime.runtime.tasks.GenerateSourcePatches
 import net.neoforged.gradle.platform.tasks.*;
 import net.neoforged.gradle.platform.util.ArtifactPathsCollector;
 import net.neoforged.gradle.platform.util.SetupUtils;
+import net.neoforged.gradle.util.IMappingFileUtils;
 import net.neoforged.gradle.util.TransformerUtils;
 import net.neoforged.gradle.vanilla.VanillaProjectPlugin;
 import net.neoforged.gradle.vanilla.runtime.VanillaRuntimeDefinition;
@@ -997,7 +997,7 @@ public abstract class DynamicProjectExtension implements BaseDSLElement<DynamicP
         }
 
         return project.getTasks().register(taskName, WriteIMappingsFile.class, task -> {
-            task.getMappings().set(mojmapProvider.flatMap(WithOutput::getOutput).map(TransformerUtils.guard(file -> IMappingFile.load(file.getAsFile()))).map(file -> new CacheableIMappingFile(file.reverse())));
+            task.getMappings().set(mojmapProvider.flatMap(WithOutput::getOutput).map(file -> IMappingFileUtils.load(file.getAsFile())).map(file -> new CacheableIMappingFile(file.reverse())));
             
             CommonRuntimeExtension.configureCommonRuntimeTaskParameters(task, runtimeDefinition, workingDirectory);
         });
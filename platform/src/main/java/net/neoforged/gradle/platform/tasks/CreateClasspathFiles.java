@@ -4,15 +4,15 @@ import com.google.common.collect.ImmutableMap;
 import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
 import net.neoforged.gradle.platform.util.ArtifactPathsCollector;
 import net.neoforged.gradle.platform.util.StringUtils;
+import net.neoforged.gradle.util.RawZipFile;
 import org.apache.tools.ant.filters.ReplaceTokens;
 import org.gradle.api.file.ConfigurableFileCollection;
-import org.gradle.api.file.FileTree;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.*;
 
 import java.io.File;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -46,12 +46,13 @@ public abstract class CreateClasspathFiles extends DefaultRuntime implements Tok
                                                               .map(path -> StringUtils.getSlicedPrefixSection(path, "/", 2))
                                                               .collect(Collectors.toSet());
         
-        final FileTree serverRawTree = getArchiveOperations().zipTree(getServer().get());
-        final File joinedServerClasspathFile = serverRawTree.filter(spec -> {
-            return spec.getPath().endsWith("META-INF" + File.separator + "classpath-joined");
-        }).getSingleFile();
+        final File server = getServer().get().getAsFile();
+        final byte[] joinedServerClasspathFile = RawZipFile.readEntry(server, "META-INF/classpath-joined");
+        if (joinedServerClasspathFile == null) {
+            throw new IllegalStateException("Could not find META-INF/classpath-joined in server jar: " + server);
+        }
         
-        final String joinedServerClasspath = Files.readAllLines(joinedServerClasspathFile.toPath()).stream()
+        final String joinedServerClasspath = new String(joinedServerClasspathFile, StandardCharsets.UTF_8).lines()
                                                      .flatMap(line -> Arrays.stream(line.split(";")))
                                                      .filter(path -> !claimedCoordinateLikePath.contains(StringUtils.getSlicedPrefixSection(path, "/", 2)))
                                                      .filter(path -> path.startsWith("libraries/"))
@@ -7,6 +7,7 @@ import net.neoforged.gradle.dsl.common.tasks.WithWorkspace;
 import net.neoforged.gradle.dsl.platform.model.LauncherProfile;
 import net.neoforged.gradle.dsl.platform.util.LibraryCollector;
 import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.*;
@@ -22,6 +23,7 @@ public abstract class CreateLauncherJson extends DefaultRuntime implements WithO
 
     public CreateLauncherJson() {
         getOutputFileName().set("version.json");
+        getRepositoryCacheFile().convention(getProject().getLayout().file(getProject().provider(() -> new File(getProject().getGradle().getGradleUserHomeDir(), "caches/neogradle/library-repositories.properties"))));
     }
     
     @TaskAction
@@ -35,7 +37,7 @@ public abstract class CreateLauncherJson extends DefaultRuntime implements WithO
         clone.getLibraries().addAll(
                 getProviderFactory().provider(() -> {
                     getLogger().info("Collecting libraries for Launcher Profile");
-                    final LibraryCollector profileFiller = new LibraryCollector(getObjectFactory(), getRepositoryURLs().get(), getLogger());
+                    final LibraryCollector profileFiller = new LibraryCollector(getObjectFactory(), getRepositoryURLs().get(), getRepositoryCacheFile().get().getAsFile(), getLogger());
                     getLibraries().getAsFileTree().visit(profileFiller);
                     return profileFiller.getLibraries();
                 })
@@ -59,4 +61,10 @@ public abstract class CreateLauncherJson extends DefaultRuntime implements WithO
 
     @Input
     public abstract ListProperty<URI> getRepositoryURLs();
+
+    /**
+     * The file which remembers the repositories that serve the libraries, so they are not searched again on every run.
+     */
+    @Internal
+    public abstract RegularFileProperty getRepositoryCacheFile();
 }
@@ -7,6 +7,7 @@ import net.neoforged.gradle.dsl.common.tasks.WithWorkspace;
 import net.neoforged.gradle.dsl.platform.model.InstallerProfile;
 import net.neoforged.gradle.dsl.platform.util.LibraryCollector;
 import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.*;
@@ -22,6 +23,7 @@ public abstract class CreateLegacyInstallerJson extends DefaultRuntime implement
     
     public CreateLegacyInstallerJson() {
         getOutputFileName().set("install_profile.json");
+        getRepositoryCacheFile().convention(getProject().getLayout().file(getProject().provider(() -> new File(getProject().getGradle().getGradleUserHomeDir(), "caches/neogradle/library-repositories.properties"))));
     }
     
     @TaskAction
@@ -33,7 +35,7 @@ public abstract class CreateLegacyInstallerJson extends DefaultRuntime implement
         final InstallerProfile copy = gson.fromJson(gson.toJson(profile), InstallerProfile.class);
 
         getLogger().info("Collecting gameplay libraries for installer");
-        var profileFiller = new LibraryCollector(getObjectFactory(), getRepositoryURLs().get(), getLogger());
+        var profileFiller = new LibraryCollector(getObjectFactory(), getRepositoryURLs().get(), getRepositoryCacheFile().get().getAsFile(), getLogger());
         getLibraries().getAsFileTree().visit(profileFiller);
         copy.getLibraries().addAll(profileFiller.getLibraries());
 
@@ -53,4 +55,10 @@ public abstract class CreateLegacyInstallerJson extends DefaultRuntime implement
 
     @Input
     public abstract ListProperty<URI> getRepositoryURLs();
+
+    /**
+     * The file which remembers the repositories that serve the libraries, so they are not searched again on every run.
+     */
+    @Internal
+    public abstract RegularFileProperty getRepositoryCacheFile();
 }
@@ -2,15 +2,16 @@ package net.neoforged.gradle.platform.tasks;
 
 import net.neoforged.gradle.dsl.common.tasks.WithOperations;
 import net.neoforged.gradle.platform.util.SetupUtils;
-import net.neoforged.gradle.util.CopyingFileTreeVisitor;
+import net.neoforged.gradle.util.FileUtils;
+import net.neoforged.gradle.util.RawZipFile;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.DirectoryProperty;
-import org.gradle.api.file.FileTree;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.*;
 
 import java.io.File;
+import java.nio.file.Files;
 
 @CacheableTask
 public abstract class SetupProjectFromRuntime extends DefaultTask implements WithOperations {
@@ -38,10 +39,6 @@ public abstract class SetupProjectFromRuntime extends DefaultTask implements Wit
     @TaskAction
     public void doSetup() throws Exception {
         final File sourceFile = getSourcesFile().get().getAsFile();
-        final FileTree jarFileTree = getArchiveOperations().zipTree(sourceFile);
-        
-        final FileTree codeFiles = jarFileTree.matching(filter -> filter.include("**/**.java"));
-        final FileTree noneCodeFiles = jarFileTree.matching(filter -> filter.exclude("**/**.java"));
         
         final File sourceDirectory = getSourcesDirectory().get().getAsFile();
         final File resourcesDirectory = getResourcesDirectory().get().getAsFile();
@@ -49,8 +46,21 @@ public abstract class SetupProjectFromRuntime extends DefaultTask implements Wit
         sourceDirectory.setWritable(true);
         resourcesDirectory.setWritable(true);
         
-        codeFiles.visit(new CopyingFileTreeVisitor(sourceDirectory, false));
-        noneCodeFiles.visit(new CopyingFileTreeVisitor(resourcesDirectory, false));
+        FileUtils.delete(sourceDirectory.toPath());
+        FileUtils.delete(resourcesDirectory.toPath());
+        Files.createDirectories(sourceDirectory.toPath());
+        Files.createDirectories(resourcesDirectory.toPath());
+        
+        //Stream the files straight out of the jar, instead of extracting it through a zip tree first.
+        try (RawZipFile jar = RawZipFile.open(sourceFile)) {
+            for (RawZipFile.Entry entry : jar.entries()) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                
+                jar.extract(entry, (entry.name().endsWith(".java") ? sourceDirectory : resourcesDirectory).toPath());
+            }
+        }
         
         if (getShouldLockDirectories().get()) {
             sourceDirectory.setReadOnly();
@@ -3,19 +3,15 @@ package net.neoforged.gradle.platform.tasks;
 import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
 import net.neoforged.gradle.dsl.common.tasks.WithOutput;
 import net.neoforged.gradle.dsl.common.tasks.WithWorkspace;
-import net.neoforged.gradle.util.FilteringZipBuildingFileTreeVisitor;
-import org.gradle.api.file.FileVisitDetails;
-import org.gradle.api.file.FileVisitor;
+import net.neoforged.gradle.util.RawZipFile;
+import net.neoforged.gradle.util.ZipRewriter;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.tasks.*;
-import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.OutputStream;
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.zip.ZipOutputStream;
 
 @CacheableTask
 public abstract class StripBinPatchedClasses extends DefaultRuntime implements WithOutput, WithWorkspace {
@@ -24,32 +20,58 @@ public abstract class StripBinPatchedClasses extends DefaultRuntime implements W
     public void doTask() throws Exception {
         final Set<String> cleanedFiles = new HashSet<>();
         final Set<String> cleanedDirectories = new HashSet<>();
-        getArchiveOperations().zipTree(getClean().get().getAsFile()).visit(new FileVisitor() {
-            @Override
-            public void visitDir(@NotNull FileVisitDetails dirDetails) {
-                cleanedDirectories.add(dirDetails.getRelativePath().getPathString());
+        try (RawZipFile clean = RawZipFile.open(getClean().get().getAsFile())) {
+            for (RawZipFile.Entry entry : clean.entries()) {
+                if (entry.isDirectory()) {
+                    cleanedDirectories.add(entry.name().substring(0, entry.name().length() - 1));
+                } else {
+                    cleanedFiles.add(entry.name());
+                }
+                addParentDirectories(entry.name(), cleanedDirectories);
             }
-            
-            @Override
-            public void visitFile(@NotNull FileVisitDetails fileDetails) {
-                cleanedFiles.add(fileDetails.getRelativePath().getPathString());
-            }
-        });
-        
+        }
         
         final File output = ensureFileWorkspaceReady(getOutput());
-        try (OutputStream outputStream = new FileOutputStream(output);
-             ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
-            final FilteringZipBuildingFileTreeVisitor visitor = new FilteringZipBuildingFileTreeVisitor(
-                    zipOutputStream,
-                    details -> !cleanedDirectories.contains(details.getRelativePath().getPathString()),
-                    details -> {
-                        return !cleanedFiles.contains(details.getRelativePath().getPathString().contains("$") ?
-                                                                  details.getRelativePath().getPathString().substring(0, details.getRelativePath().getPathString().indexOf("$")) + ".class" :
-                                                                  details.getRelativePath().getPathString()
-                        );
-                    });
-            getArchiveOperations().zipTree(getCompiled().get().getAsFile()).getAsFileTree().visit(visitor);
+        try (RawZipFile compiled = RawZipFile.open(getCompiled().get().getAsFile());
+             ZipRewriter rewriter = new ZipRewriter(output)) {
+            for (RawZipFile.Entry entry : compiled.entries()) {
+                final String name = entry.name();
+                if (entry.isDirectory()) {
+                    writeDirectories(name.substring(0, name.length() - 1), cleanedDirectories, rewriter);
+                    continue;
+                }
+                
+                final String outerClass = name.contains("$") ? name.substring(0, name.indexOf("$")) + ".class" : name;
+                if (cleanedFiles.contains(outerClass)) {
+                    continue;
+                }
+                
+                if (name.lastIndexOf('/') != -1) {
+                    writeDirectories(name.substring(0, name.lastIndexOf('/')), cleanedDirectories, rewriter);
+                }
+                // The compiled classes are copied without recompressing them
+                rewriter.copy(compiled, entry);
+            }
+        }
+    }
+    
+    private static void addParentDirectories(String name, Set<String> directories) {
+        for (int index = name.indexOf('/'); index != -1 && index < name.length() - 1; index = name.indexOf('/', index + 1)) {
+            directories.add(name.substring(0, index));
+        }
+    }
+    
+    /*
+     * Writes the given directory and its parents, unless they exist in the clean jar, or were already written.
+     */
+    private static void writeDirectories(String directory, Set<String> cleanedDirectories, ZipRewriter rewriter) throws IOException {
+        int index = 0;
+        while (index != -1) {
+            index = directory.indexOf('/', index + 1);
+            final String path = index == -1 ? directory : directory.substring(0, index);
+            if (!cleanedDirectories.contains(path) && !rewriter.contains(path + "/")) {
+                rewriter.writeDirectory(path);
+            }
         }
     }
     
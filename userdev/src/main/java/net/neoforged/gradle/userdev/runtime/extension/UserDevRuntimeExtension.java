@@ -70,7 +70,7 @@ public abstract class UserDevRuntimeExtension extends CommonRuntimeExtension<Use
             
             builder.withPostTaskAdapter("decompile", atAdapter);
 
-            builder.withPostTaskAdapter("patch", createPatchAdapter(userDevJar, userDevProfile.getSourcePatchesDirectory().get()));
+            builder.withPostTaskAdapter("patch", createPatchAdapter(spec.getUserDevArchiveFile(), userDevProfile.getSourcePatchesDirectory().get()));
 
             builder.withTaskCustomizer("inject", InjectZipContent.class, task -> {
                 FileTree injectionDirectoryTree;
@@ -144,7 +144,7 @@ public abstract class UserDevRuntimeExtension extends CommonRuntimeExtension<Use
         };
     }
 
-    private TaskTreeAdapter createPatchAdapter(FileTree userDevArchive, String patchDirectory) {
+    private TaskTreeAdapter createPatchAdapter(File userDevArchive, String patchDirectory) {
         return (definition, previousTasksOutput, runtimeWorkspace, gameArtifacts, mappingVersionData, dependentTaskConfigurationHandler) -> definition.getSpecification().getProject().getTasks().register(CommonRuntimeUtils.buildTaskName(definition.getSpecification(), "patchUserDev"), Patch.class, task -> {
             task.getInput().set(previousTasksOutput.flatMap(WithOutput::getOutput));
             task.getPatchArchive().from(userDevArchive);
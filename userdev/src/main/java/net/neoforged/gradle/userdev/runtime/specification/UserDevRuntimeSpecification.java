@@ -31,6 +31,7 @@ import java.util.Objects;
 public final class UserDevRuntimeSpecification extends CommonRuntimeSpecification implements UserDevSpecification {
 
     private final FileTree userDevArchive;
+    private final File userDevArchiveFile;
     private final String forgeGroup;
     private final String forgeName;
     private final String forgeVersion;
@@ -42,6 +43,7 @@ public final class UserDevRuntimeSpecification extends CommonRuntimeSpecificatio
     public UserDevRuntimeSpecification(Project project,
                                        String version,
                                        FileTree userDevArchive,
+                                       File userDevArchiveFile,
                                        UserdevProfile profile,
                                        DistributionType distribution,
                                        Multimap<String, TaskTreeAdapter> preTaskTypeAdapters,
@@ -53,6 +55,7 @@ public final class UserDevRuntimeSpecification extends CommonRuntimeSpecificatio
                                        Artifact artifact) {
         super(project, "neoForge", version, distribution, preTaskTypeAdapters, postTypeAdapters, taskCustomizers, UserDevRuntimeExtension.class);
         this.userDevArchive = userDevArchive;
+        this.userDevArchiveFile = userDevArchiveFile;
         this.profile = profile;
         this.forgeGroup = forgeGroup;
         this.forgeName = forgeName;
@@ -69,6 +72,13 @@ public final class UserDevRuntimeSpecification extends CommonRuntimeSpecificatio
         return userDevArchive;
     }
 
+    /**
+     * @return The userdev archive itself, for consumers which read it directly instead of through a zip tree.
+     */
+    public File getUserDevArchiveFile() {
+        return userDevArchiveFile;
+    }
+
     public String getForgeGroup() {
         return forgeGroup;
     }
@@ -193,6 +203,7 @@ public final class UserDevRuntimeSpecification extends CommonRuntimeSpecificatio
                     project,
                     effectiveVersion.getVersion(),
                     project.zipTree(userdevArchive),
+                    userdevArchive,
                     profile,
                     distributionType.get(),
                     preTaskAdapters,
@@ -317,7 +317,8 @@ public final class GradleInternalUtils {
             }
 
             long processedKb = processedBytes / 1024;
-            if (processedKb > loggedKb) {
+            //Negative increments revert the progress of failed downloads, which has to be shown as well.
+            if (processedKb != loggedKb) {
                 StringBuilder sb = new StringBuilder();
                 if (destFileName != null) {
                     sb.append(destFileName);
@@ -24,15 +24,15 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Locale;
 
-import org.apache.commons.io.IOUtils;
-
 import javax.annotation.Nullable;
 
 /**
@@ -50,6 +50,8 @@ public enum HashFunction {
     SHA256("SHA-256", 64),
     SHA512("SHA-512", 128);
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final String algo;
     private final String pad;
 
@@ -94,13 +96,16 @@ public enum HashFunction {
 
     /**
      * Hashes the given file.
+     * The file is streamed through the digest, so only a small buffer is held in memory regardless of the size of the file.
      *
      * @param file The file to hash.
      * @return The hash of the file.
      * @throws IOException If an I/O error occurs.
      */
     public String hash(Path file) throws IOException {
-        return hash(Files.readAllBytes(file));
+        final MessageDigest digest = get();
+        update(digest, file);
+        return toHexString(digest);
     }
 
     /**
@@ -116,9 +121,9 @@ public enum HashFunction {
         for (File file : files) {
             if (!file.exists())
                 continue;
-            hash.update(Files.readAllBytes(file.toPath()));
+            update(hash, file.toPath());
         }
-        return pad(new BigInteger(1, hash.digest()).toString(16));
+        return toHexString(hash);
     }
 
     /**
@@ -139,7 +144,13 @@ public enum HashFunction {
      * @throws IOException If an I/O error occurs.
      */
     public String hash(InputStream stream) throws IOException {
-        return hash(IOUtils.toByteArray(stream));
+        final MessageDigest digest = get();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return toHexString(digest);
     }
 
     /**
@@ -152,6 +163,28 @@ public enum HashFunction {
         return pad(new BigInteger(1, get().digest(data)).toString(16));
     }
 
+    /**
+     * Completes the given digest, and formats the result like all other hashes of this hash function.
+     * Allows data to be hashed while it is processed, for example through a {@link java.security.DigestOutputStream}.
+     *
+     * @param digest The digest to complete, as retrieved from {@link #get()}.
+     * @return The hash of all data the digest was updated with.
+     */
+    public String toHexString(MessageDigest digest) {
+        return pad(new BigInteger(1, digest.digest()).toString(16));
+    }
+
+    private static void update(MessageDigest digest, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
     /**
      * Pads the hash with leading zeroes, so that it matches the length of the hash function.
      *
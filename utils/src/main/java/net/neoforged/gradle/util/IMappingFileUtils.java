@@ -33,13 +33,14 @@ public final class IMappingFileUtils {
 
     /**
      * Loads a mapping file from the given file.
+     * The mapping file is only parsed once per content in the daemon, see {@link ParsedFileCache}.
      *
      * @param file The file to load the mapping file from.
      * @return The loaded mapping file.
      */
     public static IMappingFile load(final File file) {
         try {
-            return IMappingFile.load(file);
+            return ParsedFileCache.get(file, IMappingFile.class, IMappingFile::load);
         } catch (IOException e) {
             throw new RuntimeException(String.format("Failed to load mappings file: %s", file.getAbsolutePath()), e);
         }
@@ -0,0 +1,141 @@
+package net.neoforged.gradle.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of objects parsed from files, like version jsons, asset indexes and mapping files, which is shared by all
+ * projects and builds in the daemon.
+ * <p>
+ * Parsed objects are keyed by their type and the sha1 of the files they were parsed from, and are only softly
+ * referenced, so they are evicted when memory runs low. The sha1 of a file is only recomputed when its size or
+ * modification time changed.
+ * <p>
+ * Cached objects are shared between all callers, and must not be modified.
+ */
+public final class ParsedFileCache {
+
+    private static final Map<File, Fingerprint> FINGERPRINTS = new ConcurrentHashMap<>();
+    private static final Map<Key, SoftReference<Object>> PARSED = new ConcurrentHashMap<>();
+
+    private ParsedFileCache() {
+        throw new IllegalStateException("Can not instantiate an instance of: ParsedFileCache. This is a utility class");
+    }
+
+    /**
+     * Gets the object parsed from the given file, the file is only parsed if no object of the given type was parsed
+     * from a file with the same content yet.
+     *
+     * @param file The file to parse.
+     * @param type The type of the parsed object.
+     * @param parser The parser for the file, invoked if the object is not cached.
+     * @return The parsed object.
+     * @param <T> The type of the parsed object.
+     * @throws IOException If the file could not be read or parsed.
+     */
+    public static <T> T get(File file, Class<T> type, Parser<T> parser) throws IOException {
+        return get(new Key(type, getSha1(file)), type, () -> parser.parse(file));
+    }
+
+    /**
+     * Gets the object derived from the given pair of files, like a renamer built from the client and the server
+     * mappings. The files are only parsed if no object of the given type was derived from files with the same content yet.
+     *
+     * @param first The first file.
+     * @param second The second file.
+     * @param type The type of the derived object.
+     * @param parser The parser for the files, invoked if the object is not cached.
+     * @return The derived object.
+     * @param <T> The type of the derived object.
+     * @throws IOException If the files could not be read or parsed.
+     */
+    public static <T> T get(File first, File second, Class<T> type, PairParser<T> parser) throws IOException {
+        return get(new Key(type, getSha1(first) + "+" + getSha1(second)), type, () -> parser.parse(first, second));
+    }
+
+    private static <T> T get(Key key, Class<T> type, Loader<T> loader) throws IOException {
+        final SoftReference<Object> reference = PARSED.get(key);
+        final Object cached = reference == null ? null : reference.get();
+        if (cached != null) {
+            return type.cast(cached);
+        }
+
+        final T parsed = loader.load();
+        //Drop the keys of objects which were already evicted.
+        PARSED.values().removeIf(existing -> existing.get() == null);
+        PARSED.put(key, new SoftReference<>(parsed));
+        return parsed;
+    }
+
+    /**
+     * Gets the sha1 of the given file, it is only computed if the size or the modification time of the file changed
+     * since it was last computed.
+     *
+     * @param file The file.
+     * @return The sha1 of the file.
+     * @throws IOException If the file could not be read.
+     */
+    public static String getSha1(File file) throws IOException {
+        final File absoluteFile = file.getAbsoluteFile();
+        final long length = absoluteFile.length();
+        final long lastModified = absoluteFile.lastModified();
+
+        final Fingerprint cached = FINGERPRINTS.get(absoluteFile);
+        if (cached != null && cached.length() == length && cached.lastModified() == lastModified) {
+            return cached.sha1();
+        }
+
+        final String sha1 = HashFunction.SHA1.hash(absoluteFile);
+        FINGERPRINTS.put(absoluteFile, new Fingerprint(length, lastModified, sha1));
+        return sha1;
+    }
+
+    /**
+     * Parses an object from a file.
+     *
+     * @param <T> The type of the parsed object.
+     */
+    @FunctionalInterface
+    public interface Parser<T> {
+        /**
+         * Parses the given file.
+         *
+         * @param file The file to parse.
+         * @return The parsed object.
+         * @throws IOException If the file could not be read or parsed.
+         */
+        T parse(File file) throws IOException;
+    }
+
+    /**
+     * Derives an object from a pair of files.
+     *
+     * @param <T> The type of the derived object.
+     */
+    @FunctionalInterface
+    public interface PairParser<T> {
+        /**
+         * Parses the given files.
+         *
+         * @param first The first file.
+         * @param second The second file.
+         * @return The derived object.
+         * @throws IOException If the files could not be read or parsed.
+         */
+        T parse(File first, File second) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    private record Fingerprint(long length, long lastModified, String sha1) {
+    }
+
+    private record Key(Class<?> type, String sha1) {
+    }
+}
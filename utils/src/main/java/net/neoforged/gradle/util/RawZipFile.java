@@ -0,0 +1,417 @@
+package net.neoforged.gradle.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import javax.annotation.Nullable;
+
+/**
+ * A zip file that is read through its central directory, and gives access to the compressed data of its entries.
+ * <p>
+ * Combined with a {@link ZipRewriter} this allows entries to be copied from one zip file to another without
+ * decompressing and compressing them again. Unlike a zip tree, nothing is extracted to disk: entries are looked up
+ * in the central directory, and their content is streamed from the zip file itself.
+ */
+public final class RawZipFile implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_END_SIZE = 56;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    private static final int ENCRYPTED_FLAG = 0x1;
+
+    private final File file;
+    private final FileChannel channel;
+    private final List<Entry> entries;
+    private Map<String, Entry> entriesByName;
+    private long directoryOffset;
+    private long directorySize;
+
+    private RawZipFile(File file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.entries = Collections.unmodifiableList(readCentralDirectory());
+    }
+
+    /**
+     * Opens the given zip file and reads its central directory.
+     *
+     * @param file The zip file.
+     * @return The opened zip file.
+     * @throws IOException If the file could not be read, or is not a valid zip file.
+     */
+    public static RawZipFile open(File file) throws IOException {
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return new RawZipFile(file, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The entries of the zip file, in the order of its central directory.
+     */
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * Looks up a single entry by its name.
+     *
+     * @param name The name of the entry, directories end with a slash.
+     * @return The entry, or null if the zip file has no entry with the given name.
+     */
+    @Nullable
+    public Entry getEntry(String name) {
+        if (entriesByName == null) {
+            final Map<String, Entry> index = new HashMap<>(entries.size() * 2);
+            for (Entry entry : entries) {
+                index.putIfAbsent(entry.name(), entry);
+            }
+            entriesByName = index;
+        }
+
+        return entriesByName.get(name);
+    }
+
+    /**
+     * Reads the uncompressed content of a single entry of the given zip file.
+     *
+     * @param file The zip file.
+     * @param name The name of the entry.
+     * @return The content of the entry, or null if the zip file has no entry with the given name.
+     * @throws IOException If the file could not be read, or is not a valid zip file.
+     */
+    @Nullable
+    public static byte[] readEntry(File file, String name) throws IOException {
+        try (RawZipFile zip = open(file)) {
+            final Entry entry = zip.getEntry(name);
+            return entry == null ? null : zip.readAllBytes(entry);
+        }
+    }
+
+    /**
+     * Opens a stream of the uncompressed content of the given entry.
+     *
+     * @param entry The entry of this zip file.
+     * @return The uncompressed content.
+     * @throws IOException If the entry could not be read.
+     */
+    public InputStream getInputStream(Entry entry) throws IOException {
+        final InputStream raw = new RangeInputStream(dataOffset(entry), entry.compressedSize());
+        if (entry.method() == ZipEntry.STORED) {
+            return raw;
+        }
+
+        return new InflaterInputStream(raw, new Inflater(true), 8192) {
+            private boolean eof = false;
+
+            @Override
+            protected void fill() throws IOException {
+                if (eof) {
+                    throw new EOFException("Unexpected end of zip entry: " + entry.name());
+                }
+
+                len = in.read(buf, 0, buf.length);
+                if (len == -1) {
+                    //A raw inflater needs a trailing dummy byte to detect the end of the data.
+                    buf[0] = 0;
+                    len = 1;
+                    eof = true;
+                }
+                inf.setInput(buf, 0, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+                inf.end();
+            }
+        };
+    }
+
+    /**
+     * Reads the uncompressed content of the given entry.
+     *
+     * @param entry The entry of this zip file.
+     * @return The uncompressed content.
+     * @throws IOException If the entry could not be read.
+     */
+    public byte[] readAllBytes(Entry entry) throws IOException {
+        try (InputStream stream = getInputStream(entry)) {
+            return stream.readAllBytes();
+        }
+    }
+
+    /**
+     * Extracts the given file entry into the given directory, at the path of its name.
+     *
+     * @param entry The file entry of this zip file.
+     * @param directory The directory to extract the entry into.
+     * @return The extracted file.
+     * @throws ZipException If the name of the entry points outside of the directory.
+     * @throws IOException If the entry could not be extracted.
+     */
+    public Path extract(Entry entry, Path directory) throws IOException {
+        final Path target = directory.resolve(entry.name()).normalize();
+        if (!target.startsWith(directory.normalize())) {
+            throw new ZipException("Entry %s of zip file %s points outside of the target directory".formatted(entry.name(), file));
+        }
+
+        Files.createDirectories(target.getParent());
+        try (InputStream stream = getInputStream(entry)) {
+            Files.copy(stream, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+
+    /**
+     * Transfers the compressed data of the given entry to the given channel.
+     *
+     * @param entry The entry of this zip file.
+     * @param target The channel to write to.
+     * @throws IOException If the data could not be transferred.
+     */
+    void transferCompressedData(Entry entry, FileChannel target) throws IOException {
+        long position = dataOffset(entry);
+        long remaining = entry.compressedSize();
+        while (remaining > 0) {
+            final long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                throw new EOFException("Unexpected end of zip file %s while copying entry %s".formatted(file, entry.name()));
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    /**
+     * @return The offset of the central directory, which is where the data of the entries ends.
+     */
+    long centralDirectoryOffset() {
+        return directoryOffset;
+    }
+
+    /**
+     * Reads the raw central directory, which holds a header for every entry, in the order of {@link #entries()}.
+     *
+     * @return The central directory.
+     * @throws IOException If the central directory could not be read.
+     */
+    byte[] readRawCentralDirectory() throws IOException {
+        return read(directoryOffset, (int) directorySize).array();
+    }
+
+    private long dataOffset(Entry entry) throws IOException {
+        //The local header may contain other extra fields than the central directory, so its size is only known from the header itself.
+        final ByteBuffer header = read(entry.localHeaderOffset(), LOCAL_HEADER_SIZE);
+        if (header.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("Invalid local header of entry %s in zip file: %s".formatted(entry.name(), file));
+        }
+
+        return entry.localHeaderOffset() + LOCAL_HEADER_SIZE + Short.toUnsignedInt(header.getShort(26)) + Short.toUnsignedInt(header.getShort(28));
+    }
+
+    private List<Entry> readCentralDirectory() throws IOException {
+        final long size = channel.size();
+        final int tailSize = (int) Math.min(size, END_SIZE + MAX_COMMENT_SIZE);
+        final ByteBuffer tail = read(size - tailSize, tailSize);
+
+        int end = -1;
+        for (int i = tailSize - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE) {
+                end = i;
+                break;
+            }
+        }
+        if (end == -1) {
+            throw new ZipException("Could not find the central directory of zip file: " + file);
+        }
+
+        long entryCount = Short.toUnsignedInt(tail.getShort(end + 10));
+        long directorySize = Integer.toUnsignedLong(tail.getInt(end + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+
+        final long endOffset = size - tailSize + end;
+        if (endOffset >= ZIP64_LOCATOR_SIZE) {
+            final ByteBuffer locator = read(endOffset - ZIP64_LOCATOR_SIZE, ZIP64_LOCATOR_SIZE);
+            if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+                final ByteBuffer zip64End = read(locator.getLong(8), ZIP64_END_SIZE);
+                if (zip64End.getInt(0) != ZIP64_END_SIGNATURE) {
+                    throw new ZipException("Invalid zip64 end of central directory in zip file: " + file);
+                }
+
+                entryCount = zip64End.getLong(32);
+                directorySize = zip64End.getLong(40);
+                directoryOffset = zip64End.getLong(48);
+            }
+        }
+
+        if (directorySize > Integer.MAX_VALUE || directoryOffset + directorySize > size) {
+            throw new ZipException("Invalid central directory in zip file: " + file);
+        }
+
+        this.directoryOffset = directoryOffset;
+        this.directorySize = directorySize;
+        final ByteBuffer directory = read(directoryOffset, (int) directorySize);
+        final List<Entry> result = new ArrayList<>((int) Math.min(entryCount, 1 << 16));
+        int position = 0;
+        for (long i = 0; i < entryCount; i++) {
+            if (position + CENTRAL_HEADER_SIZE > directory.limit() || directory.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                throw new ZipException("Invalid central directory entry in zip file: " + file);
+            }
+
+            final int flags = Short.toUnsignedInt(directory.getShort(position + 8));
+            final int method = Short.toUnsignedInt(directory.getShort(position + 10));
+            final long crc = Integer.toUnsignedLong(directory.getInt(position + 16));
+            long compressedSize = Integer.toUnsignedLong(directory.getInt(position + 20));
+            long uncompressedSize = Integer.toUnsignedLong(directory.getInt(position + 24));
+            final int nameLength = Short.toUnsignedInt(directory.getShort(position + 28));
+            final int extraLength = Short.toUnsignedInt(directory.getShort(position + 30));
+            final int commentLength = Short.toUnsignedInt(directory.getShort(position + 32));
+            long localHeaderOffset = Integer.toUnsignedLong(directory.getInt(position + 42));
+
+            final byte[] nameBytes = new byte[nameLength];
+            directory.get(position + CENTRAL_HEADER_SIZE, nameBytes);
+            final String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+            //Values which do not fit into the header are stored in the zip64 extra field, in this order.
+            int extra = position + CENTRAL_HEADER_SIZE + nameLength;
+            final int extraEnd = extra + extraLength;
+            while (extra + 4 <= extraEnd) {
+                final int id = Short.toUnsignedInt(directory.getShort(extra));
+                final int length = Short.toUnsignedInt(directory.getShort(extra + 2));
+                if (id == ZIP64_EXTRA_ID) {
+                    int value = extra + 4;
+                    if (uncompressedSize == 0xFFFFFFFFL) {
+                        uncompressedSize = directory.getLong(value);
+                        value += 8;
+                    }
+                    if (compressedSize == 0xFFFFFFFFL) {
+                        compressedSize = directory.getLong(value);
+                        value += 8;
+                    }
+                    if (localHeaderOffset == 0xFFFFFFFFL) {
+                        localHeaderOffset = directory.getLong(value);
+                    }
+                }
+                extra += 4 + length;
+            }
+
+            if ((flags & ENCRYPTED_FLAG) != 0) {
+                throw new ZipException("Encrypted entry %s in zip file %s is not supported".formatted(name, file));
+            }
+            if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED) {
+                throw new ZipException("Unsupported compression method %d of entry %s in zip file: %s".formatted(method, name, file));
+            }
+
+            result.add(new Entry(name, method, crc, compressedSize, uncompressedSize, localHeaderOffset));
+            position = extraEnd + commentLength;
+        }
+
+        return result;
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of zip file: " + file);
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * An entry of a {@link RawZipFile}.
+     *
+     * @param name The name of the entry, directories end with a slash.
+     * @param method The compression method, either {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}.
+     * @param crc The CRC-32 of the uncompressed content.
+     * @param compressedSize The size of the compressed data.
+     * @param size The size of the uncompressed content.
+     * @param localHeaderOffset The offset of the local header of the entry in the zip file.
+     */
+    public record Entry(String name, int method, long crc, long compressedSize, long size, long localHeaderOffset) {
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+    }
+
+    /**
+     * Reads a range of the zip file, without changing the position of the shared channel.
+     */
+    private final class RangeInputStream extends InputStream {
+        private long position;
+        private long remaining;
+
+        private RangeInputStream(long position, long length) {
+            this.position = position;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : Byte.toUnsignedInt(single[0]);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            final int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of zip file: " + file);
+            }
+            position += read;
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+    }
+}
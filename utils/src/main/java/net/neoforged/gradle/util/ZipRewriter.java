@@ -0,0 +1,302 @@
+package net.neoforged.gradle.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a zip file, whose entries are either copied from a {@link RawZipFile} or newly written. Entries can also be
+ * {@link #append(File) added} to an existing zip file.
+ * <p>
+ * Copied entries are transferred as their raw compressed data, so only entries whose content actually changes are
+ * compressed again. All entries get the same stable timestamp as {@link FileUtils#getStableEntry(String)}, and no extra
+ * fields or comments, so the output only depends on the names and contents of the entries.
+ */
+public final class ZipRewriter implements Closeable {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+    private static final int UTF8_FLAG = 0x800;
+    private static final int VERSION_STORED = 10;
+    private static final int VERSION_DEFLATED = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final long MAX_32_BIT = 0xFFFFFFFFL;
+    private static final int MAX_16_BIT = 0xFFFF;
+
+    private static final int DOS_TIME;
+    private static final int DOS_DATE;
+
+    static {
+        final LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(FileUtils.ZIPTIME), ZoneOffset.UTC);
+        DOS_TIME = (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() >> 1);
+        DOS_DATE = ((time.getYear() - 1980) << 9) | (time.getMonthValue() << 5) | time.getDayOfMonth();
+    }
+
+    private record WrittenEntry(byte[] name, int method, long crc, long compressedSize, long size, long offset) {
+    }
+
+    private final FileChannel channel;
+    private final OutputStream output;
+    private final byte[] existingDirectory;
+    private final long existingEntries;
+    private final List<WrittenEntry> entries = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+    private long position;
+
+    /**
+     * Creates a new zip file, replacing the given file if it exists.
+     *
+     * @param file The zip file to write.
+     * @throws IOException If the file could not be created.
+     */
+    public ZipRewriter(File file) throws IOException {
+        this(FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), 0, new byte[0], List.of());
+    }
+
+    private ZipRewriter(FileChannel channel, long position, byte[] existingDirectory, List<RawZipFile.Entry> existingEntries) throws IOException {
+        this.channel = channel;
+        this.position = position;
+        this.existingDirectory = existingDirectory;
+        this.existingEntries = existingEntries.size();
+        for (RawZipFile.Entry entry : existingEntries) {
+            this.names.add(entry.name());
+        }
+
+        channel.truncate(position);
+        channel.position(position);
+        this.output = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+    }
+
+    /**
+     * Opens an existing zip file to add entries to it.
+     * <p>
+     * The existing entries are kept in place, together with their headers, and only the central directory is rewritten,
+     * so the cost of adding entries does not depend on the size of the existing zip file. If writing fails the zip file
+     * is left corrupted.
+     *
+     * @param file The zip file to add entries to.
+     * @return The rewriter, which already {@link #contains(String) contains} the existing entries.
+     * @throws IOException If the file could not be read, or is not a valid zip file.
+     */
+    public static ZipRewriter append(File file) throws IOException {
+        final long directoryOffset;
+        final byte[] directory;
+        final List<RawZipFile.Entry> entries;
+        try (RawZipFile zip = RawZipFile.open(file)) {
+            directoryOffset = zip.centralDirectoryOffset();
+            directory = zip.readRawCentralDirectory();
+            entries = zip.entries();
+        }
+
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+        try {
+            return new ZipRewriter(channel, directoryOffset, directory, entries);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param name The name of an entry.
+     * @return True if an entry with the given name was already written.
+     */
+    public boolean contains(String name) {
+        return names.contains(name);
+    }
+
+    /**
+     * Copies the given entry without recompressing it.
+     *
+     * @param source The zip file that contains the entry.
+     * @param entry The entry to copy.
+     * @throws ZipException If an entry with the same name was already written.
+     * @throws IOException If the entry could not be copied.
+     */
+    public void copy(RawZipFile source, RawZipFile.Entry entry) throws IOException {
+        writeLocalHeader(entry.name(), entry.method(), entry.crc(), entry.compressedSize(), entry.size());
+        output.flush();
+        source.transferCompressedData(entry, channel);
+        position += entry.compressedSize();
+    }
+
+    /**
+     * Writes a new entry, compressing its content.
+     *
+     * @param name The name of the entry.
+     * @param content The uncompressed content of the entry.
+     * @throws ZipException If an entry with the same name was already written.
+     * @throws IOException If the entry could not be written.
+     */
+    public void write(String name, byte[] content) throws IOException {
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+
+        if (content.length == 0) {
+            writeLocalHeader(name, ZipEntry.STORED, crc.getValue(), 0, 0);
+            return;
+        }
+
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 64);
+        try (DeflaterOutputStream stream = new DeflaterOutputStream(compressed, deflater)) {
+            stream.write(content);
+        } finally {
+            deflater.end();
+        }
+
+        writeLocalHeader(name, ZipEntry.DEFLATED, crc.getValue(), compressed.size(), content.length);
+        compressed.writeTo(output);
+        position += compressed.size();
+    }
+
+    /**
+     * Writes a new directory entry.
+     *
+     * @param name The name of the directory, a trailing slash is added if missing.
+     * @throws ZipException If an entry with the same name was already written.
+     * @throws IOException If the entry could not be written.
+     */
+    public void writeDirectory(String name) throws IOException {
+        write(name.endsWith("/") ? name : name + "/", new byte[0]);
+    }
+
+    private void writeLocalHeader(String name, int method, long crc, long compressedSize, long size) throws IOException {
+        if (!names.add(name)) {
+            throw new ZipException("duplicate entry: " + name);
+        }
+        if (compressedSize >= MAX_32_BIT || size >= MAX_32_BIT) {
+            throw new ZipException("Entry %s is too large, entries of 4 GiB or more are not supported".formatted(name));
+        }
+
+        final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer header = ByteBuffer.allocate(30 + nameBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(LOCAL_HEADER_SIGNATURE);
+        header.putShort((short) (method == ZipEntry.STORED ? VERSION_STORED : VERSION_DEFLATED));
+        header.putShort((short) UTF8_FLAG);
+        header.putShort((short) method);
+        header.putShort((short) DOS_TIME);
+        header.putShort((short) DOS_DATE);
+        header.putInt((int) crc);
+        header.putInt((int) compressedSize);
+        header.putInt((int) size);
+        header.putShort((short) nameBytes.length);
+        header.putShort((short) 0);
+        header.put(nameBytes);
+
+        entries.add(new WrittenEntry(nameBytes, method, crc, compressedSize, size, position));
+        output.write(header.array());
+        position += header.capacity();
+    }
+
+    /**
+     * Writes the central directory and closes the zip file.
+     *
+     * @throws IOException If the central directory could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            final long directoryOffset = position;
+            output.write(existingDirectory);
+            position += existingDirectory.length;
+            for (WrittenEntry entry : entries) {
+                writeCentralHeader(entry);
+            }
+            final long directorySize = position - directoryOffset;
+            final long entryCount = existingEntries + entries.size();
+
+            final boolean zip64 = entryCount >= MAX_16_BIT || directoryOffset >= MAX_32_BIT || directorySize >= MAX_32_BIT;
+            if (zip64) {
+                final long zip64EndOffset = position;
+                final ByteBuffer zip64End = ByteBuffer.allocate(56 + 20).order(ByteOrder.LITTLE_ENDIAN);
+                zip64End.putInt(ZIP64_END_SIGNATURE);
+                zip64End.putLong(44);
+                zip64End.putShort((short) VERSION_ZIP64);
+                zip64End.putShort((short) VERSION_ZIP64);
+                zip64End.putInt(0);
+                zip64End.putInt(0);
+                zip64End.putLong(entryCount);
+                zip64End.putLong(entryCount);
+                zip64End.putLong(directorySize);
+                zip64End.putLong(directoryOffset);
+                zip64End.putInt(ZIP64_LOCATOR_SIGNATURE);
+                zip64End.putInt(0);
+                zip64End.putLong(zip64EndOffset);
+                zip64End.putInt(1);
+                output.write(zip64End.array());
+                position += zip64End.capacity();
+            }
+
+            final ByteBuffer end = ByteBuffer.allocate(22).order(ByteOrder.LITTLE_ENDIAN);
+            end.putInt(END_SIGNATURE);
+            end.putShort((short) 0);
+            end.putShort((short) 0);
+            end.putShort((short) Math.min(entryCount, MAX_16_BIT));
+            end.putShort((short) Math.min(entryCount, MAX_16_BIT));
+            end.putInt((int) Math.min(directorySize, MAX_32_BIT));
+            end.putInt((int) Math.min(directoryOffset, MAX_32_BIT));
+            end.putShort((short) 0);
+            output.write(end.array());
+            output.flush();
+        }
+    }
+
+    private void writeCentralHeader(WrittenEntry entry) throws IOException {
+        final boolean zip64 = entry.offset() >= MAX_32_BIT;
+        final int extraLength = zip64 ? 12 : 0;
+
+        final ByteBuffer header = ByteBuffer.allocate(46 + entry.name().length + extraLength).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(CENTRAL_HEADER_SIGNATURE);
+        header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION_DEFLATED));
+        header.putShort((short) (zip64 ? VERSION_ZIP64 : entry.method() == ZipEntry.STORED ? VERSION_STORED : VERSION_DEFLATED));
+        header.putShort((short) UTF8_FLAG);
+        header.putShort((short) entry.method());
+        header.putShort((short) DOS_TIME);
+        header.putShort((short) DOS_DATE);
+        header.putInt((int) entry.crc());
+        header.putInt((int) entry.compressedSize());
+        header.putInt((int) entry.size());
+        header.putShort((short) entry.name().length);
+        header.putShort((short) extraLength);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putShort((short) 0);
+        header.putInt(0);
+        header.putInt((int) (zip64 ? MAX_32_BIT : entry.offset()));
+        header.put(entry.name());
+        if (zip64) {
+            header.putShort((short) 0x0001);
+            header.putShort((short) 8);
+            header.putLong(entry.offset());
+        }
+
+        output.write(header.array());
+        position += header.capacity();
+    }
+}
@@ -0,0 +1,69 @@
+package net.neoforged.gradle.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashFunctionTest {
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void hashingAFileMatchesHashingItsContent() throws IOException {
+        //Larger than the buffer, and not a multiple of it.
+        final byte[] content = randomBytes(300_001);
+        final File file = new File(directory, "file.bin");
+        Files.write(file.toPath(), content);
+
+        for (HashFunction function : HashFunction.values()) {
+            assertEquals(function.hash(content), function.hash(file));
+            assertEquals(function.hash(content), function.hash(new ByteArrayInputStream(content)));
+        }
+    }
+
+    @Test
+    public void hashingMultipleFilesMatchesHashingTheirConcatenatedContent() throws IOException {
+        final byte[] first = randomBytes(70_000);
+        final byte[] second = randomBytes(10);
+        final File firstFile = new File(directory, "first.bin");
+        final File secondFile = new File(directory, "second.bin");
+        Files.write(firstFile.toPath(), first);
+        Files.write(secondFile.toPath(), second);
+
+        final byte[] concatenated = new byte[first.length + second.length];
+        System.arraycopy(first, 0, concatenated, 0, first.length);
+        System.arraycopy(second, 0, concatenated, first.length, second.length);
+
+        assertEquals(HashFunction.SHA1.hash(concatenated), HashFunction.SHA1.hash(List.of(firstFile, new File(directory, "missing.bin"), secondFile)));
+    }
+
+    @Test
+    public void digestsWrittenOnTheFlyMatchHashedContent() throws IOException {
+        final byte[] content = randomBytes(100_000);
+        final MessageDigest digest = HashFunction.SHA1.get();
+        try (OutputStream output = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            output.write(content);
+        }
+
+        assertEquals(HashFunction.SHA1.hash(content), HashFunction.SHA1.toHexString(digest));
+        assertEquals(40, HashFunction.SHA1.toHexString(HashFunction.SHA1.get()).length());
+    }
+
+    private static byte[] randomBytes(int length) {
+        final byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,74 @@
+package net.neoforged.gradle.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParsedFileCacheTest {
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void filesWithTheSameContentAreParsedOnce() throws IOException {
+        final File first = write("first.json", "same content");
+        final File second = write("second.json", "same content");
+        final AtomicInteger parses = new AtomicInteger();
+
+        final String parsed = ParsedFileCache.get(first, String.class, file -> parse(file, parses));
+        assertSame(parsed, ParsedFileCache.get(first, String.class, file -> parse(file, parses)));
+        assertSame(parsed, ParsedFileCache.get(second, String.class, file -> parse(file, parses)));
+        assertEquals(1, parses.get());
+    }
+
+    @Test
+    public void changedFilesAreParsedAgain() throws IOException {
+        final File file = write("changing.json", "original content");
+        final AtomicInteger parses = new AtomicInteger();
+
+        assertEquals("original content", ParsedFileCache.get(file, String.class, f -> parse(f, parses)));
+        write("changing.json", "changed content, which is longer");
+        assertEquals("changed content, which is longer", ParsedFileCache.get(file, String.class, f -> parse(f, parses)));
+        assertEquals(2, parses.get());
+    }
+
+    @Test
+    public void typesAreCachedSeparately() throws IOException {
+        final File file = write("typed.json", "42 and some content");
+
+        assertEquals("42 and some content", ParsedFileCache.get(file, String.class, f -> Files.readString(f.toPath())));
+        assertEquals(Integer.valueOf(19), ParsedFileCache.get(file, Integer.class, f -> (int) f.length()));
+    }
+
+    @Test
+    public void pairsAreKeyedByBothFiles() throws IOException {
+        final File client = write("client.txt", "client mappings");
+        final File server = write("server.txt", "server mappings");
+        final File otherServer = write("other-server.txt", "other server mappings");
+        final AtomicInteger parses = new AtomicInteger();
+
+        final String combined = ParsedFileCache.get(client, server, String.class, (first, second) -> parse(first, parses) + parse(second, parses));
+        assertSame(combined, ParsedFileCache.get(client, server, String.class, (first, second) -> parse(first, parses) + parse(second, parses)));
+        assertEquals(2, parses.get());
+
+        assertEquals("client mappingsother server mappings", ParsedFileCache.get(client, otherServer, String.class, (first, second) -> parse(first, parses) + parse(second, parses)));
+        assertEquals(4, parses.get());
+    }
+
+    private File write(String name, String content) throws IOException {
+        final File file = new File(directory, name);
+        Files.writeString(file.toPath(), content);
+        return file;
+    }
+
+    private static String parse(File file, AtomicInteger parses) throws IOException {
+        parses.incrementAndGet();
+        return Files.readString(file.toPath());
+    }
+}
@@ -0,0 +1,168 @@
+package net.neoforged.gradle.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipRewriterTest {
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void copiedEntriesKeepTheirContent() throws IOException {
+        final File input = new File(directory, "input.zip");
+        final byte[] random = new byte[100_000];
+        new Random(0).nextBytes(random);
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(input))) {
+            zip.putNextEntry(new ZipEntry("a/"));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("a/text.txt"));
+            zip.write("hello world ".repeat(1000).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            final ZipEntry stored = new ZipEntry("a/random.bin");
+            final CRC32 crc = new CRC32();
+            crc.update(random);
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(random.length);
+            stored.setCrc(crc.getValue());
+            zip.putNextEntry(stored);
+            zip.write(random);
+            zip.closeEntry();
+        }
+
+        final File output = new File(directory, "output.zip");
+        try (RawZipFile source = RawZipFile.open(input);
+             ZipRewriter rewriter = new ZipRewriter(output)) {
+            assertEquals(List.of("a/", "a/text.txt", "a/random.bin"), source.entries().stream().map(RawZipFile.Entry::name).collect(Collectors.toList()));
+            for (RawZipFile.Entry entry : source.entries()) {
+                rewriter.copy(source, entry);
+            }
+            rewriter.write("a/new.txt", "new".getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (ZipFile zip = new ZipFile(output)) {
+            assertTrue(zip.getEntry("a/").isDirectory());
+            assertEquals("hello world ".repeat(1000), new String(zip.getInputStream(zip.getEntry("a/text.txt")).readAllBytes(), StandardCharsets.UTF_8));
+            assertArrayEquals(random, zip.getInputStream(zip.getEntry("a/random.bin")).readAllBytes());
+            assertEquals("new", new String(zip.getInputStream(zip.getEntry("a/new.txt")).readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals(FileUtils.getStableEntry("a/new.txt").getTime(), zip.getEntry("a/new.txt").getTime());
+            assertEquals(FileUtils.getStableEntry("a/text.txt").getTime(), zip.getEntry("a/text.txt").getTime());
+        }
+    }
+
+    @Test
+    public void entriesCanBeReadWithoutCopying() throws IOException {
+        final File input = new File(directory, "input.zip");
+        try (ZipRewriter rewriter = new ZipRewriter(input)) {
+            rewriter.write("file.txt", "content ".repeat(100).getBytes(StandardCharsets.UTF_8));
+            rewriter.writeDirectory("dir");
+        }
+
+        try (RawZipFile zip = RawZipFile.open(input)) {
+            assertEquals(2, zip.entries().size());
+            assertEquals("content ".repeat(100), new String(zip.readAllBytes(zip.entries().get(0)), StandardCharsets.UTF_8));
+            assertTrue(zip.entries().get(1).isDirectory());
+            assertEquals(0, zip.readAllBytes(zip.entries().get(1)).length);
+        }
+    }
+
+    @Test
+    public void singleEntriesCanBeLookedUpAndExtracted() throws IOException {
+        final File input = new File(directory, "input.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(input))) {
+            zip.putNextEntry(new ZipEntry("META-INF/classpath"));
+            zip.write("a;b".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("../outside.txt"));
+            zip.closeEntry();
+        }
+
+        assertEquals("a;b", new String(RawZipFile.readEntry(input, "META-INF/classpath"), StandardCharsets.UTF_8));
+        assertNull(RawZipFile.readEntry(input, "META-INF/missing"));
+
+        final File target = new File(directory, "target");
+        try (RawZipFile zip = RawZipFile.open(input)) {
+            final Path extracted = zip.extract(zip.getEntry("META-INF/classpath"), target.toPath());
+            assertEquals(target.toPath().resolve("META-INF/classpath"), extracted);
+            assertEquals("a;b", Files.readString(extracted));
+            assertThrows(ZipException.class, () -> zip.extract(zip.getEntry("../outside.txt"), target.toPath()));
+        }
+    }
+
+    @Test
+    public void duplicateEntriesAreRejected() throws IOException {
+        try (ZipRewriter rewriter = new ZipRewriter(new File(directory, "output.zip"))) {
+            rewriter.write("file.txt", new byte[] {1});
+            assertTrue(rewriter.contains("file.txt"));
+            assertThrows(ZipException.class, () -> rewriter.write("file.txt", new byte[] {2}));
+        }
+    }
+
+    @Test
+    public void entriesCanBeAppended() throws IOException {
+        final File output = new File(directory, "output.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(output))) {
+            zip.setComment("comment");
+            zip.putNextEntry(new ZipEntry("a/existing.txt"));
+            zip.write("existing ".repeat(100).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        try (ZipRewriter rewriter = ZipRewriter.append(output)) {
+            assertTrue(rewriter.contains("a/existing.txt"));
+            assertThrows(ZipException.class, () -> rewriter.write("a/existing.txt", new byte[] {1}));
+            rewriter.write("a/new.txt", "new".getBytes(StandardCharsets.UTF_8));
+        }
+
+        try (ZipFile zip = new ZipFile(output)) {
+            assertEquals(2, zip.size());
+            assertEquals("existing ".repeat(100), new String(zip.getInputStream(zip.getEntry("a/existing.txt")).readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals("new", new String(zip.getInputStream(zip.getEntry("a/new.txt")).readAllBytes(), StandardCharsets.UTF_8));
+        }
+        try (ZipInputStream zip = new ZipInputStream(new FileInputStream(output))) {
+            assertEquals("a/existing.txt", zip.getNextEntry().getName());
+            assertEquals("existing ".repeat(100), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals("a/new.txt", zip.getNextEntry().getName());
+            assertEquals("new", new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            assertNull(zip.getNextEntry());
+        }
+    }
+
+    @Test
+    public void manyEntriesAreWrittenAsZip64() throws IOException {
+        final File output = new File(directory, "output.zip");
+        try (ZipRewriter rewriter = new ZipRewriter(output)) {
+            for (int i = 0; i < 70_000; i++) {
+                rewriter.write("file-" + i, new byte[0]);
+            }
+        }
+
+        try (RawZipFile zip = RawZipFile.open(output)) {
+            assertEquals(70_000, zip.entries().size());
+            assertEquals("file-69999", zip.entries().get(69_999).name());
+        }
+        try (ZipFile zip = new ZipFile(output)) {
+            assertEquals(70_000, zip.size());
+        }
+    }
+}